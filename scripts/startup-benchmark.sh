@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request of the prod profile.
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+#
+# The war is exploded into build/startup so the JVM can use an AppCDS archive (nested jars cannot be archived).
+# The first pass runs without the archive and records one (JDK 13+), the following passes start from it.
+set -euo pipefail
+
+RUNS=${1:-3}
+PORT=${PORT:-18080}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+WORK="$ROOT/build/startup"
+
+cd "$ROOT"
+./gradlew -q bootWar
+
+rm -rf "$WORK"
+mkdir -p "$WORK/exploded"
+(cd "$WORK/exploded" && jar xf "$(ls "$ROOT"/build/libs/*.war | head -1)")
+jar cf "$WORK/app.jar" -C "$WORK/exploded/WEB-INF/classes" .
+CLASSPATH="$WORK/app.jar:$(ls "$WORK"/exploded/WEB-INF/lib/*.jar "$WORK"/exploded/WEB-INF/lib-provided/*.jar | tr '\n' ':')"
+
+now_ms() {
+    date +%s%3N
+}
+
+run_once() {
+    local label=$1
+    shift
+    local start
+    start=$(now_ms)
+    java "$@" -cp "$CLASSPATH" com.tenniscourts.TennisCourtApplication \
+        --spring.profiles.active=prod \
+        --server.port="$PORT" \
+        --spring.datasource.url="jdbc:h2:file:$WORK/db/tennisCourts" > "$WORK/$label.log" 2>&1 &
+    local pid=$!
+    until curl -sf "http://localhost:$PORT/guests" > /dev/null; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$label: application exited, see $WORK/$label.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    echo "$label: first request served after $(( $(now_ms) - start )) ms"
+    kill "$pid"
+    wait "$pid" || true
+}
+
+run_once "training" -XX:ArchiveClassesAtExit="$WORK/app-cds.jsa"
+for i in $(seq 1 "$RUNS"); do
+    run_once "no-cds-$i" -Xshare:auto
+    run_once "cds-$i" -XX:SharedArchiveFile="$WORK/app-cds.jsa"
+done
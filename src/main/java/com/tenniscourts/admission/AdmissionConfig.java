@@ -0,0 +1,29 @@
+package com.tenniscourts.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class AdmissionConfig {
+
+    @Bean
+    public BookingAdmission bookingAdmission(@Value("${tenniscourts.admission.guest.capacity:10}") int guestCapacity,
+                                             @Value("${tenniscourts.admission.guest.refill-per-second:1}") double guestRefillPerSecond,
+                                             @Value("${tenniscourts.admission.address.capacity:30}") int addressCapacity,
+                                             @Value("${tenniscourts.admission.address.refill-per-second:5}") double addressRefillPerSecond,
+                                             @Value("${tenniscourts.admission.max-tracked-keys:100000}") int maxTrackedKeys,
+                                             @Value("${tenniscourts.admission.concurrency.initial-limit:20}") int initialLimit,
+                                             @Value("${tenniscourts.admission.concurrency.min-limit:4}") int minLimit,
+                                             @Value("${tenniscourts.admission.concurrency.max-limit:200}") int maxLimit,
+                                             @Value("${tenniscourts.admission.concurrency.target-latency-ms:250}") long targetLatencyMillis,
+                                             @Value("${tenniscourts.admission.client-address-header:}") String clientAddressHeader) {
+        return new BookingAdmission(
+                new TokenBucketRateLimiter(guestCapacity, guestRefillPerSecond, maxTrackedKeys),
+                new TokenBucketRateLimiter(addressCapacity, addressRefillPerSecond, maxTrackedKeys),
+                new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, TimeUnit.MILLISECONDS.toNanos(targetLatencyMillis)),
+                clientAddressHeader);
+    }
+}
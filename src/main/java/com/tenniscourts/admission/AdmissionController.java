@@ -0,0 +1,22 @@
+package com.tenniscourts.admission;
+
+import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/admin/admission")
+public class AdmissionController {
+
+    private final BookingAdmission bookingAdmission;
+
+    @ApiOperation(value = "Show booking admission counters and the current concurrency limit")
+    @GetMapping
+    public ResponseEntity<AdmissionStatsDTO> showAdmissionStats() {
+        return ResponseEntity.ok(bookingAdmission.getStats());
+    }
+}
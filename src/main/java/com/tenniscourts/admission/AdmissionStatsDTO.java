@@ -0,0 +1,27 @@
+package com.tenniscourts.admission;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class AdmissionStatsDTO {
+
+    private final long admitted;
+
+    private final long rejectedByGuest;
+
+    private final long rejectedByAddress;
+
+    private final long rejectedByConcurrency;
+
+    private final int concurrencyLimit;
+
+    private final int inFlight;
+
+    private final int trackedGuests;
+
+    private final int trackedAddresses;
+}
@@ -0,0 +1,126 @@
+package com.tenniscourts.admission;
+
+import com.tenniscourts.exceptions.TooManyRequestsException;
+
+import org.springframework.util.StringUtils;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of the booking path. A booking must get a token from the bucket of the guest it is
+ * made for, a token from the client address bucket and a concurrency slot before any database work starts. Tokens
+ * already taken are given back when a later check rejects the booking, so a rejection costs no budget.
+ * <p>
+ * The application has no authentication, so the guest bucket is keyed on the guest id of the booking. A client that
+ * rotates guest ids is still held by the address bucket. The address is the remote address of the connection, or,
+ * when the application runs behind a proxy, the last entry of the configured forwarded-for header, which is the one
+ * the trusted proxy appended itself.
+ */
+public class BookingAdmission {
+
+    private final TokenBucketRateLimiter guestLimiter;
+
+    private final TokenBucketRateLimiter addressLimiter;
+
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    private final String clientAddressHeader;
+
+    private final LongAdder admitted = new LongAdder();
+
+    private final LongAdder rejectedByGuest = new LongAdder();
+
+    private final LongAdder rejectedByAddress = new LongAdder();
+
+    private final LongAdder rejectedByConcurrency = new LongAdder();
+
+    public BookingAdmission(TokenBucketRateLimiter guestLimiter, TokenBucketRateLimiter addressLimiter,
+                            AdaptiveConcurrencyLimiter concurrencyLimiter, String clientAddressHeader) {
+        this.guestLimiter = guestLimiter;
+        this.addressLimiter = addressLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.clientAddressHeader = StringUtils.hasText(clientAddressHeader) ? clientAddressHeader : null;
+    }
+
+    /**
+     * Admits one booking attempt for a guest from the client that sent the request.
+     *
+     * @see #admit(String, String)
+     */
+    public Permit admit(HttpServletRequest request, Long guestId) {
+        return admit(guestId == null ? null : guestId.toString(), clientAddress(request));
+    }
+
+    private String clientAddress(HttpServletRequest request) {
+        String forwardedFor = clientAddressHeader == null ? null : request.getHeader(clientAddressHeader);
+        if (!StringUtils.hasText(forwardedFor)) {
+            return request.getRemoteAddr();
+        }
+        return forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+    }
+
+    /**
+     * Admits one booking attempt.
+     *
+     * @param guestKey     the key of the guest bucket, null to limit by address only
+     * @param remoteAddress the client address
+     * @return a permit to close when the booking finishes
+     * @throws TooManyRequestsException when a limit is exceeded
+     */
+    public Permit admit(String guestKey, String remoteAddress) {
+        if (guestKey != null && !guestLimiter.tryAcquire(guestKey)) {
+            rejectedByGuest.increment();
+            throw new TooManyRequestsException("Too many booking attempts for this caller, try again later");
+        }
+        if (!addressLimiter.tryAcquire(remoteAddress)) {
+            giveBack(guestKey, null);
+            rejectedByAddress.increment();
+            throw new TooManyRequestsException("Too many booking attempts from this address, try again later");
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            giveBack(guestKey, remoteAddress);
+            rejectedByConcurrency.increment();
+            throw new TooManyRequestsException("Booking is overloaded, try again later");
+        }
+        admitted.increment();
+        return new Permit(System.nanoTime());
+    }
+
+    private void giveBack(String guestKey, String remoteAddress) {
+        if (guestKey != null) {
+            guestLimiter.release(guestKey);
+        }
+        if (remoteAddress != null) {
+            addressLimiter.release(remoteAddress);
+        }
+    }
+
+    public AdmissionStatsDTO getStats() {
+        return new AdmissionStatsDTO(admitted.sum(), rejectedByGuest.sum(), rejectedByAddress.sum(), rejectedByConcurrency.sum(),
+                concurrencyLimiter.getLimit(), concurrencyLimiter.getInFlight(),
+                guestLimiter.getTrackedKeys(), addressLimiter.getTrackedKeys());
+    }
+
+    /**
+     * A concurrency slot held by an admitted booking. Closing it more than once has no effect.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final long admittedAt;
+
+        private boolean closed;
+
+        private Permit(long admittedAt) {
+            this.admittedAt = admittedAt;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (!closed) {
+                closed = true;
+                concurrencyLimiter.release(System.nanoTime() - admittedAt);
+            }
+        }
+    }
+}
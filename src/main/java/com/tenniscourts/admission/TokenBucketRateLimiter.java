@@ -0,0 +1,160 @@
+package com.tenniscourts.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Keyed token buckets that refill continuously. Taking a token is a compare-and-set on the
+ * bucket state, so callers never block each other.
+ * <p>
+ * The table holds at most {@code maxKeys} buckets. When it is full, a new key looks at the few oldest
+ * keys and drops the first bucket that has refilled completely, since a new bucket would be in the same
+ * state; buckets still in use go to the back of the line. Admitting a new key therefore costs a fixed
+ * number of steps however large the table is. If no bucket could be dropped, the new key shares a single
+ * overflow bucket until room frees up.
+ */
+public class TokenBucketRateLimiter {
+
+    static final String OVERFLOW_KEY = "*";
+
+    static final int EVICTION_PROBES = 4;
+
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<String> keysByAge = new ConcurrentLinkedQueue<>();
+
+    private final double capacity;
+
+    private final double tokensPerNano;
+
+    private final int maxKeys;
+
+    private final LongSupplier nanoClock;
+
+    public TokenBucketRateLimiter(int capacity, double refillPerSecond, int maxKeys) {
+        this(capacity, refillPerSecond, maxKeys, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(int capacity, double refillPerSecond, int maxKeys, LongSupplier nanoClock) {
+        if (capacity < 1 || refillPerSecond <= 0 || maxKeys < 1) {
+            throw new IllegalArgumentException("Capacity, refill rate and max keys must be positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes one token from the bucket of the given key.
+     *
+     * @return false when the bucket is empty
+     */
+    public boolean tryAcquire(String key) {
+        long now = nanoClock.getAsLong();
+        return bucketFor(key, now).tryAcquire(now);
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire(String)}, for a call that was rejected further on.
+     */
+    public void release(String key) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            bucket.release(nanoClock.getAsLong());
+        }
+    }
+
+    public int getTrackedKeys() {
+        return buckets.size();
+    }
+
+    private TokenBucket bucketFor(String key, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxKeys && !evictOldFullBucket(now)) {
+            return buckets.computeIfAbsent(OVERFLOW_KEY, overflowKey -> new TokenBucket(now));
+        }
+
+        TokenBucket created = new TokenBucket(now);
+        TokenBucket existing = buckets.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        keysByAge.add(key);
+        return created;
+    }
+
+    private boolean evictOldFullBucket(long now) {
+        for (int probe = 0; probe < EVICTION_PROBES; probe++) {
+            String oldest = keysByAge.poll();
+            if (oldest == null) {
+                return false;
+            }
+            TokenBucket bucket = buckets.get(oldest);
+            if (bucket == null || bucket.isFull(now) && buckets.remove(oldest, bucket)) {
+                return true;
+            }
+            keysByAge.add(oldest);
+        }
+        return false;
+    }
+
+    private final class TokenBucket {
+
+        private final AtomicReference<State> state;
+
+        private TokenBucket(long now) {
+            this.state = new AtomicReference<>(new State(capacity, now));
+        }
+
+        private boolean tryAcquire(long now) {
+            while (true) {
+                State current = state.get();
+                double tokens = current.refill(now);
+                if (tokens < 1) {
+                    return false;
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, Math.max(now, current.refilledAt)))) {
+                    return true;
+                }
+            }
+        }
+
+        private void release(long now) {
+            while (true) {
+                State current = state.get();
+                State released = new State(Math.min(capacity, current.refill(now) + 1), Math.max(now, current.refilledAt));
+                if (state.compareAndSet(current, released)) {
+                    return;
+                }
+            }
+        }
+
+        private boolean isFull(long now) {
+            return state.get().refill(now) >= capacity;
+        }
+    }
+
+    private final class State {
+
+        private final double tokens;
+
+        private final long refilledAt;
+
+        private State(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        private double refill(long now) {
+            return Math.min(capacity, tokens + Math.max(0, now - refilledAt) * tokensPerNano);
+        }
+    }
+}
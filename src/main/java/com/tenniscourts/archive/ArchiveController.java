@@ -0,0 +1,22 @@
+package com.tenniscourts.archive;
+
+import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/admin/archive")
+public class ArchiveController {
+
+    private final ArchiveService archiveService;
+
+    @ApiOperation(value = "Archive the schedules and reservations older than the retention window now")
+    @PostMapping
+    public ResponseEntity<Integer> archive() {
+        return ResponseEntity.ok(archiveService.archive());
+    }
+}
@@ -0,0 +1,84 @@
+package com.tenniscourts.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves schedules that ended before the retention window, with their reservations, from the hot tables to the
+ * archive tables. Each chunk is copied and deleted in its own transaction, so the job never holds locks on more
+ * than one chunk and can stop at any point without losing rows.
+ */
+@Slf4j
+@Service
+public class ArchiveService {
+
+    static final String SCHEDULE_COLUMNS = "id, date_create, date_update, ip_number_create, ip_number_update, user_create, user_update,"
+            + " tennis_court_id, start_date_time, end_date_time";
+
+    static final String RESERVATION_COLUMNS = "id, date_create, date_update, ip_number_create, ip_number_update, user_create, user_update,"
+            + " guest_id, schedule_id, value, reservation_status, refund_value, checked_in_at, hold_expires_at";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long retentionDays;
+
+    private final int chunkSize;
+
+    public ArchiveService(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          @Value("${tenniscourts.archive.retention-days:365}") long retentionDays,
+                          @Value("${tenniscourts.archive.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Archives every schedule that ended before the retention window.
+     *
+     * @return the number of schedules archived
+     */
+    @Scheduled(cron = "${tenniscourts.archive.cron:0 30 3 * * *}")
+    public synchronized int archive() {
+        LocalDateTime endedBefore = LocalDateTime.now().minusDays(retentionDays);
+        int archived = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> archiveChunk(endedBefore));
+            archived += moved == null ? 0 : moved;
+            if (moved == null || moved < chunkSize) {
+                log.info("Archived {} schedules that ended before {}", archived, endedBefore);
+                return archived;
+            }
+        }
+    }
+
+    private int archiveChunk(LocalDateTime endedBefore) {
+        List<Long> scheduleIds = jdbcTemplate.queryForList(
+                "select id from schedule where end_date_time < :endedBefore order by id limit :chunkSize",
+                new MapSqlParameterSource("endedBefore", Timestamp.valueOf(endedBefore)).addValue("chunkSize", chunkSize), Long.class);
+        if (scheduleIds.isEmpty()) {
+            return 0;
+        }
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource("ids", scheduleIds).addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+        jdbcTemplate.update("insert into reservation_archive (" + RESERVATION_COLUMNS + ", archived_at)"
+                + " select " + RESERVATION_COLUMNS + ", :archivedAt from reservation where schedule_id in (:ids)", parameters);
+        jdbcTemplate.update("delete from reservation where schedule_id in (:ids)", parameters);
+        jdbcTemplate.update("insert into schedule_archive (" + SCHEDULE_COLUMNS + ", archived_at)"
+                + " select " + SCHEDULE_COLUMNS + ", :archivedAt from schedule where id in (:ids)", parameters);
+        jdbcTemplate.update("delete from schedule where id in (:ids)", parameters);
+        return scheduleIds.size();
+    }
+}
@@ -0,0 +1,52 @@
+package com.tenniscourts.archive;
+
+import com.tenniscourts.config.persistence.BaseEntity;
+import com.tenniscourts.reservations.ReservationStatus;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A reservation moved out of the hot table by {@link ArchiveService}, together with its schedule. Rows are only written with SQL.
+ */
+@Entity
+@Table(name = "reservation_archive", indexes = @Index(name = "idx_reservation_archive_schedule", columnList = "scheduleId"))
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class ArchivedReservation extends BaseEntity<Long> {
+
+    @Column
+    @NotNull
+    private Long guestId;
+
+    @Column
+    @NotNull
+    private Long scheduleId;
+
+    @NotNull
+    private BigDecimal value;
+
+    @NotNull
+    private ReservationStatus reservationStatus;
+
+    private BigDecimal refundValue;
+
+    @Column
+    private LocalDateTime checkedInAt;
+
+    @Column
+    private LocalDateTime holdExpiresAt;
+
+    @Column
+    @NotNull
+    private LocalDateTime archivedAt;
+}
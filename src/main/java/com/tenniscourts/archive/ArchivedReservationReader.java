@@ -0,0 +1,83 @@
+package com.tenniscourts.archive;
+
+import com.tenniscourts.config.persistence.EntityStreams;
+import com.tenniscourts.guests.GuestDTO;
+import com.tenniscourts.reservations.ReservationDTO;
+import com.tenniscourts.reservations.ReservationStatus;
+import com.tenniscourts.schedules.ScheduleDTO;
+import com.tenniscourts.tenniscourts.TennisCourtDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads archived reservations as the same DTOs the hot tables produce.
+ */
+@Component
+public class ArchivedReservationReader {
+
+    private static final int PAGE_SIZE = Integer.parseInt(EntityStreams.FETCH_SIZE);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ArchivedReservationReader(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(Integer.parseInt(EntityStreams.FETCH_SIZE));
+    }
+
+    /**
+     * Reads by id keyset, one page per query, and hands a page on only after its query has returned the connection.
+     */
+    public void streamReservationsStartingBefore(LocalDateTime startDateTime, Consumer<ReservationDTO> consumer) {
+        long afterId = 0;
+        List<ReservationDTO> page;
+        do {
+            page = jdbcTemplate.query("select r.id, r.value, r.reservation_status, r.refund_value, r.checked_in_at,"
+                            + " g.id guest_id, g.name guest_name,"
+                            + " s.id schedule_id, s.start_date_time, s.end_date_time, c.id tennis_court_id, c.name tennis_court_name"
+                            + " from reservation_archive r"
+                            + " join schedule_archive s on s.id = r.schedule_id"
+                            + " left join guest g on g.id = r.guest_id"
+                            + " left join tennis_court c on c.id = s.tennis_court_id"
+                            + " where s.start_date_time <= ? and r.id > ?"
+                            + " order by r.id limit ?",
+                    (resultSet, rowNum) -> map(resultSet), Timestamp.valueOf(startDateTime), afterId, PAGE_SIZE);
+            page.forEach(consumer);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    private ReservationDTO map(ResultSet resultSet) throws SQLException {
+        ScheduleDTO schedule = new ScheduleDTO();
+        schedule.setId(resultSet.getLong("schedule_id"));
+        schedule.setStartDateTime(resultSet.getTimestamp("start_date_time").toLocalDateTime());
+        schedule.setEndDateTime(resultSet.getTimestamp("end_date_time").toLocalDateTime());
+        schedule.setTennisCourt(TennisCourtDTO.builder()
+                .id(resultSet.getLong("tennis_court_id"))
+                .name(resultSet.getString("tennis_court_name"))
+                .build());
+
+        Timestamp checkedInAt = resultSet.getTimestamp("checked_in_at");
+        return ReservationDTO.builder()
+                .id(resultSet.getLong("id"))
+                .guest(GuestDTO.builder()
+                        .id(resultSet.getLong("guest_id"))
+                        .name(resultSet.getString("guest_name"))
+                        .build())
+                .schedule(schedule)
+                .reservationStatus(ReservationStatus.values()[resultSet.getInt("reservation_status")].name())
+                .value(resultSet.getBigDecimal("value"))
+                .refundValue(resultSet.getBigDecimal("refund_value"))
+                .checkedInAt(checkedInAt == null ? null : checkedInAt.toLocalDateTime())
+                .build();
+    }
+}
@@ -0,0 +1,40 @@
+package com.tenniscourts.archive;
+
+import com.tenniscourts.config.persistence.BaseEntity;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * A schedule moved out of the hot table by {@link ArchiveService}. Rows are only written with SQL.
+ */
+@Entity
+@Table(name = "schedule_archive", indexes = @Index(name = "idx_schedule_archive_start", columnList = "startDateTime"))
+@Getter
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class ArchivedSchedule extends BaseEntity<Long> {
+
+    @Column
+    @NotNull
+    private Long tennisCourtId;
+
+    @Column
+    @NotNull
+    private LocalDateTime startDateTime;
+
+    @Column
+    @NotNull
+    private LocalDateTime endDateTime;
+
+    @Column
+    @NotNull
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,20 @@
+package com.tenniscourts.availability;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class AvailabilityChangeDTO {
+
+    private final Long tennisCourtId;
+
+    private final LocalDate date;
+
+    private final List<SlotStateDTO> slots;
+}
@@ -0,0 +1,53 @@
+package com.tenniscourts.availability;
+
+import com.tenniscourts.config.threading.VirtualThreads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AvailabilityConfig {
+
+    /**
+     * Writes the events of {@link AvailabilityFeed} to its subscribers, so a slow client never blocks the scheduler.
+     * The pool and its queue are bounded, and a subscriber that finds no room is dropped and reconnects.
+     */
+    @Bean
+    public AsyncTaskExecutor availabilityFeedExecutor(@Value("${tenniscourts.threads.virtual.enabled:false}") boolean virtualThreads,
+                                                      @Value("${tenniscourts.availability.send-pool-size:4}") int poolSize,
+                                                      @Value("${tenniscourts.availability.send-queue-capacity:1024}") int queueCapacity) {
+        if (virtualThreads) {
+            return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("availability-feed-vt-"));
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("availability-feed-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        return executor;
+    }
+
+    /**
+     * Runs the writes of {@link AvailabilityFeed}, which waits for each one at most the send timeout. A write that
+     * timed out keeps its thread until the container gives up on the connection, so the feed executor is never held
+     * by a slow client. The pool has no queue, and a subscriber that finds it full is dropped.
+     */
+    @Bean
+    public AsyncTaskExecutor availabilitySendExecutor(@Value("${tenniscourts.threads.virtual.enabled:false}") boolean virtualThreads,
+                                                      @Value("${tenniscourts.availability.max-send-threads:64}") int maxSendThreads) {
+        if (virtualThreads) {
+            return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("availability-send-vt-"));
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("availability-send-");
+        executor.setCorePoolSize(0);
+        executor.setMaxPoolSize(maxSendThreads);
+        executor.setQueueCapacity(0);
+        return executor;
+    }
+}
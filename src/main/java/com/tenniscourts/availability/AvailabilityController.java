@@ -0,0 +1,30 @@
+package com.tenniscourts.availability;
+
+import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/availability")
+public class AvailabilityController {
+
+    private final AvailabilityFeed availabilityFeed;
+
+    @ApiOperation(value = "Stream slot availability changes of a tennis court on a day as server-sent events")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability(@RequestParam(value = "tennisCourtId") Long tennisCourtId,
+                                         @RequestParam(value = "date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                         @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return availabilityFeed.subscribe(tennisCourtId, date, lastEventId);
+    }
+}
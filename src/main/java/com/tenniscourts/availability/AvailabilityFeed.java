@@ -0,0 +1,400 @@
+package com.tenniscourts.availability;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.outbox.OutboxEventDTO;
+import com.tenniscourts.outbox.OutboxSubscriber;
+import com.tenniscourts.reservations.ReservationDTO;
+import com.tenniscourts.reservations.ReservationEventType;
+import com.tenniscourts.schedules.ScheduleDTO;
+import com.tenniscourts.schedules.ScheduleEventType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes slot availability changes to server-sent event subscribers of a court and day.
+ * <p>
+ * Changes arrive from the outbox after their transaction committed, and are collected until the next flush.
+ * A flush publishes one event per court and day with the latest state of every changed slot, so a burst of
+ * changes reaches clients as a single event. The event is serialized once and written to every subscriber.
+ * <p>
+ * The last published events are kept in a ring buffer. Event ids start with the epoch of this feed, drawn at startup,
+ * so ids from another node or from before a restart are never mistaken for ids of this one. A client that reconnects
+ * with {@code Last-Event-ID} gets the events it missed, or a {@code reset} event telling it to reload the schedules
+ * when they are no longer buffered or the id is from another epoch.
+ * <p>
+ * Events are only queued per subscriber on the scheduler and request threads; they are written on the bounded
+ * {@code availabilityFeedExecutor}, one subscriber at a time in order. Each write runs on the
+ * {@code availabilitySendExecutor} and is waited for at most the send timeout, so a slow client never holds the feed
+ * executor. A subscriber whose queue grows past the limit, or whose write times out, is dropped and resumes with its
+ * last event id.
+ */
+@Slf4j
+@Component
+public class AvailabilityFeed implements OutboxSubscriber {
+
+    static final String AVAILABILITY_EVENT = "availability";
+
+    static final String RESET_EVENT = "reset";
+
+    private final ObjectMapper objectMapper;
+
+    private final AsyncTaskExecutor availabilityFeedExecutor;
+
+    private final AsyncTaskExecutor availabilitySendExecutor;
+
+    private final long emitterTimeoutMillis;
+
+    private final long sendTimeoutNanos;
+
+    private final int maxQueuedEvents;
+
+    private final Map<String, Set<Subscriber>> emitters = new ConcurrentHashMap<>();
+
+    private final Object pendingLock = new Object();
+
+    private Map<String, Map<Long, SlotStateDTO>> pending = new HashMap<>();
+
+    private final PublishedEvent[] history;
+
+    private final String epoch = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, Character.MAX_RADIX);
+
+    private long nextEventId = 1;
+
+    public AvailabilityFeed(ObjectMapper objectMapper,
+                            @Qualifier("availabilityFeedExecutor") AsyncTaskExecutor availabilityFeedExecutor,
+                            @Qualifier("availabilitySendExecutor") AsyncTaskExecutor availabilitySendExecutor,
+                            @Value("${tenniscourts.availability.emitter-timeout-ms:1800000}") long emitterTimeoutMillis,
+                            @Value("${tenniscourts.availability.send-timeout-ms:10000}") long sendTimeoutMillis,
+                            @Value("${tenniscourts.availability.max-queued-events:256}") int maxQueuedEvents,
+                            @Value("${tenniscourts.availability.history-size:1024}") int historySize) {
+        this.objectMapper = objectMapper;
+        this.availabilityFeedExecutor = availabilityFeedExecutor;
+        this.availabilitySendExecutor = availabilitySendExecutor;
+        this.emitterTimeoutMillis = emitterTimeoutMillis;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.maxQueuedEvents = maxQueuedEvents;
+        this.history = new PublishedEvent[historySize];
+    }
+
+    /**
+     * Subscribes to the availability changes of a court on a day.
+     *
+     * @param tennisCourtId the tennis court id
+     * @param date          the day
+     * @param lastEventId   the id of the last event the client received, null on the first connection
+     * @return the emitter to return from the handler
+     */
+    public SseEmitter subscribe(Long tennisCourtId, LocalDate date, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(topic(tennisCourtId, date), emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(e -> subscriber.close());
+
+        // the missed events are queued before the subscriber is registered, so they go out before any new event
+        synchronized (history) {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            emitters.computeIfAbsent(subscriber.topic, key -> new CopyOnWriteArraySet<>()).add(subscriber);
+        }
+        return emitter;
+    }
+
+    @Override
+    public void onEvent(OutboxEventDTO event) {
+        try {
+            if (ScheduleEventType.SCHEDULE_ADDED.name().equals(event.getEventType())) {
+                changed(objectMapper.readValue(event.getPayload(), ScheduleDTO.class), true);
+            } else if (ReservationEventType.RESERVATION_BOOKED.name().equals(event.getEventType())
+                    || ReservationEventType.RESERVATION_HELD.name().equals(event.getEventType())) {
+                changed(objectMapper.readValue(event.getPayload(), ReservationDTO.class).getSchedule(), false);
+            } else if (ReservationEventType.RESERVATION_CANCELLED.name().equals(event.getEventType())
+                    || ReservationEventType.RESERVATION_RESCHEDULED.name().equals(event.getEventType())
+                    || ReservationEventType.RESERVATION_EXPIRED.name().equals(event.getEventType())
+                    || ReservationEventType.RESERVATION_RELEASED.name().equals(event.getEventType())) {
+                changed(objectMapper.readValue(event.getPayload(), ReservationDTO.class).getSchedule(), true);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Publishes the changes collected since the last flush.
+     */
+    @Scheduled(fixedDelayString = "${tenniscourts.availability.coalesce-ms:250}")
+    public void flush() {
+        Map<String, Map<Long, SlotStateDTO>> changes;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            changes = pending;
+            pending = new HashMap<>();
+        }
+
+        changes.forEach((topic, slots) -> {
+            SlotStateDTO first = slots.values().iterator().next();
+            String data = serialize(new AvailabilityChangeDTO(tennisCourtId(topic), first.getStartDateTime().toLocalDate(), new ArrayList<>(slots.values())));
+
+            PublishedEvent event;
+            Set<Subscriber> targets;
+            synchronized (history) {
+                event = new PublishedEvent(epoch, nextEventId++, topic, data);
+                history[(int) (event.id % history.length)] = event;
+                targets = emitters.getOrDefault(topic, Collections.emptySet());
+            }
+            targets.forEach(subscriber -> subscriber.offer(event.toSseEvent()));
+        });
+    }
+
+    /**
+     * Sends a comment to every subscriber, so connections dropped by the client are detected and released.
+     */
+    @Scheduled(fixedDelayString = "${tenniscourts.availability.heartbeat-ms:15000}")
+    public void heartbeat() {
+        emitters.values().forEach(topicSubscribers -> topicSubscribers.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment(""))));
+    }
+
+    public int getSubscriberCount() {
+        return emitters.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void changed(ScheduleDTO schedule, boolean available) {
+        String topic = topic(schedule.getTennisCourt().getId(), schedule.getStartDateTime().toLocalDate());
+        SlotStateDTO slot = new SlotStateDTO(schedule.getId(), schedule.getStartDateTime(), schedule.getEndDateTime(), available);
+        synchronized (pendingLock) {
+            pending.computeIfAbsent(topic, key -> new LinkedHashMap<>()).put(slot.getScheduleId(), slot);
+        }
+    }
+
+    private void replay(Subscriber subscriber, String lastEventIdHeader) {
+        long lastEventId = sequence(lastEventIdHeader);
+        long oldestEventId = Math.max(1, nextEventId - history.length);
+        if (lastEventId < 0 || lastEventId + 1 < oldestEventId || lastEventId >= nextEventId) {
+            subscriber.offer(SseEmitter.event().name(RESET_EVENT).data(""));
+            return;
+        }
+        for (long id = lastEventId + 1; id < nextEventId; id++) {
+            PublishedEvent event = history[(int) (id % history.length)];
+            if (event.topic.equals(subscriber.topic)) {
+                subscriber.offer(event.toSseEvent());
+            }
+        }
+    }
+
+    /**
+     * @return the sequence number of an event id of this epoch, -1 for any other id
+     */
+    private long sequence(String eventId) {
+        String prefix = epoch + "-";
+        if (!eventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        emitters.computeIfPresent(subscriber.topic, (key, topicSubscribers) -> {
+            topicSubscribers.remove(subscriber);
+            return topicSubscribers.isEmpty() ? null : topicSubscribers;
+        });
+    }
+
+    private String serialize(AvailabilityChangeDTO change) {
+        try {
+            return objectMapper.writeValueAsString(change);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String topic(Long tennisCourtId, LocalDate date) {
+        return tennisCourtId + "/" + date;
+    }
+
+    private static Long tennisCourtId(String topic) {
+        return Long.valueOf(topic.substring(0, topic.indexOf('/')));
+    }
+
+    private static final class PublishedEvent {
+
+        private final String epoch;
+
+        private final long id;
+
+        private final String topic;
+
+        private final String data;
+
+        private PublishedEvent(String epoch, long id, String topic, String data) {
+            this.epoch = epoch;
+            this.id = id;
+            this.topic = topic;
+            this.data = data;
+        }
+
+        private SseEmitter.SseEventBuilder toSseEvent() {
+            return SseEmitter.event()
+                    .id(epoch + "-" + id)
+                    .name(AVAILABILITY_EVENT)
+                    .data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    /**
+     * The events queued for one emitter. At most one task per subscriber writes them, so they go out in order.
+     */
+    private final class Subscriber {
+
+        private final String topic;
+
+        private final SseEmitter emitter;
+
+        private final Queue<SseEmitter.SseEventBuilder> queue = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private final AtomicBoolean writing = new AtomicBoolean();
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        private Subscriber(String topic, SseEmitter emitter) {
+            this.topic = topic;
+            this.emitter = emitter;
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (queued.incrementAndGet() > maxQueuedEvents) {
+                log.debug("Dropping availability subscriber of {}, {} events behind", topic, maxQueuedEvents);
+                close();
+            } else {
+                queue.add(event);
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (!writing.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                availabilityFeedExecutor.execute(this::write);
+            } catch (TaskRejectedException e) {
+                writing.set(false);
+                log.debug("Dropping availability subscriber of {}, the feed executor is full", topic);
+                close();
+            }
+        }
+
+        /**
+         * Writes the queued events and, once closed, completes the emitter. Emitter calls block while a write does,
+         * so they are only made here, or by a write that timed out once it returns.
+         */
+        private void write() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed && (event = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    send(event);
+                }
+                if (closed) {
+                    queue.clear();
+                    completeUnlessSending();
+                }
+            } finally {
+                writing.set(false);
+            }
+            if (!closed && !queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            Future<?> sent;
+            sending.set(true);
+            try {
+                sent = availabilitySendExecutor.submit(() -> {
+                    try {
+                        emitter.send(event);
+                    } finally {
+                        sending.set(false);
+                        if (closed) {
+                            completeUnlessSending();
+                        }
+                    }
+                    return null;
+                });
+            } catch (TaskRejectedException e) {
+                sending.set(false);
+                log.debug("Dropping availability subscriber of {}, the send executor is full", topic);
+                close();
+                return;
+            }
+
+            try {
+                sent.get(sendTimeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                log.debug("Dropping availability subscriber of {}, a write took longer than the send timeout", topic);
+                close();
+            } catch (ExecutionException e) {
+                log.debug("Dropping availability subscriber of {}", topic, e.getCause());
+                close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+            }
+        }
+
+        private void completeUnlessSending() {
+            if (!sending.get()) {
+                emitter.complete();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            unsubscribe(this);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.tenniscourts.availability;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class SlotStateDTO {
+
+    private final Long scheduleId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private final LocalDateTime startDateTime;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm")
+    private final LocalDateTime endDateTime;
+
+    private final boolean available;
+}
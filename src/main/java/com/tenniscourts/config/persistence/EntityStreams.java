@@ -0,0 +1,83 @@
+package com.tenniscourts.config.persistence;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Pages through a repository query by keyset and hands every mapped entity to a consumer. Each page is read and mapped
+ * in a short read-only transaction, and reaches the consumer only after that transaction has ended, so a slow consumer,
+ * such as a client reading a streamed response, never holds a connection. Memory stays at one page however many rows
+ * are read.
+ */
+@Component
+public class EntityStreams {
+
+    public static final String FETCH_SIZE = "500";
+
+    private static final Pageable PAGE = PageRequest.of(0, Integer.parseInt(FETCH_SIZE));
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public EntityStreams(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Reads the page that follows the given entity, or the first page when it is null. Pages must be in keyset order,
+     * so the last entity of a page is where the next page starts.
+     *
+     * @param <E> the entity type
+     */
+    @FunctionalInterface
+    public interface PageQuery<E> {
+
+        List<E> after(E last, Pageable pageable);
+    }
+
+    /**
+     * @return the id to continue an id-ordered keyset after, zero for the first page
+     */
+    public static long idAfter(BaseEntity<Long> last) {
+        return last == null ? 0L : last.getId();
+    }
+
+    public <E, D> void forEach(PageQuery<E> query, Function<E, D> mapper, Consumer<D> consumer) {
+        E last = null;
+        while (true) {
+            E after = last;
+            Page<E, D> page = readOnlyTransaction.execute(status -> {
+                List<E> entities = query.after(after, PAGE);
+                List<D> mapped = new ArrayList<>(entities.size());
+                entities.forEach(entity -> mapped.add(mapper.apply(entity)));
+                return new Page<>(entities.isEmpty() ? null : entities.get(entities.size() - 1), mapped);
+            });
+
+            page.mapped.forEach(consumer);
+            if (page.mapped.size() < PAGE.getPageSize()) {
+                return;
+            }
+            last = page.last;
+        }
+    }
+
+    private static final class Page<E, D> {
+
+        private final E last;
+
+        private final List<D> mapped;
+
+        Page(E last, List<D> mapped) {
+            this.last = last;
+            this.mapped = mapped;
+        }
+    }
+}
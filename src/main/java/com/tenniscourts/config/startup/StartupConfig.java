@@ -0,0 +1,32 @@
+package com.tenniscourts.config.startup;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+/**
+ * With {@code spring.main.lazy-initialization=true} every bean is created on first use. The beans listed in
+ * {@code tenniscourts.startup.eager-beans} are still created at startup, so schema migration and validation
+ * fail the boot instead of the first request.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.main.lazy-initialization", havingValue = "true")
+public class StartupConfig {
+
+    @Bean
+    public static BeanFactoryPostProcessor eagerBeansPostProcessor(Environment environment) {
+        String[] eagerBeans = StringUtils.commaDelimitedListToStringArray(environment.getProperty("tenniscourts.startup.eager-beans", ""));
+
+        return beanFactory -> {
+            for (String beanName : eagerBeans) {
+                String trimmedBeanName = beanName.trim();
+                if (beanFactory.containsBeanDefinition(trimmedBeanName)) {
+                    beanFactory.getBeanDefinition(trimmedBeanName).setLazyInit(false);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.tenniscourts.config.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+
+@Slf4j
+@Component
+public class StartupTimeLogger implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("Application ready {} ms after JVM start", ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+}
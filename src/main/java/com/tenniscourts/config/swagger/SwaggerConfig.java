@@ -1,19 +1,20 @@
 package com.tenniscourts.config.swagger;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.DocumentationPluginsBootstrapper;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 
 @Configuration
 @EnableSwagger2
-public class SwaggerConfig extends WebMvcConfigurationSupport {
+public class SwaggerConfig {
 
     @Bean
     public Docket productApi() {
@@ -23,12 +24,12 @@ public class SwaggerConfig extends WebMvcConfigurationSupport {
                 .build();
     }
 
-    @Override
-    protected void addResourceHandlers(ResourceHandlerRegistry registry) {
-        registry.addResourceHandler("swagger-ui.html")
-                .addResourceLocations("classpath:/META-INF/resources/");
-        registry.addResourceHandler("/webjars/**")
-                .addResourceLocations("classpath:/META-INF/resources/webjars/");
+    @Bean
+    @ConditionalOnProperty(name = "springfox.documentation.auto-startup", havingValue = "false")
+    public FilterRegistrationBean<SwaggerOnDemandFilter> swaggerOnDemandFilter(DocumentationPluginsBootstrapper documentationPluginsBootstrapper) {
+        FilterRegistrationBean<SwaggerOnDemandFilter> registration = new FilterRegistrationBean<>(new SwaggerOnDemandFilter(documentationPluginsBootstrapper));
+        registration.addUrlPatterns("/v2/api-docs", "/swagger-resources", "/swagger-resources/*");
+        return registration;
     }
 
 }
@@ -0,0 +1,36 @@
+package com.tenniscourts.config.swagger;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import springfox.documentation.spring.web.plugins.DocumentationPluginsBootstrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Builds the Swagger documentation on the first request for it, when
+ * {@code springfox.documentation.auto-startup=false} skips building it at startup.
+ */
+public class SwaggerOnDemandFilter extends OncePerRequestFilter {
+
+    private final DocumentationPluginsBootstrapper documentationPluginsBootstrapper;
+
+    public SwaggerOnDemandFilter(DocumentationPluginsBootstrapper documentationPluginsBootstrapper) {
+        this.documentationPluginsBootstrapper = documentationPluginsBootstrapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (!documentationPluginsBootstrapper.isRunning()) {
+            synchronized (documentationPluginsBootstrapper) {
+                if (!documentationPluginsBootstrapper.isRunning()) {
+                    documentationPluginsBootstrapper.start();
+                }
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+}
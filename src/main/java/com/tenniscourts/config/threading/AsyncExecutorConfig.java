@@ -0,0 +1,32 @@
+package com.tenniscourts.config.threading;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executor for the non-blocking API handlers and streamed responses. The pool and its queue are bounded,
+ * so excess work is rejected with a 503 instead of queueing without limit.
+ */
+@Configuration
+public class AsyncExecutorConfig {
+
+    @Bean
+    public AsyncTaskExecutor asyncApiExecutor(@Value("${tenniscourts.threads.virtual.enabled:false}") boolean virtualThreads,
+                                              @Value("${tenniscourts.async.pool-size:16}") int poolSize,
+                                              @Value("${tenniscourts.async.queue-capacity:1000}") int queueCapacity) {
+        if (virtualThreads) {
+            return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("async-vt-"));
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("async-api-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        return executor;
+    }
+}
@@ -0,0 +1,44 @@
+package com.tenniscourts.config.threading;
+
+import org.slf4j.MDC;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+
+/**
+ * Runs a task with the logging context and the request attributes of the thread that submitted it, and puts back what
+ * the worker thread had before, so pooled threads never carry one request's context into the next.
+ */
+public class ContextPropagatingTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        Map<String, String> submitterContext = MDC.getCopyOfContextMap();
+        RequestAttributes submitterAttributes = RequestContextHolder.getRequestAttributes();
+        return () -> {
+            Map<String, String> workerContext = MDC.getCopyOfContextMap();
+            RequestAttributes workerAttributes = RequestContextHolder.getRequestAttributes();
+            set(submitterContext, submitterAttributes);
+            try {
+                runnable.run();
+            } finally {
+                set(workerContext, workerAttributes);
+            }
+        };
+    }
+
+    private static void set(Map<String, String> context, RequestAttributes attributes) {
+        if (context == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(context);
+        }
+        if (attributes == null) {
+            RequestContextHolder.resetRequestAttributes();
+        } else {
+            RequestContextHolder.setRequestAttributes(attributes);
+        }
+    }
+}
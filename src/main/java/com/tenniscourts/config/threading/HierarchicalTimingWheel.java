@@ -0,0 +1,180 @@
+package com.tenniscourts.config.threading;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Fires tasks at their deadline with constant cost per task, however many are pending.
+ * <p>
+ * Level zero has {@code wheelSize} buckets of one tick each. Every level above has buckets as wide as the whole level
+ * below, and is only created when a deadline is too far away for the existing levels. A task sits in the bucket of
+ * the highest level it needs, moves down whenever its bucket comes round, and fires from a level zero bucket.
+ * Deadlines are rounded up to the tick, so a task never fires early and at most one tick late.
+ * <p>
+ * The wheel has no thread and no clock of its own: the owner calls {@link #advance} with the current time.
+ *
+ * @param <T> the task type
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+
+    private final int wheelSize;
+
+    private final List<Level<T>> levels = new ArrayList<>();
+
+    private final List<T> due = new ArrayList<>();
+
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 2) {
+            throw new IllegalArgumentException("The tick must be positive and the wheel must have at least two buckets");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levels.add(new Level<>(tickMillis, wheelSize, startMillis - startMillis % tickMillis));
+    }
+
+    /**
+     * Adds a task. A deadline that has already passed fires on the next {@link #advance}.
+     */
+    public synchronized void schedule(T task, long deadlineMillis) {
+        long deadline = ceilToTick(deadlineMillis);
+        size++;
+        place(new Entry<>(task, deadline));
+    }
+
+    /**
+     * Moves the wheel to the given time and hands every task that became due to the consumer.
+     *
+     * @return the number of tasks fired
+     */
+    public synchronized int advance(long nowMillis, Consumer<T> expired) {
+        Level<T> root = levels.get(0);
+        if (size == due.size() && nowMillis > root.currentTime) {
+            // nothing is waiting in a bucket, so jump instead of walking the empty ticks
+            moveTo(nowMillis - nowMillis % tickMillis);
+        }
+        while (root.currentTime + tickMillis <= nowMillis) {
+            tick(root.currentTime + tickMillis);
+        }
+
+        int fired = due.size();
+        List<T> tasks = new ArrayList<>(due);
+        due.clear();
+        size -= fired;
+        tasks.forEach(expired);
+        return fired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    int levelCount() {
+        return levels.size();
+    }
+
+    private void tick(long time) {
+        for (Level<T> level : levels) {
+            if (time % level.tick == 0) {
+                level.currentTime = time;
+            }
+        }
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            Level<T> level = levels.get(i);
+            if (level.currentTime == time) {
+                Entry<T> entry = level.takeBucket(time);
+                while (entry != null) {
+                    Entry<T> next = entry.next;
+                    entry.next = null;
+                    place(entry);
+                    entry = next;
+                }
+            }
+        }
+    }
+
+    private void place(Entry<T> entry) {
+        Level<T> root = levels.get(0);
+        if (entry.deadline <= root.currentTime) {
+            due.add(entry.task);
+            return;
+        }
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                Level<T> top = levels.get(i - 1);
+                long tick = top.tick * wheelSize;
+                levels.add(new Level<>(tick, wheelSize, top.currentTime - top.currentTime % tick));
+            }
+            Level<T> level = levels.get(i);
+            if (entry.deadline < level.currentTime + level.interval) {
+                level.add(entry);
+                return;
+            }
+        }
+    }
+
+    private void moveTo(long time) {
+        for (Level<T> level : levels) {
+            level.currentTime = time - time % level.tick;
+        }
+    }
+
+    private long ceilToTick(long millis) {
+        long remainder = Math.floorMod(millis, tickMillis);
+        return remainder == 0 ? millis : millis - remainder + tickMillis;
+    }
+
+    private static final class Level<T> {
+
+        private final long tick;
+
+        private final long interval;
+
+        private final Entry<T>[] buckets;
+
+        private long currentTime;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Level(long tick, int wheelSize, long currentTime) {
+            this.tick = tick;
+            this.interval = tick * wheelSize;
+            this.buckets = new Entry[wheelSize];
+            this.currentTime = currentTime;
+        }
+
+        void add(Entry<T> entry) {
+            int slot = slot(entry.deadline);
+            entry.next = buckets[slot];
+            buckets[slot] = entry;
+        }
+
+        Entry<T> takeBucket(long time) {
+            int slot = slot(time);
+            Entry<T> head = buckets[slot];
+            buckets[slot] = null;
+            return head;
+        }
+
+        private int slot(long time) {
+            return (int) ((time / tick) % buckets.length);
+        }
+    }
+
+    private static final class Entry<T> {
+
+        private final T task;
+
+        private final long deadline;
+
+        private Entry<T> next;
+
+        Entry(T task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tenniscourts.config.threading;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@code @Scheduled} background jobs. Tests turn it off and call the jobs directly.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "tenniscourts.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
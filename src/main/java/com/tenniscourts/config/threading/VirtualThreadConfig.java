@@ -0,0 +1,53 @@
+package com.tenniscourts.config.threading;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import javax.sql.DataSource;
+
+/**
+ * Opt-in mode that runs servlet request handling and the application task executor on virtual threads.
+ * Enabled with {@code tenniscourts.threads.virtual.enabled=true}, requires Java 21 or newer at runtime.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tenniscourts.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+        return factory -> factory.addProtocolHandlerCustomizers(protocolHandler ->
+                protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-vt-")));
+    }
+
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public TaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("task-vt-"));
+    }
+
+    /**
+     * Virtual threads are cheap enough that thousands of them can block on the pool at once,
+     * so connection checkout is bounded by a semaphore in front of the pool.
+     */
+    @Bean
+    public static BeanPostProcessor connectionAdmissionPostProcessor(
+            @Value("${tenniscourts.threads.virtual.max-concurrent-connections:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrentConnections,
+            @Value("${tenniscourts.threads.virtual.connection-acquire-timeout-ms:30000}") long acquireTimeoutMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource && !(bean instanceof ConnectionAdmissionDataSource)) {
+                    return new ConnectionAdmissionDataSource((DataSource) bean, maxConcurrentConnections, acquireTimeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,236 @@
+package com.tenniscourts.config.web;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.tenniscourts.config.persistence.EntityStreams;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes arrays to the response element by element, so large results never have to be held in memory.
+ * The encoding is negotiated from the {@code Accept} header: JSON by default, or the binary CBOR and Smile
+ * encodings of the same data model. Each encoding uses the same Jackson configuration as its MVC message converter.
+ * <p>
+ * Elements are written without flushing, so they collect in the generator and reach the client in full buffers. The
+ * stream is flushed once per page of {@link EntityStreams#FETCH_SIZE} elements, and when it ends.
+ */
+@Component
+public class ResponseStreams {
+
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    private static final int ELEMENTS_PER_FLUSH = Integer.parseInt(EntityStreams.FETCH_SIZE);
+
+    private final Map<MediaType, ObjectMapper> objectMappers = new LinkedHashMap<>();
+
+    private final long maxSharedBytes;
+
+    public ResponseStreams(ApplicationContext applicationContext,
+                           @Value("${tenniscourts.web.shared-response.max-retained-bytes:262144}") long maxSharedBytes) {
+        this.maxSharedBytes = maxSharedBytes;
+        objectMappers.put(MediaType.APPLICATION_JSON, Jackson2ObjectMapperBuilder.json().applicationContext(applicationContext).build());
+        objectMappers.put(MediaType.APPLICATION_CBOR, Jackson2ObjectMapperBuilder.cbor().applicationContext(applicationContext).build());
+        objectMappers.put(APPLICATION_SMILE, Jackson2ObjectMapperBuilder.smile().applicationContext(applicationContext).build());
+    }
+
+    /**
+     * Creates a response that writes every element handed to the callback of the producer as an array entry.
+     * Writes block while the client is not reading, which throttles the producer.
+     *
+     * @param producer the producer, called once with the element callback
+     * @param <T>      the element type
+     * @return the streaming response
+     * @throws HttpMediaTypeNotAcceptableException if the client accepts none of the supported encodings
+     */
+    public <T> ResponseEntity<StreamingResponseBody> arrayResponse(Consumer<Consumer<T>> producer) throws HttpMediaTypeNotAcceptableException {
+        MediaType mediaType = negotiateMediaType();
+        ObjectMapper objectMapper = objectMappers.get(mediaType);
+
+        return response(mediaType, outputStream -> writeArray(objectMapper, outputStream, producer));
+    }
+
+    /**
+     * Creates a response like {@link #arrayResponse(Consumer)}, but runs the producer through the single flight so
+     * identical concurrent requests share one serialized array. The request that runs the producer streams it to its
+     * client as usual; requests that join while it runs replay what was written so far and follow the rest. A request
+     * arriving when the shared array is too large to replay runs the producer itself.
+     *
+     * @param singleFlight the single flight sharing the responses being written
+     * @param key          the key of the request, the negotiated media type is added to it
+     * @param producer     the producer, called only by the request that runs the flight
+     * @param <T>          the element type
+     * @return the streaming response
+     * @throws HttpMediaTypeNotAcceptableException if the client accepts none of the supported encodings
+     */
+    public <T> ResponseEntity<StreamingResponseBody> sharedArrayResponse(SingleFlight<String, SharedResponseBody> singleFlight, String key,
+                                                                         Consumer<Consumer<T>> producer) throws HttpMediaTypeNotAcceptableException {
+        MediaType mediaType = negotiateMediaType();
+        ObjectMapper objectMapper = objectMappers.get(mediaType);
+
+        return response(mediaType, outputStream -> {
+            SharedResponseBody own = new SharedResponseBody(outputStream, maxSharedBytes);
+            SharedResponseBody shared;
+            try {
+                shared = singleFlight.share(key + " " + mediaType, () -> own, body -> {
+                    try {
+                        writeArray(objectMapper, body, producer);
+                        body.finish();
+                    } catch (IOException e) {
+                        body.fail(e);
+                        throw new UncheckedIOException(e);
+                    } catch (RuntimeException | Error e) {
+                        body.fail(e);
+                        throw e;
+                    }
+                }, SharedResponseBody::join);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            if (shared == own) {
+                own.checkWriterOutput();
+            } else {
+                shared.copyTo(outputStream);
+            }
+        });
+    }
+
+    /**
+     * Creates a response for a single object with one array property that is streamed like {@link #arrayResponse(Consumer)}.
+     * The array property is always written last, other properties of the object keep their order.
+     *
+     * @param object        the object, its value for the array property is ignored
+     * @param arrayProperty the name of the streamed array property
+     * @param producer      the producer of the array elements
+     * @param <T>           the element type
+     * @return the streaming response
+     * @throws HttpMediaTypeNotAcceptableException if the client accepts none of the supported encodings
+     */
+    public <T> ResponseEntity<StreamingResponseBody> objectWithArrayResponse(Object object, String arrayProperty, Consumer<Consumer<T>> producer) throws HttpMediaTypeNotAcceptableException {
+        MediaType mediaType = negotiateMediaType();
+        ObjectMapper objectMapper = objectMappers.get(mediaType);
+        ObjectNode properties = objectMapper.valueToTree(object);
+        properties.remove(arrayProperty);
+
+        return response(mediaType, outputStream -> {
+            try (JsonGenerator generator = createGenerator(objectMapper, outputStream)) {
+                ElementWriter elementWriter = new ElementWriter(objectMapper, generator);
+                generator.writeStartObject();
+                properties.fields().forEachRemaining(property -> {
+                    try {
+                        generator.writeFieldName(property.getKey());
+                        objectMapper.writeTree(generator, property.getValue());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeArrayFieldStart(arrayProperty);
+                producer.accept(elementWriter::write);
+                generator.writeEndArray();
+                generator.writeEndObject();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        });
+    }
+
+    /**
+     * Picks the encoding for the current request, JSON when the client does not ask for a specific one.
+     *
+     * @return one of the supported media types
+     * @throws HttpMediaTypeNotAcceptableException if the client accepts none of the supported encodings
+     */
+    public MediaType negotiateMediaType() throws HttpMediaTypeNotAcceptableException {
+        ServletRequestAttributes requestAttributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        String accept = requestAttributes == null ? null : requestAttributes.getRequest().getHeader(HttpHeaders.ACCEPT);
+        if (!StringUtils.hasText(accept)) {
+            return MediaType.APPLICATION_JSON;
+        }
+
+        List<MediaType> acceptedMediaTypes = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(acceptedMediaTypes);
+        for (MediaType acceptedMediaType : acceptedMediaTypes) {
+            for (MediaType supportedMediaType : objectMappers.keySet()) {
+                if (acceptedMediaType.includes(supportedMediaType)) {
+                    return supportedMediaType;
+                }
+            }
+        }
+
+        throw new HttpMediaTypeNotAcceptableException(new ArrayList<>(objectMappers.keySet()));
+    }
+
+    private ResponseEntity<StreamingResponseBody> response(MediaType mediaType, StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    private <T> void writeArray(ObjectMapper objectMapper, OutputStream outputStream, Consumer<Consumer<T>> producer) throws IOException {
+        try (JsonGenerator generator = createGenerator(objectMapper, outputStream)) {
+            ElementWriter elementWriter = new ElementWriter(objectMapper, generator);
+            generator.writeStartArray();
+            producer.accept(elementWriter::write);
+            generator.writeEndArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private JsonGenerator createGenerator(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+        return objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8);
+    }
+
+    /**
+     * Writes the elements of one array through a writer that does not flush after each value, and flushes once per page.
+     */
+    private static final class ElementWriter {
+
+        private final ObjectWriter objectWriter;
+
+        private final JsonGenerator generator;
+
+        private int unflushed;
+
+        ElementWriter(ObjectMapper objectMapper, JsonGenerator generator) {
+            this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.generator = generator;
+        }
+
+        void write(Object element) {
+            try {
+                objectWriter.writeValue(generator, element);
+                if (++unflushed == ELEMENTS_PER_FLUSH) {
+                    generator.flush();
+                    unflushed = 0;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
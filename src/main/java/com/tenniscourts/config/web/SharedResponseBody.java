@@ -0,0 +1,181 @@
+package com.tenniscourts.config.web;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A response body written once and read by every request that shares it. Writes go straight to the response of the
+ * request that writes it, and are kept so that requests joining later can replay them from the start and then follow
+ * the rest as it is written.
+ * <p>
+ * At most {@code maxRetainedBytes} are kept. Past that the oldest chunks are dropped: the body takes no new readers,
+ * since they could not replay it, and a reader still behind the dropped chunks fails rather than hold the writer's
+ * whole output in memory. A body that fits is kept complete, so it can be replayed after it is finished.
+ * <p>
+ * Readers follow at the pace of the writer, whose own client paces it. The writer's client counts as one of the
+ * body's subscribers: when it goes away the writer carries on for the readers, and stops only when none is left.
+ */
+public final class SharedResponseBody extends OutputStream {
+
+    private final OutputStream writerOutput;
+
+    private final long maxRetainedBytes;
+
+    private final List<byte[]> chunks = new ArrayList<>();
+
+    private int droppedChunks;
+
+    private long retainedBytes;
+
+    private volatile IOException writerOutputFailure;
+
+    private int subscribers = 1;
+
+    private boolean abandoned;
+
+    private boolean finished;
+
+    private Throwable failure;
+
+    SharedResponseBody(OutputStream writerOutput, long maxRetainedBytes) {
+        this.writerOutput = writerOutput;
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (abandoned) {
+                throw writerOutputFailure;
+            }
+            chunks.add(Arrays.copyOfRange(b, off, off + len));
+            retainedBytes += len;
+            while (retainedBytes > maxRetainedBytes && !chunks.isEmpty()) {
+                retainedBytes -= chunks.remove(0).length;
+                droppedChunks++;
+            }
+            notifyAll();
+        }
+        if (writerOutputFailure == null) {
+            try {
+                writerOutput.write(b, off, len);
+            } catch (IOException e) {
+                leaveWriterOutput(e);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (writerOutputFailure == null) {
+            try {
+                writerOutput.flush();
+            } catch (IOException e) {
+                leaveWriterOutput(e);
+            }
+        }
+    }
+
+    /**
+     * Only flushes: the body is complete when {@link #finish()} says so, a generator closing it on an error must not
+     * end it for the readers.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    synchronized void finish() {
+        finished = true;
+        notifyAll();
+    }
+
+    synchronized void fail(Throwable cause) {
+        failure = cause;
+        notifyAll();
+    }
+
+    /**
+     * Registers a reader, which must then call {@link #copyTo(OutputStream)}.
+     *
+     * @return false when the body can no longer be replayed from the start, or nobody is left to write it for
+     */
+    synchronized boolean join() {
+        if (droppedChunks > 0 || abandoned || failure != null) {
+            return false;
+        }
+        subscribers++;
+        return true;
+    }
+
+    /**
+     * Rethrows what failed on the writer's own response, so that request fails as it would have without readers.
+     */
+    void checkWriterOutput() throws IOException {
+        if (writerOutputFailure != null) {
+            throw writerOutputFailure;
+        }
+    }
+
+    /**
+     * Copies the whole body to the output of a reader registered with {@link #join()}, waiting for the parts not
+     * written yet.
+     *
+     * @throws IOException when the writer fails, the reader falls behind the retained chunks or the output cannot be
+     *                     written
+     */
+    void copyTo(OutputStream outputStream) throws IOException {
+        try {
+            int next = 0;
+            while (true) {
+                byte[] chunk;
+                synchronized (this) {
+                    while (next == droppedChunks + chunks.size() && !finished && failure == null) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new InterruptedIOException("Interrupted while waiting for the shared response");
+                        }
+                    }
+                    if (failure != null) {
+                        throw new IOException("The shared response failed", failure);
+                    }
+                    if (next < droppedChunks) {
+                        throw new IOException("Fell more than " + maxRetainedBytes + " bytes behind the shared response");
+                    }
+                    if (next == droppedChunks + chunks.size()) {
+                        return;
+                    }
+                    chunk = chunks.get(next++ - droppedChunks);
+                }
+                outputStream.write(chunk);
+            }
+        } finally {
+            unsubscribe();
+        }
+    }
+
+    private synchronized void leaveWriterOutput(IOException e) {
+        writerOutputFailure = e;
+        unsubscribe();
+    }
+
+    private synchronized void unsubscribe() {
+        if (--subscribers == 0 && !finished) {
+            abandoned = true;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.tenniscourts.config.web;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key. The first caller runs the loader, the others wait for its result
+ * instead of running it again. A completed result is shared for the freshness window, zero shares only in-flight calls.
+ * Failures are never shared: they are rethrown to the callers that waited for them, and the next caller loads again.
+ *
+ * @param <K> the key type
+ * @param <V> the result type, shared between callers so it must not be modified
+ */
+public class SingleFlight<K, V> {
+
+    private static final int SWEEP_THRESHOLD = 256;
+
+    private final ConcurrentMap<K, Call<V>> calls = new ConcurrentHashMap<>();
+
+    private final long freshnessNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final LongAdder executions = new LongAdder();
+
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlight(long freshnessMillis) {
+        this(freshnessMillis, System::nanoTime);
+    }
+
+    SingleFlight(long freshnessMillis, LongSupplier nanoClock) {
+        this.freshnessNanos = TimeUnit.MILLISECONDS.toNanos(freshnessMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns the result of the in-flight or fresh call for the key, or runs the loader on the calling thread.
+     *
+     * @param key    the key identifying identical calls
+     * @param loader the loader
+     * @return the result
+     */
+    public V execute(K key, Supplier<V> loader) {
+        return share(key, loader, value -> {
+        }, value -> true);
+    }
+
+    /**
+     * Like {@link #execute(Object, Supplier)}, but hands the result to the callers that join before it is complete.
+     * The first caller creates the result, which is shared right away, and then completes it with the writer on the
+     * calling thread; the call counts as complete when the writer returns. Suits results that are read while they are
+     * written, such as a response body.
+     * <p>
+     * A result can refuse a caller, for example once it no longer holds what it needs to replay from the start. That
+     * caller then runs its own call, which takes the place of the refusing one for later callers.
+     *
+     * @param key     the key identifying identical calls
+     * @param creator creates the result, called only by the caller that runs the call
+     * @param writer  completes the result, called only by the caller that runs the call
+     * @param joiner  registers a joining caller with the result, false when the result refuses it
+     * @return the result
+     */
+    public V share(K key, Supplier<V> creator, Consumer<V> writer, Predicate<V> joiner) {
+        long now = nanoClock.getAsLong();
+        Call<V> created = new Call<>();
+        Call<V> call = calls.compute(key, (k, existing) -> existing != null && existing.isShareable(now, freshnessNanos) ? existing : created);
+        if (call != created) {
+            coalesced.increment();
+            V value = join(call.result);
+            if (joiner.test(value)) {
+                return value;
+            }
+            coalesced.decrement();
+            calls.replace(key, call, created);
+        }
+
+        executions.increment();
+        try {
+            V value = creator.get();
+            created.result.complete(value);
+            writer.accept(value);
+            created.completedAt = nanoClock.getAsLong();
+            created.written = true;
+            if (freshnessNanos == 0) {
+                calls.remove(key, created);
+            } else if (calls.size() > SWEEP_THRESHOLD) {
+                calls.values().removeIf(stale -> !stale.isShareable(created.completedAt, freshnessNanos));
+            }
+            return value;
+        } catch (RuntimeException | Error e) {
+            calls.remove(key, created);
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public SingleFlightStatsDTO getStats() {
+        long executionCount = executions.sum();
+        long coalescedCount = coalesced.sum();
+        long total = executionCount + coalescedCount;
+        return new SingleFlightStatsDTO(executionCount, coalescedCount, total == 0 ? 0 : (double) coalescedCount / total);
+    }
+
+    int tracked() {
+        return calls.size();
+    }
+
+    private V join(CompletableFuture<V> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Call<V> {
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+
+        private volatile long completedAt;
+
+        private volatile boolean written;
+
+        private boolean isShareable(long now, long freshnessNanos) {
+            if (!written) {
+                return !result.isCompletedExceptionally();
+            }
+            return now - completedAt <= freshnessNanos;
+        }
+    }
+}
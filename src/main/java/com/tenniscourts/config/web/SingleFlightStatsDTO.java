@@ -0,0 +1,17 @@
+package com.tenniscourts.config.web;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class SingleFlightStatsDTO {
+
+    private final long executions;
+
+    private final long coalesced;
+
+    private final double coalescingRatio;
+}
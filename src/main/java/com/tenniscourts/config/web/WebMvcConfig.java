@@ -0,0 +1,37 @@
+package com.tenniscourts.config.web;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurationSupport;
+
+@Configuration
+public class WebMvcConfig extends WebMvcConfigurationSupport {
+
+    private final AsyncTaskExecutor asyncApiExecutor;
+
+    private final long asyncRequestTimeoutMillis;
+
+    public WebMvcConfig(@Qualifier("asyncApiExecutor") AsyncTaskExecutor asyncApiExecutor,
+                        @Value("${tenniscourts.async.request-timeout-ms:30000}") long asyncRequestTimeoutMillis) {
+        this.asyncApiExecutor = asyncApiExecutor;
+        this.asyncRequestTimeoutMillis = asyncRequestTimeoutMillis;
+    }
+
+    @Override
+    protected void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("swagger-ui.html")
+                .addResourceLocations("classpath:/META-INF/resources/");
+        registry.addResourceHandler("/webjars/**")
+                .addResourceLocations("classpath:/META-INF/resources/webjars/");
+    }
+
+    @Override
+    protected void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(asyncApiExecutor);
+        configurer.setDefaultTimeout(asyncRequestTimeoutMillis);
+    }
+}
@@ -3,15 +3,13 @@ package com.tenniscourts.exceptions;
 /**
  * The type Already exists entity exception.
  */
-public class AlreadyExistsEntityException extends RuntimeException {
+public class AlreadyExistsEntityException extends DomainException {
   /**
    * Instantiates a new Already exists entity exception.
    *
    * @param msg the msg
    */
   public AlreadyExistsEntityException(String msg){
-        super(msg);
+        super(ErrorCode.ALREADY_EXISTS, msg);
     }
-
-    private AlreadyExistsEntityException(){}
 }
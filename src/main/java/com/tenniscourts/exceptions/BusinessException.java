@@ -3,15 +3,13 @@ package com.tenniscourts.exceptions;
 /**
  * The type Business exception.
  */
-public class BusinessException extends RuntimeException {
+public class BusinessException extends DomainException {
   /**
    * Instantiates a new Business exception.
    *
    * @param msg the msg
    */
   public BusinessException(String msg){
-        super(msg);
+        super(ErrorCode.BUSINESS_RULE_VIOLATION, msg);
     }
-
-    private BusinessException(){}
 }
@@ -0,0 +1,25 @@
+package com.tenniscourts.exceptions;
+
+/**
+ * Base type of the exceptions that reject a request for a domain reason.
+ * They are expected outcomes rather than bugs, so no stack trace is captured and suppression is disabled.
+ */
+public abstract class DomainException extends RuntimeException {
+
+    private final ErrorCode errorCode;
+
+    /**
+     * Instantiates a new Domain exception.
+     *
+     * @param errorCode the error code
+     * @param msg       the msg
+     */
+    protected DomainException(ErrorCode errorCode, String msg) {
+        super(msg, null, false, false);
+        this.errorCode = errorCode;
+    }
+
+    public ErrorCode getErrorCode() {
+        return errorCode;
+    }
+}
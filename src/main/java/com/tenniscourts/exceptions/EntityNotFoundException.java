@@ -3,15 +3,13 @@ package com.tenniscourts.exceptions;
 /**
  * The type Entity not found exception.
  */
-public class EntityNotFoundException extends RuntimeException {
+public class EntityNotFoundException extends DomainException {
   /**
    * Instantiates a new Entity not found exception.
    *
    * @param msg the msg
    */
   public EntityNotFoundException(String msg){
-        super(msg);
+        super(ErrorCode.ENTITY_NOT_FOUND, msg);
     }
-
-    private EntityNotFoundException(){}
 }
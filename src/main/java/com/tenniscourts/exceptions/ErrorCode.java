@@ -0,0 +1,26 @@
+package com.tenniscourts.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Stable error codes returned to clients in {@link ErrorDetails#getCode()}.
+ */
+public enum ErrorCode {
+    ENTITY_NOT_FOUND(HttpStatus.NOT_FOUND),
+    ALREADY_EXISTS(HttpStatus.CONFLICT),
+    LOCK_CONFLICT(HttpStatus.CONFLICT),
+    BUSINESS_RULE_VIOLATION(HttpStatus.UNPROCESSABLE_ENTITY),
+    INVALID_REQUEST(HttpStatus.BAD_REQUEST),
+    TOO_MANY_REQUESTS(HttpStatus.TOO_MANY_REQUESTS),
+    SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE);
+
+    private final HttpStatus status;
+
+    ErrorCode(HttpStatus status) {
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -15,4 +15,9 @@ public class ErrorDetails {
     private LocalDateTime timestamp;
     private String message;
     private String details;
+    private String code;
+
+    public ErrorDetails(LocalDateTime timestamp, String message, String details) {
+        this(timestamp, message, details, null);
+    }
 }
@@ -0,0 +1,157 @@
+package com.tenniscourts.exceptions;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Renders domain error bodies from pre-encoded JSON fragments, so a rejection costs a few array copies instead of
+ * building an {@link ErrorDetails} and running it through Jackson.
+ * <p>
+ * The message part is encoded once per error code and message and kept in a bounded cache, the code part once per
+ * code, and the timestamp at most once per millisecond. Only the request uri is encoded per response. Clients that
+ * prefer another representation, such as CBOR, still get an {@link ErrorDetails} through content negotiation.
+ */
+final class ErrorResponses {
+
+    static final int MAX_CACHED_MESSAGES = 1024;
+
+    private static final byte[] TIMESTAMP = ascii("{\"timestamp\":\"");
+
+    private static final byte[] MESSAGE = ascii("\",\"message\":\"");
+
+    private static final byte[] DETAILS = ascii("\",\"details\":\"uri=");
+
+    private final Map<ErrorCode, byte[]> codes = new EnumMap<>(ErrorCode.class);
+
+    private final Map<ErrorCode, Map<String, byte[]>> messages = new EnumMap<>(ErrorCode.class);
+
+    private volatile RenderedTimestamp timestamp = new RenderedTimestamp(Long.MIN_VALUE, new byte[0]);
+
+    ErrorResponses() {
+        for (ErrorCode errorCode : ErrorCode.values()) {
+            codes.put(errorCode, ascii("\",\"code\":\"" + errorCode.name() + "\"}"));
+            messages.put(errorCode, new ConcurrentHashMap<>());
+        }
+    }
+
+    ResponseEntity<Object> render(DomainException ex, WebRequest request) {
+        ErrorCode errorCode = ex.getErrorCode();
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(errorCode.getStatus());
+        if (errorCode == ErrorCode.TOO_MANY_REQUESTS || errorCode == ErrorCode.SERVICE_UNAVAILABLE) {
+            response.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+
+        if (!prefersJson(request.getHeader(HttpHeaders.ACCEPT))) {
+            return response.body(new ErrorDetails(LocalDateTime.now(), ex.getMessage(), request.getDescription(false), errorCode.name()));
+        }
+        return response.contentType(MediaType.APPLICATION_JSON).body(body(errorCode, ex.getMessage(), uri(request)));
+    }
+
+    byte[] body(ErrorCode errorCode, String message, String uri) {
+        byte[] renderedTimestamp = timestamp();
+        byte[] renderedMessage = message(errorCode, message);
+        byte[] renderedUri = JsonStringEncoder.getInstance().quoteAsUTF8(uri);
+        byte[] renderedCode = codes.get(errorCode);
+
+        byte[] body = new byte[TIMESTAMP.length + renderedTimestamp.length + renderedMessage.length + renderedUri.length + renderedCode.length];
+        int position = copy(TIMESTAMP, body, 0);
+        position = copy(renderedTimestamp, body, position);
+        position = copy(renderedMessage, body, position);
+        position = copy(renderedUri, body, position);
+        copy(renderedCode, body, position);
+        return body;
+    }
+
+    /**
+     * @return {@code ","message":"<message>","details":"uri=} for the message, from the cache when possible
+     */
+    private byte[] message(ErrorCode errorCode, String message) {
+        String key = message == null ? "" : message;
+        Map<String, byte[]> cached = messages.get(errorCode);
+        byte[] rendered = cached.get(key);
+        if (rendered == null) {
+            byte[] encoded = JsonStringEncoder.getInstance().quoteAsUTF8(key);
+            rendered = new byte[MESSAGE.length + encoded.length + DETAILS.length];
+            copy(DETAILS, rendered, copy(encoded, rendered, copy(MESSAGE, rendered, 0)));
+            // messages with ids in them would grow the cache without end, so past the limit they are encoded each time
+            if (cached.size() < MAX_CACHED_MESSAGES) {
+                cached.putIfAbsent(key, rendered);
+            }
+        }
+        return rendered;
+    }
+
+    private byte[] timestamp() {
+        long now = System.currentTimeMillis();
+        RenderedTimestamp current = timestamp;
+        if (current.millis != now) {
+            LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault());
+            current = new RenderedTimestamp(now, ascii(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime)));
+            timestamp = current;
+        }
+        return current.bytes;
+    }
+
+    int cachedMessages(ErrorCode errorCode) {
+        return messages.get(errorCode).size();
+    }
+
+    private static String uri(WebRequest request) {
+        if (request instanceof ServletWebRequest) {
+            return ((ServletWebRequest) request).getRequest().getRequestURI();
+        }
+        String description = request.getDescription(false);
+        return description.startsWith("uri=") ? description.substring(4) : description;
+    }
+
+    /**
+     * The common accept headers are answered without parsing; anything else goes by the most preferred media type.
+     */
+    static boolean prefersJson(String accept) {
+        if (accept == null || accept.isEmpty() || MediaType.ALL_VALUE.equals(accept) || accept.startsWith(MediaType.APPLICATION_JSON_VALUE)) {
+            return true;
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            MediaType.sortBySpecificityAndQuality(mediaTypes);
+            return mediaTypes.isEmpty() || mediaTypes.get(0).isCompatibleWith(MediaType.APPLICATION_JSON);
+        } catch (IllegalArgumentException e) {
+            return true;
+        }
+    }
+
+    private static int copy(byte[] source, byte[] target, int position) {
+        System.arraycopy(source, 0, target, position, source.length);
+        return position + source.length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class RenderedTimestamp {
+
+        private final long millis;
+
+        private final byte[] bytes;
+
+        RenderedTimestamp(long millis, byte[] bytes) {
+            this.millis = millis;
+            this.bytes = bytes;
+        }
+    }
+}
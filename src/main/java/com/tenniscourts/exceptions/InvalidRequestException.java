@@ -0,0 +1,15 @@
+package com.tenniscourts.exceptions;
+
+/**
+ * The type Invalid request exception.
+ */
+public class InvalidRequestException extends DomainException {
+  /**
+   * Instantiates a new Invalid request exception.
+   *
+   * @param msg the msg
+   */
+  public InvalidRequestException(String msg){
+        super(ErrorCode.INVALID_REQUEST, msg);
+    }
+}
@@ -0,0 +1,15 @@
+package com.tenniscourts.exceptions;
+
+/**
+ * The type Lock conflict exception.
+ */
+public class LockConflictException extends DomainException {
+  /**
+   * Instantiates a new Lock conflict exception.
+   *
+   * @param msg the msg
+   */
+  public LockConflictException(String msg){
+        super(ErrorCode.LOCK_CONFLICT, msg);
+    }
+}
@@ -0,0 +1,15 @@
+package com.tenniscourts.exceptions;
+
+/**
+ * The type Service unavailable exception.
+ */
+public class ServiceUnavailableException extends DomainException {
+  /**
+   * Instantiates a new Service unavailable exception.
+   *
+   * @param msg the msg
+   */
+  public ServiceUnavailableException(String msg){
+        super(ErrorCode.SERVICE_UNAVAILABLE, msg);
+    }
+}
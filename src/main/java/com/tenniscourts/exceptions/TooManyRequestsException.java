@@ -0,0 +1,15 @@
+package com.tenniscourts.exceptions;
+
+/**
+ * The type Too many requests exception.
+ */
+public class TooManyRequestsException extends DomainException {
+  /**
+   * Instantiates a new Too many requests exception.
+   *
+   * @param msg the msg
+   */
+  public TooManyRequestsException(String msg){
+        super(ErrorCode.TOO_MANY_REQUESTS, msg);
+    }
+}
@@ -0,0 +1,99 @@
+package com.tenniscourts.export;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Value types of the columnar export, with their encoding. Every value is preceded by a null flag.
+ */
+public enum ColumnType {
+    LONG {
+        @Override
+        Object read(ResultSet resultSet, String column) throws SQLException {
+            long value = resultSet.getLong(column);
+            return resultSet.wasNull() ? null : value;
+        }
+
+        @Override
+        void writeValue(DataOutput output, Object value) throws IOException {
+            output.writeLong((Long) value);
+        }
+
+        @Override
+        Object readValue(DataInput input) throws IOException {
+            return input.readLong();
+        }
+    },
+    STRING {
+        @Override
+        Object read(ResultSet resultSet, String column) throws SQLException {
+            return resultSet.getString(column);
+        }
+
+        @Override
+        void writeValue(DataOutput output, Object value) throws IOException {
+            output.writeUTF((String) value);
+        }
+
+        @Override
+        Object readValue(DataInput input) throws IOException {
+            return input.readUTF();
+        }
+    },
+    DECIMAL {
+        @Override
+        Object read(ResultSet resultSet, String column) throws SQLException {
+            return resultSet.getBigDecimal(column);
+        }
+
+        @Override
+        void writeValue(DataOutput output, Object value) throws IOException {
+            output.writeUTF(((BigDecimal) value).toPlainString());
+        }
+
+        @Override
+        Object readValue(DataInput input) throws IOException {
+            return new BigDecimal(input.readUTF());
+        }
+    },
+    TIMESTAMP {
+        @Override
+        Object read(ResultSet resultSet, String column) throws SQLException {
+            Timestamp timestamp = resultSet.getTimestamp(column);
+            return timestamp == null ? null : timestamp.toLocalDateTime();
+        }
+
+        @Override
+        void writeValue(DataOutput output, Object value) throws IOException {
+            output.writeUTF(value.toString());
+        }
+
+        @Override
+        Object readValue(DataInput input) throws IOException {
+            return LocalDateTime.parse(input.readUTF());
+        }
+    };
+
+    abstract Object read(ResultSet resultSet, String column) throws SQLException;
+
+    abstract void writeValue(DataOutput output, Object value) throws IOException;
+
+    abstract Object readValue(DataInput input) throws IOException;
+
+    void write(DataOutput output, Object value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            writeValue(output, value);
+        }
+    }
+
+    Object read(DataInput input) throws IOException {
+        return input.readBoolean() ? readValue(input) : null;
+    }
+}
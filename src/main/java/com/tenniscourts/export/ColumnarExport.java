@@ -0,0 +1,216 @@
+package com.tenniscourts.export;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Exports the reservation and schedule datasets to columnar files, for reports that must not run against the database.
+ * <p>
+ * Every run writes only the rows whose {@code date_update} is after the dataset checkpoint, to
+ * {@code <directory>/<dataset>/date=<yyyy-MM-dd>/part-<run>.tcol}. Rows are read with a fetch size and written in row groups,
+ * so memory use does not depend on the number of rows. The checkpoint is moved back by the overlap window on every run,
+ * to pick up rows from transactions that committed after a run with an earlier {@code date_update}.
+ * Rows can therefore appear in more than one file: readers keep the row with the latest {@code date_update} per {@code id}.
+ */
+@Slf4j
+public class ColumnarExport {
+
+    static final String CHECKPOINT_FILE = "_checkpoint.properties";
+
+    static final String FILE_EXTENSION = ".tcol";
+
+    private static final String HIGH_WATER_MARK = "date_update";
+
+    private static final DateTimeFormatter RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Path directory;
+
+    private final int rowGroupSize;
+
+    private final Duration overlap;
+
+    private final List<ExportDataset> datasets = Arrays.asList(ExportDataset.RESERVATIONS, ExportDataset.SCHEDULES);
+
+    public ColumnarExport(DataSource dataSource, Path directory, int rowGroupSize, int fetchSize, Duration overlap) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.directory = directory;
+        this.rowGroupSize = rowGroupSize;
+        this.overlap = overlap;
+    }
+
+    /**
+     * Exports the rows changed since the last run of every dataset.
+     *
+     * @return the number of rows written, by dataset
+     */
+    @Scheduled(cron = "${tenniscourts.export.cron:0 */15 * * * *}")
+    public synchronized Map<String, Long> exportChanges() {
+        Map<String, Long> exported = new LinkedHashMap<>();
+        for (ExportDataset dataset : datasets) {
+            try {
+                exported.put(dataset.getName(), export(dataset));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        log.info("Exported {}", exported);
+        return exported;
+    }
+
+    private long export(ExportDataset dataset) throws IOException {
+        Path datasetDirectory = directory.resolve(dataset.getName());
+        Files.createDirectories(datasetDirectory);
+        Path checkpointFile = datasetDirectory.resolve(CHECKPOINT_FILE);
+        LocalDateTime highWaterMark = readCheckpoint(checkpointFile);
+        LocalDateTime changedAfter = highWaterMark == null ? LocalDateTime.of(1900, 1, 1, 0, 0) : highWaterMark.minus(overlap);
+
+        PartitionWriter partitionWriter = new PartitionWriter(dataset, datasetDirectory, LocalDateTime.now().format(RUN_ID));
+        try {
+            jdbcTemplate.query(dataset.getSql(), partitionWriter, Timestamp.valueOf(changedAfter));
+            partitionWriter.close();
+        } catch (RuntimeException | IOException e) {
+            partitionWriter.abort();
+            throw e;
+        }
+
+        if (partitionWriter.highWaterMark != null && (highWaterMark == null || partitionWriter.highWaterMark.isAfter(highWaterMark))) {
+            writeCheckpoint(checkpointFile, partitionWriter.highWaterMark);
+        }
+        return partitionWriter.rowCount;
+    }
+
+    private LocalDateTime readCheckpoint(Path checkpointFile) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return null;
+        }
+        Properties checkpoint = new Properties();
+        try (InputStream inputStream = Files.newInputStream(checkpointFile)) {
+            checkpoint.load(inputStream);
+        }
+        return LocalDateTime.parse(checkpoint.getProperty(HIGH_WATER_MARK));
+    }
+
+    private void writeCheckpoint(Path checkpointFile, LocalDateTime highWaterMark) throws IOException {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty(HIGH_WATER_MARK, highWaterMark.toString());
+        Path temporaryFile = checkpointFile.resolveSibling(CHECKPOINT_FILE + ".tmp");
+        try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+            checkpoint.store(outputStream, null);
+        }
+        Files.move(temporaryFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the ordered rows of a run to one file per partition. A file is written under a temporary name
+     * and renamed once complete, so readers never see partial files.
+     */
+    private final class PartitionWriter implements RowCallbackHandler {
+
+        private final ExportDataset dataset;
+
+        private final Path datasetDirectory;
+
+        private final String runId;
+
+        private final List<String> names;
+
+        private final List<ColumnType> types;
+
+        private LocalDate partition;
+
+        private ColumnarWriter writer;
+
+        private Path temporaryFile;
+
+        private long rowCount;
+
+        private LocalDateTime highWaterMark;
+
+        private PartitionWriter(ExportDataset dataset, Path datasetDirectory, String runId) {
+            this.dataset = dataset;
+            this.datasetDirectory = datasetDirectory;
+            this.runId = runId;
+            this.names = dataset.getColumns().stream().map(ExportColumn::getName).collect(Collectors.toList());
+            this.types = dataset.getColumns().stream().map(ExportColumn::getType).collect(Collectors.toList());
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            Object[] row = new Object[names.size()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = dataset.getColumns().get(i).getValueReader().read(resultSet);
+            }
+            LocalDate rowPartition = ((LocalDateTime) row[names.indexOf(dataset.getPartitionColumn())]).toLocalDate();
+            LocalDateTime dateUpdate = (LocalDateTime) row[names.indexOf(HIGH_WATER_MARK)];
+
+            try {
+                if (!rowPartition.equals(partition)) {
+                    close();
+                    open(rowPartition);
+                }
+                writer.write(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rowCount++;
+            if (dateUpdate != null && (highWaterMark == null || dateUpdate.isAfter(highWaterMark))) {
+                highWaterMark = dateUpdate;
+            }
+        }
+
+        private void open(LocalDate rowPartition) throws IOException {
+            Path partitionDirectory = datasetDirectory.resolve("date=" + rowPartition);
+            Files.createDirectories(partitionDirectory);
+            partition = rowPartition;
+            temporaryFile = partitionDirectory.resolve("part-" + runId + FILE_EXTENSION + ".tmp");
+            writer = new ColumnarWriter(temporaryFile, names, types, rowGroupSize);
+        }
+
+        private void close() throws IOException {
+            if (writer != null) {
+                writer.close();
+                Files.move(temporaryFile, temporaryFile.resolveSibling("part-" + runId + FILE_EXTENSION), StandardCopyOption.ATOMIC_MOVE);
+                writer = null;
+            }
+        }
+
+        private void abort() {
+            if (writer != null) {
+                try {
+                    writer.close();
+                    Files.deleteIfExists(temporaryFile);
+                } catch (IOException e) {
+                    log.warn("Could not remove partial export file {}", temporaryFile, e);
+                }
+                writer = null;
+            }
+        }
+    }
+}
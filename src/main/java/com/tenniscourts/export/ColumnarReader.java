@@ -0,0 +1,94 @@
+package com.tenniscourts.export;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads files written by {@link ColumnarWriter} one row group at a time. Columns that are not requested are skipped
+ * without being decompressed.
+ */
+public class ColumnarReader implements AutoCloseable {
+
+    private final DataInputStream input;
+
+    private final List<String> names = new ArrayList<>();
+
+    private final List<ColumnType> types = new ArrayList<>();
+
+    public ColumnarReader(Path path) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        if (!ColumnarWriter.MAGIC.equals(input.readUTF())) {
+            input.close();
+            throw new IOException("Not a columnar export file: " + path);
+        }
+        int columnCount = input.readInt();
+        for (int i = 0; i < columnCount; i++) {
+            names.add(input.readUTF());
+            types.add(ColumnType.valueOf(input.readUTF()));
+        }
+    }
+
+    public List<String> getColumnNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Reads the remaining rows, handing each one to the consumer with the values of the requested columns in the requested order.
+     */
+    public void read(List<String> columns, Consumer<Object[]> rowConsumer) throws IOException {
+        int[] positions = new int[names.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = columns.indexOf(names.get(i));
+        }
+        for (String column : columns) {
+            if (!names.contains(column)) {
+                throw new IllegalArgumentException("Unknown column " + column);
+            }
+        }
+
+        for (int rowCount = input.readInt(); rowCount >= 0; rowCount = input.readInt()) {
+            Object[][] rows = new Object[rowCount][columns.size()];
+            for (int i = 0; i < names.size(); i++) {
+                int length = input.readInt();
+                if (positions[i] < 0) {
+                    skipFully(length);
+                    continue;
+                }
+                byte[] compressed = new byte[length];
+                input.readFully(compressed);
+                try (DataInputStream columnInput = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+                    for (Object[] row : rows) {
+                        row[positions[i]] = types.get(i).read(columnInput);
+                    }
+                }
+            }
+            for (Object[] row : rows) {
+                rowConsumer.accept(row);
+            }
+        }
+    }
+
+    private void skipFully(int length) throws IOException {
+        while (length > 0) {
+            int skipped = input.skipBytes(length);
+            if (skipped <= 0) {
+                throw new IOException("Truncated columnar export file");
+            }
+            length -= skipped;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,109 @@
+package com.tenniscourts.export;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes rows to a columnar file. Rows are buffered up to the row group size, then every column of the group
+ * is encoded and deflated on its own, so readers can decompress only the columns they need.
+ * <p>
+ * Layout: the {@link #MAGIC} string, the column count, the name and type of every column, then row groups
+ * made of the row count and, for every column, the compressed length and bytes. A row count of -1 ends the file.
+ */
+public class ColumnarWriter implements AutoCloseable {
+
+    static final String MAGIC = "TCOL1";
+
+    private final DataOutputStream output;
+
+    private final List<ColumnType> types;
+
+    private final int rowGroupSize;
+
+    private final List<List<Object>> columns = new ArrayList<>();
+
+    private long rowCount;
+
+    public ColumnarWriter(Path path, List<String> names, List<ColumnType> types, int rowGroupSize) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        this.types = types;
+        this.rowGroupSize = rowGroupSize;
+        output.writeUTF(MAGIC);
+        output.writeInt(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            output.writeUTF(names.get(i));
+            output.writeUTF(types.get(i).name());
+            columns.add(new ArrayList<>(rowGroupSize));
+        }
+    }
+
+    public void write(Object[] row) throws IOException {
+        for (int i = 0; i < row.length; i++) {
+            columns.get(i).add(row[i]);
+        }
+        rowCount++;
+        if (columns.get(0).size() >= rowGroupSize) {
+            flushRowGroup();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushRowGroup();
+            output.writeInt(-1);
+        } finally {
+            output.close();
+        }
+    }
+
+    private void flushRowGroup() throws IOException {
+        int groupRows = columns.get(0).size();
+        if (groupRows == 0) {
+            return;
+        }
+        output.writeInt(groupRows);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        for (int i = 0; i < columns.size(); i++) {
+            buffer.reset();
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DataOutputStream columnOutput = new DataOutputStream(new DeflaterOutputStream(nonClosing(buffer), deflater))) {
+                for (Object value : columns.get(i)) {
+                    types.get(i).write(columnOutput, value);
+                }
+            } finally {
+                deflater.end();
+            }
+            output.writeInt(buffer.size());
+            buffer.writeTo(output);
+            columns.get(i).clear();
+        }
+    }
+
+    private static OutputStream nonClosing(OutputStream outputStream) {
+        return new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                outputStream.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                outputStream.write(b, off, len);
+            }
+        };
+    }
+}
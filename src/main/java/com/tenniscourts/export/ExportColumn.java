@@ -0,0 +1,35 @@
+package com.tenniscourts.export;
+
+import lombok.Getter;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * A column of an export dataset and how its value is read from the query result.
+ */
+@Getter
+public class ExportColumn {
+
+    private final String name;
+
+    private final ColumnType type;
+
+    private final ValueReader valueReader;
+
+    public ExportColumn(String name, ColumnType type) {
+        this(name, type, resultSet -> type.read(resultSet, name));
+    }
+
+    public ExportColumn(String name, ColumnType type, ValueReader valueReader) {
+        this.name = name;
+        this.type = type;
+        this.valueReader = valueReader;
+    }
+
+    @FunctionalInterface
+    public interface ValueReader {
+
+        Object read(ResultSet resultSet) throws SQLException;
+    }
+}
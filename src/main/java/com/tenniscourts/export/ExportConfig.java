@@ -0,0 +1,24 @@
+package com.tenniscourts.export;
+
+import com.tenniscourts.config.persistence.EntityStreams;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "tenniscourts.export.enabled", havingValue = "true")
+public class ExportConfig {
+
+    @Bean
+    public ColumnarExport columnarExport(DataSource dataSource,
+                                         @Value("${tenniscourts.export.directory:export}") String directory,
+                                         @Value("${tenniscourts.export.row-group-size:10000}") int rowGroupSize,
+                                         @Value("${tenniscourts.export.overlap-seconds:60}") long overlapSeconds) {
+        return new ColumnarExport(dataSource, Paths.get(directory), rowGroupSize, Integer.parseInt(EntityStreams.FETCH_SIZE), Duration.ofSeconds(overlapSeconds));
+    }
+}
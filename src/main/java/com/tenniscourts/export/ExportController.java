@@ -0,0 +1,26 @@
+package com.tenniscourts.export;
+
+import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@AllArgsConstructor
+@RestController
+@ConditionalOnProperty(name = "tenniscourts.export.enabled", havingValue = "true")
+@RequestMapping("/admin/exports")
+public class ExportController {
+
+    private final ColumnarExport columnarExport;
+
+    @ApiOperation(value = "Export the rows changed since the last export now")
+    @PostMapping
+    public ResponseEntity<Map<String, Long>> exportChanges() {
+        return ResponseEntity.ok(columnarExport.exportChanges());
+    }
+}
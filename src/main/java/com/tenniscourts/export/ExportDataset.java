@@ -0,0 +1,66 @@
+package com.tenniscourts.export;
+
+import com.tenniscourts.reservations.ReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A denormalized table of the export. The query selects the rows changed after its only parameter, ordered by
+ * the partition column so partitions are written one after the other. Rows inserted without audit columns
+ * count as changed at the epoch, so only the first run exports them.
+ */
+@Getter
+@AllArgsConstructor
+public class ExportDataset {
+
+    public static final ExportDataset RESERVATIONS = new ExportDataset("reservations",
+            "select r.id, r.guest_id, g.name guest_name, r.schedule_id, s.tennis_court_id, c.name tennis_court_name,"
+                    + " s.start_date_time, s.end_date_time, r.reservation_status, r.value, r.refund_value, r.date_update"
+                    + " from reservation r"
+                    + " join schedule s on s.id = r.schedule_id"
+                    + " join guest g on g.id = r.guest_id"
+                    + " join tennis_court c on c.id = s.tennis_court_id"
+                    + " where coalesce(r.date_update, timestamp '1970-01-01 00:00:00') > ?"
+                    + " order by s.start_date_time",
+            Arrays.asList(
+                    new ExportColumn("id", ColumnType.LONG),
+                    new ExportColumn("guest_id", ColumnType.LONG),
+                    new ExportColumn("guest_name", ColumnType.STRING),
+                    new ExportColumn("schedule_id", ColumnType.LONG),
+                    new ExportColumn("tennis_court_id", ColumnType.LONG),
+                    new ExportColumn("tennis_court_name", ColumnType.STRING),
+                    new ExportColumn("start_date_time", ColumnType.TIMESTAMP),
+                    new ExportColumn("end_date_time", ColumnType.TIMESTAMP),
+                    new ExportColumn("reservation_status", ColumnType.STRING,
+                            resultSet -> ReservationStatus.values()[resultSet.getInt("reservation_status")].name()),
+                    new ExportColumn("value", ColumnType.DECIMAL),
+                    new ExportColumn("refund_value", ColumnType.DECIMAL),
+                    new ExportColumn("date_update", ColumnType.TIMESTAMP)),
+            "start_date_time");
+
+    public static final ExportDataset SCHEDULES = new ExportDataset("schedules",
+            "select s.id, s.tennis_court_id, c.name tennis_court_name, s.start_date_time, s.end_date_time, s.date_update"
+                    + " from schedule s"
+                    + " join tennis_court c on c.id = s.tennis_court_id"
+                    + " where coalesce(s.date_update, timestamp '1970-01-01 00:00:00') > ?"
+                    + " order by s.start_date_time",
+            Arrays.asList(
+                    new ExportColumn("id", ColumnType.LONG),
+                    new ExportColumn("tennis_court_id", ColumnType.LONG),
+                    new ExportColumn("tennis_court_name", ColumnType.STRING),
+                    new ExportColumn("start_date_time", ColumnType.TIMESTAMP),
+                    new ExportColumn("end_date_time", ColumnType.TIMESTAMP),
+                    new ExportColumn("date_update", ColumnType.TIMESTAMP)),
+            "start_date_time");
+
+    private final String name;
+
+    private final String sql;
+
+    private final List<ExportColumn> columns;
+
+    private final String partitionColumn;
+}
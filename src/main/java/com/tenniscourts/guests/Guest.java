@@ -29,4 +29,10 @@ public class Guest extends BaseEntity<Long> {
   @NotNull
   private String name;
 
+  @Column
+  private boolean member;
+
+  public Guest(String name) {
+    this.name = name;
+  }
 }
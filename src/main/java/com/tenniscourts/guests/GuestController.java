@@ -1,12 +1,13 @@
 package com.tenniscourts.guests;
 
 import com.tenniscourts.config.BaseRestController;
+import com.tenniscourts.config.web.ResponseStreams;
 import io.swagger.annotations.ApiOperation;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @AllArgsConstructor
 @RestController
@@ -15,20 +16,22 @@ public class GuestController extends BaseRestController {
 
     private final GuestService guestService;
 
+    private final ResponseStreams responseStreams;
+
     @ApiOperation(value = "Find a guest by id")
     @GetMapping(value = "/{id}")
     public ResponseEntity<GuestDTO> findGuestById(@PathVariable Long id) {
         return ResponseEntity.ok(guestService.findGuestById(id));
     }
 
-    @ApiOperation(value = "List all the guests")
+    @ApiOperation(value = "List all the guests", response = GuestDTO.class, responseContainer = "List")
     @GetMapping
-    public ResponseEntity<List<GuestDTO>> listAllGuests(@RequestParam(value = "name", required = false) String name) {
+    public ResponseEntity<StreamingResponseBody> listAllGuests(@RequestParam(value = "name", required = false) String name) throws HttpMediaTypeNotAcceptableException {
         if (name != null) {
-            return ResponseEntity.ok(guestService.findGuestsByName(name));
+            return responseStreams.<GuestDTO>arrayResponse(consumer -> guestService.streamGuestsByName(name, consumer));
         }
 
-        return ResponseEntity.ok(guestService.listAllGuests());
+        return responseStreams.<GuestDTO>arrayResponse(guestService::streamAllGuests);
     }
 
     @ApiOperation(value = "Add a guest")
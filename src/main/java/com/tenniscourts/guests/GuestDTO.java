@@ -16,4 +16,6 @@ public class GuestDTO {
 
     @NotNull
     private String name;
+
+    private boolean member;
 }
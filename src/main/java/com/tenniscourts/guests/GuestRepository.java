@@ -1,5 +1,6 @@
 package com.tenniscourts.guests;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -7,4 +8,8 @@ import java.util.List;
 public interface GuestRepository extends JpaRepository<Guest, Long> {
 
     List<Guest> findAllByName(String name);
+
+    List<Guest> findByNameAndIdGreaterThanOrderById(String name, Long id, Pageable pageable);
+
+    List<Guest> findByIdGreaterThanOrderById(Long id, Pageable pageable);
 }
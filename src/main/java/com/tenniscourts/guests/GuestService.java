@@ -1,10 +1,13 @@
 package com.tenniscourts.guests;
 
+import com.tenniscourts.config.persistence.EntityStreams;
 import com.tenniscourts.exceptions.EntityNotFoundException;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @AllArgsConstructor
@@ -14,6 +17,8 @@ public class GuestService {
 
     private final GuestMapper guestMapper;
 
+    private final EntityStreams entityStreams;
+
     public GuestDTO addGuest(GuestDTO guestDTO) {
         if (guestDTO.getId() == null) {
             throw new IllegalArgumentException("Guest id is null");
@@ -32,10 +37,19 @@ public class GuestService {
         return guestMapper.map(guestRepository.findAllByName(guestName));
     }
 
+    public void streamGuestsByName(String guestName, Consumer<GuestDTO> consumer) {
+        entityStreams.forEach((Guest last, Pageable page) -> guestRepository.findByNameAndIdGreaterThanOrderById(guestName, EntityStreams.idAfter(last), page),
+                guestMapper::map, consumer);
+    }
+
     public List<GuestDTO> listAllGuests() {
         return guestMapper.map(guestRepository.findAll());
     }
 
+    public void streamAllGuests(Consumer<GuestDTO> consumer) {
+        entityStreams.forEach((Guest last, Pageable page) -> guestRepository.findByIdGreaterThanOrderById(EntityStreams.idAfter(last), page), guestMapper::map, consumer);
+    }
+
     public GuestDTO updateGuest(GuestDTO newGuestDTO) {
         if (newGuestDTO.getId() == null) {
             throw new IllegalArgumentException("Guest id is null");
@@ -43,6 +57,7 @@ public class GuestService {
 
         return guestRepository.findById(newGuestDTO.getId()).map(guestMapper::map).map(guestDTO -> {
             guestDTO.setName(newGuestDTO.getName());
+            guestDTO.setMember(newGuestDTO.isMember());
 
             return addGuest(guestDTO);
         }).orElseGet(() -> addGuest(newGuestDTO));
@@ -0,0 +1,31 @@
+package com.tenniscourts.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.config.persistence.EntityStreams;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "tenniscourts.journal.enabled", havingValue = "true")
+public class JournalConfig {
+
+    @Bean
+    public ScheduleStateJournal scheduleStateJournal(DataSource dataSource, ObjectMapper objectMapper,
+                                                     @Value("${tenniscourts.journal.directory:journal}") String directory,
+                                                     @Value("${tenniscourts.journal.segment-bytes:67108864}") int segmentBytes,
+                                                     @Value("${tenniscourts.archive.retention-days:365}") long retentionDays) throws IOException {
+        Path path = Paths.get(directory);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(Integer.parseInt(EntityStreams.FETCH_SIZE));
+        return new ScheduleStateJournal(path, new MappedJournal(path, segmentBytes), jdbcTemplate, objectMapper, Duration.ofDays(retentionDays));
+    }
+}
@@ -0,0 +1,45 @@
+package com.tenniscourts.journal;
+
+import com.tenniscourts.availability.SlotStateDTO;
+import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+@AllArgsConstructor
+@RestController
+@ConditionalOnProperty(name = "tenniscourts.journal.enabled", havingValue = "true")
+@RequestMapping("/admin/journal")
+public class JournalController {
+
+    private final ScheduleStateJournal scheduleStateJournal;
+
+    @ApiOperation(value = "Show the journal and schedule view statistics")
+    @GetMapping
+    public ResponseEntity<JournalStatsDTO> getStats() {
+        return ResponseEntity.ok(scheduleStateJournal.getStats());
+    }
+
+    @ApiOperation(value = "Snapshot the schedule view and compact the journal now")
+    @PostMapping("/snapshot")
+    public ResponseEntity<JournalStatsDTO> snapshot() throws IOException {
+        return ResponseEntity.ok(scheduleStateJournal.snapshot());
+    }
+
+    @ApiOperation(value = "List the slots of a tennis court on a day from the in-memory schedule view")
+    @GetMapping("/slots")
+    public ResponseEntity<List<SlotStateDTO>> findSlots(@RequestParam(value = "tennisCourtId") Long tennisCourtId,
+                                                        @RequestParam(value = "date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(scheduleStateJournal.findSlots(tennisCourtId, date));
+    }
+}
@@ -0,0 +1,23 @@
+package com.tenniscourts.journal;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class JournalStatsDTO {
+
+    private final long lastSequence;
+
+    private final long snapshotSequence;
+
+    private final int segments;
+
+    private final int slots;
+
+    private final long recoveryMillis;
+
+    private final long replayedRecords;
+}
@@ -0,0 +1,208 @@
+package com.tenniscourts.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ObjLongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of records in memory-mapped segment files.
+ * <p>
+ * A record is the payload length, the CRC32 of the sequence and payload, the sequence and the payload. The length is
+ * written last, and a zero length ends a segment. Segments are preallocated to the segment size and named after the
+ * sequence of their first record. On open, the last segment is read up to the first record whose length, sequence or
+ * CRC is wrong: a record torn by a crash is dropped, and the rest of the segment is cleared for the next appends.
+ * <p>
+ * Appends only write to the mapped pages, which survive a crash of the process. They survive a crash of the machine
+ * once {@link #force()} has returned.
+ */
+public class MappedJournal implements AutoCloseable {
+
+    static final int HEADER_BYTES = 16;
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Path directory;
+
+    private final int segmentBytes;
+
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+
+    private MappedByteBuffer active;
+
+    private long nextSequence = 1;
+
+    public MappedJournal(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes < HEADER_BYTES * 2) {
+            throw new IllegalArgumentException("Segments must hold at least one record header and one byte of payload");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                segments.put(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), file);
+            }
+        }
+
+        if (segments.isEmpty()) {
+            openSegment(nextSequence);
+        } else {
+            Map.Entry<Long, Path> last = segments.lastEntry();
+            active = map(last.getValue(), FileChannel.MapMode.READ_WRITE);
+            nextSequence = scan(active, last.getKey(), Long.MAX_VALUE, null);
+            clearTail(active);
+        }
+    }
+
+    /**
+     * @return the sequence of the appended record
+     */
+    public synchronized long append(byte[] payload) {
+        if (payload.length == 0 || HEADER_BYTES + payload.length > segmentBytes) {
+            throw new IllegalArgumentException("Record payloads must hold 1 to " + (segmentBytes - HEADER_BYTES) + " bytes");
+        }
+        if (active.remaining() < HEADER_BYTES + payload.length) {
+            active.force();
+            openSegment(nextSequence);
+        }
+
+        long sequence = nextSequence++;
+        int start = active.position();
+        active.position(start + 4);
+        active.putInt(checksum(sequence, ByteBuffer.wrap(payload)));
+        active.putLong(sequence);
+        active.put(payload);
+        active.putInt(start, payload.length);
+        return sequence;
+    }
+
+    /**
+     * Hands every record after the given sequence to the consumer, in order. The payload buffer is only valid
+     * during the call.
+     */
+    public synchronized void replay(long afterSequence, ObjLongConsumer<ByteBuffer> consumer) {
+        Long first = segments.floorKey(afterSequence + 1);
+        for (Map.Entry<Long, Path> segment : segments.tailMap(first == null ? segments.firstKey() : first, true).entrySet()) {
+            ByteBuffer buffer;
+            if (segment.getKey().equals(segments.lastKey())) {
+                buffer = active.duplicate();
+                buffer.flip();
+            } else {
+                buffer = map(segment.getValue(), FileChannel.MapMode.READ_ONLY);
+            }
+            scan(buffer, segment.getKey(), afterSequence, consumer);
+        }
+    }
+
+    /**
+     * Deletes the segments holding only records up to the given sequence. The segment being appended to is kept.
+     *
+     * @return the number of segments deleted
+     */
+    public synchronized int deleteSegmentsUpTo(long sequence) {
+        int deleted = 0;
+        while (segments.size() > 1 && segments.higherKey(segments.firstKey()) <= sequence + 1) {
+            try {
+                Files.delete(segments.pollFirstEntry().getValue());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            deleted++;
+        }
+        return deleted;
+    }
+
+    public synchronized void force() {
+        active.force();
+    }
+
+    public synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        active.force();
+    }
+
+    /**
+     * Reads valid records from the start of the buffer, leaving it positioned after the last one.
+     *
+     * @return the sequence the next record must have
+     */
+    private static long scan(ByteBuffer buffer, long firstSequence, long afterSequence, ObjLongConsumer<ByteBuffer> consumer) {
+        long expected = firstSequence;
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() - (HEADER_BYTES - 4)) {
+                buffer.position(start);
+                break;
+            }
+            int checksum = buffer.getInt();
+            long sequence = buffer.getLong();
+            ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+            if (sequence != expected || checksum != checksum(sequence, payload.duplicate())) {
+                buffer.position(start);
+                break;
+            }
+            if (consumer != null && sequence > afterSequence) {
+                consumer.accept(payload.asReadOnlyBuffer(), sequence);
+            }
+            buffer.position(buffer.position() + length);
+            expected++;
+        }
+        return expected;
+    }
+
+    private static void clearTail(ByteBuffer buffer) {
+        if (buffer.remaining() >= 4 && buffer.getInt(buffer.position()) != 0) {
+            for (int i = buffer.position(); i < buffer.limit(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+    }
+
+    private static int checksum(long sequence, ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        ByteBuffer header = ByteBuffer.allocate(8);
+        header.putLong(0, sequence);
+        crc.update(header);
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private void openSegment(long firstSequence) {
+        Path file = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+        active = map(file, FileChannel.MapMode.READ_WRITE);
+        segments.put(firstSequence, file);
+    }
+
+    private MappedByteBuffer map(Path file, FileChannel.MapMode mode) {
+        boolean write = mode == FileChannel.MapMode.READ_WRITE;
+        try (FileChannel channel = write
+                ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(mode, 0, write ? segmentBytes : channel.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
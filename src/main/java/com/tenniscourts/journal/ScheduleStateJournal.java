@@ -0,0 +1,301 @@
+package com.tenniscourts.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.availability.SlotStateDTO;
+import com.tenniscourts.outbox.OutboxEventDTO;
+import com.tenniscourts.outbox.OutboxSubscriber;
+import com.tenniscourts.reservations.ReservationDTO;
+import com.tenniscourts.reservations.ReservationEventType;
+import com.tenniscourts.reservations.ReservationStatus;
+import com.tenniscourts.schedules.ScheduleDTO;
+import com.tenniscourts.schedules.ScheduleEventType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Keeps an in-memory view of every schedule slot and who holds it, rebuilt on startup from local files instead of the
+ * database.
+ * <p>
+ * Every schedule and reservation event from the outbox is turned into the new state of its slot, appended to a
+ * {@link MappedJournal} and applied to the view. Snapshots of the whole view are written periodically, and the journal
+ * segments they cover are deleted. On startup the view is loaded from the latest valid snapshot and only the journal
+ * tail after it is replayed. The database is read only on the first start, when there is no snapshot yet.
+ * <p>
+ * Slots that ended longer ago than the archive retention are dropped from the view at the next snapshot.
+ */
+@Slf4j
+public class ScheduleStateJournal implements OutboxSubscriber {
+
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private static final int SNAPSHOT_MAGIC = 0x5443534E;
+
+    private static final int KEPT_SNAPSHOTS = 2;
+
+    private final Path directory;
+
+    private final MappedJournal journal;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final Duration retention;
+
+    private final Map<Long, SlotRecord> slots = new ConcurrentHashMap<>();
+
+    private volatile long snapshotSequence;
+
+    private volatile long recoveryMillis;
+
+    private volatile long replayedRecords;
+
+    public ScheduleStateJournal(Path directory, MappedJournal journal, JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, Duration retention) {
+        this.directory = directory;
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
+    }
+
+    /**
+     * Rebuilds the view from the latest valid snapshot and the journal tail, or from the database when there is
+     * no snapshot.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void recover() throws IOException {
+        long started = System.nanoTime();
+        slots.clear();
+        TreeMap<Long, Path> snapshots = snapshots();
+        Long loaded = null;
+        for (Map.Entry<Long, Path> snapshot : snapshots.descendingMap().entrySet()) {
+            try {
+                readSnapshot(snapshot.getValue());
+                loaded = snapshot.getKey();
+                break;
+            } catch (IOException e) {
+                log.warn("Skipped unreadable snapshot {}: {}", snapshot.getValue(), e.getMessage());
+                slots.clear();
+            }
+        }
+
+        long[] replayed = {0};
+        if (loaded == null) {
+            loadFromDatabase();
+            writeSnapshot(journal.getLastSequence(), new ArrayList<>(slots.values()));
+            snapshotSequence = journal.getLastSequence();
+        } else {
+            snapshotSequence = loaded;
+            journal.replay(loaded, (payload, sequence) -> {
+                put(SlotRecord.readFrom(payload));
+                replayed[0]++;
+            });
+        }
+
+        replayedRecords = replayed[0];
+        recoveryMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        log.info("Rebuilt {} schedule slots in {} ms from {}, replayed {} journal records", slots.size(), recoveryMillis,
+                loaded == null ? "the database" : "snapshot " + loaded, replayedRecords);
+    }
+
+    @Override
+    public synchronized void onEvent(OutboxEventDTO event) {
+        SlotRecord slot;
+        try {
+            slot = toSlot(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (slot != null) {
+            journal.append(slot.toBytes());
+            put(slot);
+        }
+    }
+
+    /**
+     * Writes a snapshot of the view and deletes the journal segments and older snapshots it makes redundant.
+     */
+    @Scheduled(fixedDelayString = "${tenniscourts.journal.snapshot-interval-ms:300000}", initialDelayString = "${tenniscourts.journal.snapshot-interval-ms:300000}")
+    public JournalStatsDTO snapshot() throws IOException {
+        long sequence;
+        List<SlotRecord> copy;
+        synchronized (this) {
+            LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+            slots.values().removeIf(slot -> slot.getEndDateTime().isBefore(cutoff));
+            journal.force();
+            sequence = journal.getLastSequence();
+            copy = new ArrayList<>(slots.values());
+        }
+
+        writeSnapshot(sequence, copy);
+        snapshotSequence = sequence;
+
+        TreeMap<Long, Path> snapshots = snapshots();
+        while (snapshots.size() > KEPT_SNAPSHOTS) {
+            Files.delete(snapshots.pollFirstEntry().getValue());
+        }
+        journal.deleteSegmentsUpTo(snapshots.firstKey());
+        return getStats();
+    }
+
+    public List<SlotStateDTO> findSlots(Long tennisCourtId, LocalDate date) {
+        return slots.values().stream()
+                .filter(slot -> slot.getTennisCourtId() == tennisCourtId && slot.getStartDateTime().toLocalDate().equals(date))
+                .sorted(Comparator.comparing(SlotRecord::getStartDateTime))
+                .map(slot -> new SlotStateDTO(slot.getScheduleId(), slot.getStartDateTime(), slot.getEndDateTime(), slot.isAvailable()))
+                .collect(Collectors.toList());
+    }
+
+    public JournalStatsDTO getStats() {
+        return new JournalStatsDTO(journal.getLastSequence(), snapshotSequence, journal.getSegmentCount(), slots.size(), recoveryMillis, replayedRecords);
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    @PreDestroy
+    public void close() {
+        journal.close();
+    }
+
+    private SlotRecord toSlot(OutboxEventDTO event) throws IOException {
+        if (ScheduleEventType.SCHEDULE_ADDED.name().equals(event.getEventType())) {
+            ScheduleDTO schedule = objectMapper.readValue(event.getPayload(), ScheduleDTO.class);
+            SlotRecord existing = slots.get(schedule.getId());
+            return new SlotRecord(schedule.getId(), tennisCourtId(schedule), schedule.getStartDateTime(), schedule.getEndDateTime(),
+                    existing == null ? 0 : existing.getReservationId(), existing == null ? null : existing.getReservationStatus());
+        }
+        if (!isReservationEvent(event.getEventType())) {
+            return null;
+        }
+
+        ReservationDTO reservation = objectMapper.readValue(event.getPayload(), ReservationDTO.class);
+        ScheduleDTO schedule = reservation.getSchedule();
+        ReservationStatus status = ReservationStatus.valueOf(reservation.getReservationStatus());
+        SlotRecord existing = slots.get(schedule.getId());
+        SlotRecord slot = existing != null ? existing
+                : new SlotRecord(schedule.getId(), tennisCourtId(schedule), schedule.getStartDateTime(), schedule.getEndDateTime(), 0, null);
+
+        boolean live = ReservationStatus.READY_TO_PLAY.equals(status) || ReservationStatus.HELD.equals(status);
+        if (live || slot.getReservationId() == reservation.getId() || slot.getReservationId() == 0) {
+            return slot.withReservation(reservation.getId(), status);
+        }
+        // a late event of a reservation that no longer owns the slot
+        return null;
+    }
+
+    private static boolean isReservationEvent(String eventType) {
+        for (ReservationEventType type : ReservationEventType.values()) {
+            if (type.name().equals(eventType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long tennisCourtId(ScheduleDTO schedule) {
+        return schedule.getTennisCourtId() != null ? schedule.getTennisCourtId() : schedule.getTennisCourt().getId();
+    }
+
+    private void put(SlotRecord slot) {
+        slots.put(slot.getScheduleId(), slot);
+    }
+
+    private void loadFromDatabase() {
+        jdbcTemplate.query("select s.id, s.tennis_court_id, s.start_date_time, s.end_date_time, r.id reservation_id, r.reservation_status"
+                        + " from schedule s"
+                        + " left join reservation r on r.active_schedule_id = s.id",
+                resultSet -> {
+                    long reservationId = resultSet.getLong("reservation_id");
+                    put(new SlotRecord(resultSet.getLong("id"), resultSet.getLong("tennis_court_id"),
+                            resultSet.getTimestamp("start_date_time").toLocalDateTime(), resultSet.getTimestamp("end_date_time").toLocalDateTime(),
+                            reservationId, resultSet.wasNull() ? null : ReservationStatus.values()[resultSet.getInt("reservation_status")]));
+                });
+    }
+
+    /**
+     * Layout: magic, journal sequence, slot count, the slots, then the CRC32 of everything before it.
+     * Written under a temporary name and renamed once complete.
+     */
+    private void writeSnapshot(long sequence, List<SlotRecord> snapshot) throws IOException {
+        Path file = directory.resolve(String.format("%s%020d%s", SNAPSHOT_PREFIX, sequence, SNAPSHOT_SUFFIX));
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream output = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryFile)), crc))) {
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeLong(sequence);
+            output.writeInt(snapshot.size());
+            ByteBuffer buffer = ByteBuffer.allocate(SlotRecord.BYTES);
+            for (SlotRecord slot : snapshot) {
+                buffer.clear();
+                slot.writeTo(buffer);
+                output.write(buffer.array());
+            }
+            output.writeLong(crc.getValue());
+        }
+        Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void readSnapshot(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream input = new DataInputStream(new CheckedInputStream(new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (input.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a snapshot");
+            }
+            input.readLong();
+            int count = input.readInt();
+            byte[] bytes = new byte[SlotRecord.BYTES];
+            for (int i = 0; i < count; i++) {
+                input.readFully(bytes);
+                put(SlotRecord.readFrom(ByteBuffer.wrap(bytes)));
+            }
+            long expected = crc.getValue();
+            if (input.readLong() != expected) {
+                throw new IOException("Snapshot checksum mismatch");
+            }
+        }
+    }
+
+    private TreeMap<Long, Path> snapshots() throws IOException {
+        TreeMap<Long, Path> snapshots = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*" + SNAPSHOT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                snapshots.put(Long.parseLong(name.substring(SNAPSHOT_PREFIX.length(), name.length() - SNAPSHOT_SUFFIX.length())), file);
+            }
+        }
+        return snapshots;
+    }
+}
@@ -0,0 +1,75 @@
+package com.tenniscourts.journal;
+
+import com.tenniscourts.reservations.ReservationStatus;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * The state of one schedule slot: its court and time, and the reservation that last owned it.
+ * Journal records and snapshots hold whole slot states, so applying one twice is harmless.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+final class SlotRecord {
+
+    static final int BYTES = 5 * Long.BYTES + 1;
+
+    private static final byte NO_STATUS = -1;
+
+    private final long scheduleId;
+
+    private final long tennisCourtId;
+
+    private final LocalDateTime startDateTime;
+
+    private final LocalDateTime endDateTime;
+
+    /**
+     * The reservation that last owned the slot, 0 when it was never reserved.
+     */
+    private final long reservationId;
+
+    private final ReservationStatus reservationStatus;
+
+    boolean isAvailable() {
+        return !ReservationStatus.READY_TO_PLAY.equals(reservationStatus) && !ReservationStatus.HELD.equals(reservationStatus);
+    }
+
+    SlotRecord withReservation(long reservationId, ReservationStatus reservationStatus) {
+        return new SlotRecord(scheduleId, tennisCourtId, startDateTime, endDateTime, reservationId, reservationStatus);
+    }
+
+    void writeTo(ByteBuffer buffer) {
+        buffer.putLong(scheduleId);
+        buffer.putLong(tennisCourtId);
+        buffer.putLong(startDateTime.toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(endDateTime.toEpochSecond(ZoneOffset.UTC));
+        buffer.putLong(reservationId);
+        buffer.put(reservationStatus == null ? NO_STATUS : (byte) reservationStatus.ordinal());
+    }
+
+    byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(BYTES);
+        writeTo(buffer);
+        return buffer.array();
+    }
+
+    static SlotRecord readFrom(ByteBuffer buffer) {
+        long scheduleId = buffer.getLong();
+        long tennisCourtId = buffer.getLong();
+        LocalDateTime startDateTime = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        LocalDateTime endDateTime = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        long reservationId = buffer.getLong();
+        byte status = buffer.get();
+        return new SlotRecord(scheduleId, tennisCourtId, startDateTime, endDateTime, reservationId,
+                status == NO_STATUS ? null : ReservationStatus.values()[status]);
+    }
+}
@@ -0,0 +1,29 @@
+package com.tenniscourts.monitoring;
+
+import com.tenniscourts.config.web.SingleFlight;
+import com.tenniscourts.config.web.SingleFlightStatsDTO;
+import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/admin/coalescing")
+public class CoalescingController {
+
+    private final Map<String, SingleFlight<?, ?>> singleFlights;
+
+    @ApiOperation(value = "Show how many identical requests were coalesced, by single flight")
+    @GetMapping
+    public ResponseEntity<Map<String, SingleFlightStatsDTO>> showCoalescingStats() {
+        Map<String, SingleFlightStatsDTO> stats = new TreeMap<>();
+        singleFlights.forEach((name, singleFlight) -> stats.put(name, singleFlight.getStats()));
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,36 @@
+package com.tenniscourts.monitoring;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "tenniscourts.slow-query.enabled", havingValue = "true", matchIfMissing = true)
+public class SlowQueryConfig {
+
+    @Bean
+    public static SlowQueryLog slowQueryLog(@Value("${tenniscourts.slow-query.threshold-ms:200}") long thresholdMillis,
+                                            @Value("${tenniscourts.slow-query.sample-rate:0.01}") double sampleRate,
+                                            @Value("${tenniscourts.slow-query.top-size:20}") int topSize,
+                                            @Value("${tenniscourts.slow-query.explain:true}") boolean explain) {
+        return new SlowQueryLog(thresholdMillis, sampleRate, topSize, explain);
+    }
+
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(SlowQueryLog slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource && !(bean instanceof SlowQueryDataSource)) {
+                    return new SlowQueryDataSource((DataSource) bean, slowQueryLog);
+                }
+                return bean;
+            }
+        };
+    }
+}
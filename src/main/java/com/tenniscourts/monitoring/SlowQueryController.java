@@ -0,0 +1,34 @@
+package com.tenniscourts.monitoring;
+
+import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@AllArgsConstructor
+@RestController
+@ConditionalOnBean(SlowQueryLog.class)
+@RequestMapping("/admin/slowQueries")
+public class SlowQueryController {
+
+    private final SlowQueryLog slowQueryLog;
+
+    @ApiOperation(value = "List the slowest queries since startup or the last reset")
+    @GetMapping
+    public ResponseEntity<List<SlowQueryDTO>> listSlowestQueries() {
+        return ResponseEntity.ok(slowQueryLog.getSlowestQueries());
+    }
+
+    @ApiOperation(value = "Reset the slowest queries table")
+    @DeleteMapping
+    public ResponseEntity<Void> resetSlowestQueries() {
+        slowQueryLog.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.tenniscourts.monitoring;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class SlowQueryDTO {
+
+    private final String sql;
+
+    private final List<String> parameters;
+
+    private final long durationMillis;
+
+    private final String plan;
+
+    private final LocalDateTime executedAt;
+}
@@ -0,0 +1,124 @@
+package com.tenniscourts.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives the timing of every JDBC statement. Statements at or above the threshold are always logged with
+ * their parameters and the H2 {@code EXPLAIN} plan and kept in a top-N table; faster ones are logged at the sample rate.
+ */
+@Slf4j
+public class SlowQueryLog {
+
+    private static final Comparator<SlowQueryDTO> BY_DURATION = Comparator.comparingLong(SlowQueryDTO::getDurationMillis);
+
+    private final long thresholdNanos;
+
+    private final double sampleRate;
+
+    private final int topSize;
+
+    private final boolean explain;
+
+    private final PriorityQueue<SlowQueryDTO> slowest;
+
+    public SlowQueryLog(long thresholdMillis, double sampleRate, int topSize, boolean explain) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleRate = sampleRate;
+        this.topSize = topSize;
+        this.explain = explain;
+        this.slowest = new PriorityQueue<>(topSize + 1, BY_DURATION);
+    }
+
+    /**
+     * Records one executed statement.
+     *
+     * @param connection   the unwrapped connection the statement ran on, used for the plan
+     * @param sql          the statement
+     * @param parameters   the bound parameters, in index order
+     * @param elapsedNanos the execution time
+     */
+    public void record(Connection connection, String sql, List<Object> parameters, long elapsedNanos) {
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+
+        if (elapsedNanos >= thresholdNanos) {
+            SlowQueryDTO slowQuery = new SlowQueryDTO(sql, render(parameters), durationMillis,
+                    explain ? explain(connection, sql, parameters) : null, LocalDateTime.now());
+            log.warn("Slow query took {} ms: {} parameters={} plan={}", durationMillis, sql, slowQuery.getParameters(), slowQuery.getPlan());
+            addToTop(slowQuery);
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("Sampled query took {} ms: {}", durationMillis, sql);
+        }
+    }
+
+    public List<SlowQueryDTO> getSlowestQueries() {
+        List<SlowQueryDTO> queries;
+        synchronized (slowest) {
+            queries = new ArrayList<>(slowest);
+        }
+        queries.sort(BY_DURATION.reversed());
+        return queries;
+    }
+
+    public void reset() {
+        synchronized (slowest) {
+            slowest.clear();
+        }
+    }
+
+    private void addToTop(SlowQueryDTO slowQuery) {
+        synchronized (slowest) {
+            slowest.add(slowQuery);
+            if (slowest.size() > topSize) {
+                slowest.poll();
+            }
+        }
+    }
+
+    private List<String> render(List<Object> parameters) {
+        if (parameters.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<String> rendered = new ArrayList<>(parameters.size());
+        parameters.forEach(parameter -> rendered.add(String.valueOf(parameter)));
+        return rendered;
+    }
+
+    private String explain(Connection connection, String sql, List<Object> parameters) {
+        String statementType = sql.trim().toLowerCase(Locale.ROOT);
+        if (!(statementType.startsWith("select") || statementType.startsWith("insert") || statementType.startsWith("update")
+                || statementType.startsWith("delete") || statementType.startsWith("merge"))) {
+            return null;
+        }
+
+        try (PreparedStatement explainStatement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                explainStatement.setObject(i + 1, parameters.get(i));
+            }
+            try (ResultSet resultSet = explainStatement.executeQuery()) {
+                StringBuilder plan = new StringBuilder();
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1));
+                }
+                return plan.toString();
+            }
+        } catch (SQLException e) {
+            log.debug("Could not explain {}", sql, e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.tenniscourts.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class LoggingOutboxSubscriber implements OutboxSubscriber {
+
+    @Override
+    public void onEvent(OutboxEventDTO event) {
+        log.debug("{} {} #{}: {}", event.getEventType(), event.getAggregateType(), event.getAggregateId(), event.getPayload());
+    }
+}
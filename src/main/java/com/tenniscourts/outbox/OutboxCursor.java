@@ -0,0 +1,32 @@
+package com.tenniscourts.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * How far one node has delivered the outbox: every event up to the id has reached its subscribers or was parked.
+ */
+@Entity
+@Table
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxCursor {
+
+    @Id
+    @Column
+    private String nodeId;
+
+    @Column
+    private long lastEventId;
+
+    @Column
+    private LocalDateTime dateUpdate;
+}
@@ -0,0 +1,25 @@
+package com.tenniscourts.outbox;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class OutboxEventDTO {
+
+    private final Long id;
+
+    private final String aggregateType;
+
+    private final Long aggregateId;
+
+    private final String eventType;
+
+    private final String payload;
+
+    private final LocalDateTime createdAt;
+}
@@ -0,0 +1,30 @@
+package com.tenniscourts.outbox;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByIdGreaterThanOrderById(Long id, Pageable pageable);
+
+    List<OutboxEvent> findByIdInOrderById(Collection<Long> ids);
+
+    @Query("select max(e.id) from OutboxEvent e")
+    Long findMaxId();
+
+    /**
+     * Deletes the events older than the given time that every node has read and none has parked.
+     */
+    @Modifying
+    @Query("delete from OutboxEvent e where e.dateCreate < :createdBefore"
+            + " and e.id <= (select min(c.lastEventId) from OutboxCursor c)"
+            + " and e.id not in (select p.eventId from OutboxParkedEvent p)")
+    int deleteDeliveredCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore);
+}
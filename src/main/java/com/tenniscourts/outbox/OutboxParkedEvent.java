@@ -0,0 +1,42 @@
+package com.tenniscourts.outbox;
+
+import com.tenniscourts.config.persistence.BaseEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+
+/**
+ * An event one node gave up delivering after the maximum attempts. It is kept for inspection and not retried.
+ */
+@Entity
+@Table
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class OutboxParkedEvent extends BaseEntity<Long> {
+
+    @Column
+    @NotNull
+    private String nodeId;
+
+    @Column
+    @NotNull
+    private Long eventId;
+
+    @Column
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+}
@@ -0,0 +1,10 @@
+package com.tenniscourts.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface OutboxParkedEventRepository extends JpaRepository<OutboxParkedEvent, Long> {
+
+    List<OutboxParkedEvent> findByEventId(Long eventId);
+}
@@ -0,0 +1,302 @@
+package com.tenniscourts.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers every outbox event, oldest first, to every {@link OutboxSubscriber} of this node. Subscribers keep
+ * node-local state, such as the availability feed and the schedule journal, so each node reads the whole outbox with a
+ * cursor of its own instead of competing with the other nodes for events. The cursor is stored per node id, so a
+ * restarted node carries on where it stopped; a node that starts for the first time starts at the newest event.
+ * <p>
+ * Ids are assigned before commit, so a transaction that commits late can write an event below ids already read. The
+ * ids skipped between two events are read again on every drain until they show up or the gap timeout passes.
+ * <p>
+ * When a subscriber fails, the event is retried with exponential backoff, and the later events of its aggregate are
+ * held back meanwhile so they are delivered in order. After the maximum attempts the event is parked in
+ * {@code outbox_parked_event} and the aggregate moves on.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private static final int MAX_TRACKED_GAPS = 1000;
+
+    private static final int MAX_BACKOFF_SHIFT = 20;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final OutboxCursorRepository outboxCursorRepository;
+
+    private final OutboxParkedEventRepository outboxParkedEventRepository;
+
+    private final List<OutboxSubscriber> subscribers;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final String nodeId;
+
+    private final int batchSize;
+
+    private final long retentionHours;
+
+    private final int maxAttempts;
+
+    private final long retryBackoffNanos;
+
+    private final long maxRetryBackoffNanos;
+
+    private final long gapTimeoutNanos;
+
+    /**
+     * Events read but not delivered yet, because they failed or wait behind a failed event of their aggregate.
+     */
+    private final TreeMap<Long, PendingEvent> pending = new TreeMap<>();
+
+    /**
+     * Ids skipped by the events read so far, with the time they were first missed.
+     */
+    private final TreeMap<Long, Long> gaps = new TreeMap<>();
+
+    private long lastReadId = -1;
+
+    private long savedCursor = -1;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, OutboxCursorRepository outboxCursorRepository,
+                       OutboxParkedEventRepository outboxParkedEventRepository, List<OutboxSubscriber> subscribers,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${tenniscourts.outbox.node-id:}") String nodeId,
+                       @Value("${tenniscourts.outbox.batch-size:100}") int batchSize,
+                       @Value("${tenniscourts.outbox.retention-hours:24}") long retentionHours,
+                       @Value("${tenniscourts.outbox.max-attempts:10}") int maxAttempts,
+                       @Value("${tenniscourts.outbox.retry-backoff-ms:1000}") long retryBackoffMillis,
+                       @Value("${tenniscourts.outbox.max-retry-backoff-ms:300000}") long maxRetryBackoffMillis,
+                       @Value("${tenniscourts.outbox.gap-timeout-ms:10000}") long gapTimeoutMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxCursorRepository = outboxCursorRepository;
+        this.outboxParkedEventRepository = outboxParkedEventRepository;
+        this.subscribers = subscribers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.nodeId = StringUtils.hasText(nodeId) ? nodeId : hostName();
+        this.batchSize = batchSize;
+        this.retentionHours = retentionHours;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffNanos = TimeUnit.MILLISECONDS.toNanos(retryBackoffMillis);
+        this.maxRetryBackoffNanos = TimeUnit.MILLISECONDS.toNanos(maxRetryBackoffMillis);
+        this.gapTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(gapTimeoutMillis);
+    }
+
+    /**
+     * Places the cursor at startup, so events written before the first drain are not taken as history.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (lastReadId < 0) {
+            loadCursor();
+        }
+    }
+
+    /**
+     * Delivers batches until this node has read the whole outbox or holds back a full batch, and saves the cursor.
+     *
+     * @return the number of events delivered
+     */
+    @Scheduled(fixedDelayString = "${tenniscourts.outbox.poll-interval-ms:200}")
+    public synchronized int drain() {
+        if (lastReadId < 0) {
+            loadCursor();
+        }
+        long now = System.nanoTime();
+        readGaps(now);
+
+        int delivered = 0;
+        while (true) {
+            List<OutboxEvent> batch = outboxEventRepository.findByIdGreaterThanOrderById(lastReadId, PageRequest.of(0, batchSize));
+            for (OutboxEvent event : batch) {
+                for (long missing = lastReadId + 1; missing < event.getId() && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                pending.put(event.getId(), new PendingEvent(event));
+                lastReadId = event.getId();
+            }
+            delivered += deliverPending(now);
+
+            if (batch.size() < batchSize || pending.size() >= batchSize) {
+                break;
+            }
+        }
+        saveCursor();
+        return delivered;
+    }
+
+    /**
+     * @return the number of events this node has read and still has to deliver
+     */
+    public synchronized int getPendingEvents() {
+        return pending.size();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Deletes the events past retention that are behind the cursor of every node. Parked events are kept, so they
+     * can still be looked up, and a node that stopped reading keeps the outbox from its cursor on.
+     *
+     * @return the number of events deleted
+     */
+    @Scheduled(fixedDelayString = "PT1H")
+    public int purgeDelivered() {
+        int purged = transactionTemplate.execute(status -> outboxEventRepository.deleteDeliveredCreatedBefore(LocalDateTime.now().minusHours(retentionHours)));
+        log.debug("Purged {} delivered outbox events older than {} hours", purged, retentionHours);
+        return purged;
+    }
+
+    private void loadCursor() {
+        OutboxCursor cursor = outboxCursorRepository.findById(nodeId).orElse(null);
+        if (cursor != null) {
+            lastReadId = cursor.getLastEventId();
+            savedCursor = lastReadId;
+        } else {
+            Long newest = outboxEventRepository.findMaxId();
+            lastReadId = newest == null ? 0 : newest;
+        }
+    }
+
+    /**
+     * Everything up to the cursor has been delivered or parked, so it stops below the first pending event and the
+     * first gap that may still fill in.
+     */
+    private void saveCursor() {
+        long cursor = lastReadId;
+        if (!pending.isEmpty()) {
+            cursor = Math.min(cursor, pending.firstKey() - 1);
+        }
+        if (!gaps.isEmpty()) {
+            cursor = Math.min(cursor, gaps.firstKey() - 1);
+        }
+        if (cursor != savedCursor) {
+            outboxCursorRepository.save(new OutboxCursor(nodeId, cursor, LocalDateTime.now()));
+            savedCursor = cursor;
+        }
+    }
+
+    private void readGaps(long now) {
+        gaps.values().removeIf(firstMissed -> now - firstMissed > gapTimeoutNanos);
+        if (gaps.isEmpty()) {
+            return;
+        }
+        for (OutboxEvent event : outboxEventRepository.findByIdInOrderById(gaps.keySet())) {
+            gaps.remove(event.getId());
+            pending.put(event.getId(), new PendingEvent(event));
+        }
+    }
+
+    private int deliverPending(long now) {
+        int delivered = 0;
+        Set<String> blockedAggregates = new HashSet<>();
+        Iterator<PendingEvent> iterator = pending.values().iterator();
+        while (iterator.hasNext()) {
+            PendingEvent pendingEvent = iterator.next();
+            String aggregate = pendingEvent.event.getAggregateType() + "#" + pendingEvent.event.getAggregateId();
+            if (blockedAggregates.contains(aggregate)) {
+                continue;
+            }
+            if (pendingEvent.attempts > 0 && now - pendingEvent.nextAttemptAt < 0) {
+                blockedAggregates.add(aggregate);
+                continue;
+            }
+
+            if (deliver(pendingEvent)) {
+                iterator.remove();
+                delivered++;
+            } else if (pendingEvent.attempts >= maxAttempts) {
+                park(pendingEvent);
+                iterator.remove();
+            } else {
+                pendingEvent.nextAttemptAt = now + backoff(pendingEvent.attempts);
+                blockedAggregates.add(aggregate);
+            }
+        }
+        return delivered;
+    }
+
+    private boolean deliver(PendingEvent pendingEvent) {
+        for (OutboxSubscriber subscriber : subscribers) {
+            try {
+                subscriber.onEvent(pendingEvent.event);
+            } catch (RuntimeException e) {
+                pendingEvent.attempts++;
+                pendingEvent.lastError = subscriber.getClass().getSimpleName() + ": " + e;
+                if (pendingEvent.attempts < maxAttempts) {
+                    log.warn("Subscriber {} failed on outbox event {}, attempt {} of {}: {}", subscriber.getClass().getSimpleName(),
+                            pendingEvent.event.getId(), pendingEvent.attempts, maxAttempts, e.toString());
+                } else {
+                    log.error("Subscriber {} failed on outbox event {} {} times, parking it", subscriber.getClass().getSimpleName(),
+                            pendingEvent.event.getId(), pendingEvent.attempts, e);
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void park(PendingEvent pendingEvent) {
+        String lastError = pendingEvent.lastError;
+        transactionTemplate.execute(status -> outboxParkedEventRepository.save(OutboxParkedEvent.builder()
+                .nodeId(nodeId)
+                .eventId(pendingEvent.event.getId())
+                .attempts(pendingEvent.attempts)
+                .lastError(lastError.length() > 1000 ? lastError.substring(0, 1000) : lastError)
+                .build()));
+    }
+
+    private long backoff(int attempts) {
+        long backoff = retryBackoffNanos << Math.min(attempts - 1, MAX_BACKOFF_SHIFT);
+        return backoff < 0 ? maxRetryBackoffNanos : Math.min(backoff, maxRetryBackoffNanos);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    private static final class PendingEvent {
+
+        private final OutboxEventDTO event;
+
+        private int attempts;
+
+        private long nextAttemptAt;
+
+        private String lastError;
+
+        PendingEvent(OutboxEvent event) {
+            this.event = new OutboxEventDTO(event.getId(), event.getAggregateType(), event.getAggregateId(),
+                    event.getEventType(), event.getPayload(), event.getDateCreate());
+        }
+    }
+}
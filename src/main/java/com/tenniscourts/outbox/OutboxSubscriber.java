@@ -0,0 +1,16 @@
+package com.tenniscourts.outbox;
+
+/**
+ * Receives the events drained from the outbox, after the transaction that wrote them has committed. Every node
+ * delivers every event to its own subscribers.
+ * <p>
+ * Delivery is at least once: an event is delivered again when any subscriber throws, or when the relay stops
+ * before saving its cursor, so subscribers must be idempotent on {@link OutboxEventDTO#getId()}.
+ * Events of one aggregate are delivered in the order they were written, and an event is not delivered
+ * while an earlier event of the same aggregate is still being retried. An event that keeps failing is parked
+ * after the maximum attempts and is not delivered again.
+ */
+public interface OutboxSubscriber {
+
+    void onEvent(OutboxEventDTO event);
+}
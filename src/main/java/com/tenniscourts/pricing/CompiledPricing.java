@@ -0,0 +1,265 @@
+package com.tenniscourts.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Pricing and refund rules resolved into immutable arrays, so a quote is a couple of array reads.
+ * <p>
+ * Every court with rules of its own gets a price table indexed by member flag and hour of the week. All other courts
+ * share the table built from the rules without a court. Court ids are found with an open addressing table of
+ * primitive longs, so a lookup neither boxes nor allocates. Refund tiers are indexed by the minutes left before the
+ * slot, up to the largest tier threshold, and the refund of every compiled price in every tier is computed up front at
+ * the scale of money, so refunding a price still in use returns a shared value. Other amounts, paid under earlier
+ * rules, are multiplied on the spot.
+ */
+final class CompiledPricing {
+
+    static final int HOURS_PER_WEEK = 7 * 24;
+
+    static final int MONEY_SCALE = 2;
+
+    private static final long NO_COURT = Long.MIN_VALUE;
+
+    private static final BigDecimal NO_REFUND = BigDecimal.ZERO.setScale(MONEY_SCALE);
+
+    private final long[] courtIds;
+
+    private final BigDecimal[][] courtPrices;
+
+    private final BigDecimal[] defaultPrices;
+
+    /**
+     * Index into {@link #tierRates} for each minute before the slot, tier 0 being no refund.
+     */
+    private final int[] refundTiersByMinute;
+
+    private final BigDecimal[] tierRates;
+
+    /**
+     * Refund of each compiled price per tier, keyed by the price at the scale of money.
+     */
+    private final Map<BigDecimal, BigDecimal[]> refundsByPrice;
+
+    private final int rules;
+
+    private final int refundTiers;
+
+    private final LocalDateTime compiledAt;
+
+    private CompiledPricing(long[] courtIds, BigDecimal[][] courtPrices, BigDecimal[] defaultPrices, int[] refundTiersByMinute,
+                            BigDecimal[] tierRates, int rules, int refundTiers, LocalDateTime compiledAt) {
+        this.courtIds = courtIds;
+        this.courtPrices = courtPrices;
+        this.defaultPrices = defaultPrices;
+        this.refundTiersByMinute = refundTiersByMinute;
+        this.tierRates = tierRates;
+        this.refundsByPrice = refunds(tierRates, defaultPrices, courtPrices);
+        this.rules = rules;
+        this.refundTiers = refundTiers;
+        this.compiledAt = compiledAt;
+    }
+
+    /**
+     * @throws IllegalStateException when a slot is not covered by any rule
+     */
+    static CompiledPricing compile(Collection<PricingRule> pricingRules, Collection<RefundTier> tiers) {
+        TreeSet<Long> courts = new TreeSet<>();
+        boolean anyCourt = false;
+        for (PricingRule rule : pricingRules) {
+            validate(rule);
+            if (rule.getTennisCourtId() != null) {
+                courts.add(rule.getTennisCourtId());
+            } else {
+                anyCourt = true;
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(courts.size(), 1) * 2) * 2;
+        long[] courtIds = new long[capacity];
+        BigDecimal[][] courtPrices = new BigDecimal[capacity][];
+        Arrays.fill(courtIds, NO_COURT);
+        for (Long court : courts) {
+            int slot = slot(court, capacity);
+            while (courtIds[slot] != NO_COURT) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            courtIds[slot] = court;
+            courtPrices[slot] = prices(pricingRules, court);
+        }
+
+        List<RefundTier> sortedTiers = new ArrayList<>(tiers);
+        sortedTiers.sort(Comparator.comparing(RefundTier::getMinMinutesBefore));
+        BigDecimal[] tierRates = new BigDecimal[sortedTiers.size() + 1];
+        tierRates[0] = BigDecimal.ZERO;
+        for (int tier = 0; tier < sortedTiers.size(); tier++) {
+            tierRates[tier + 1] = Objects.requireNonNull(sortedTiers.get(tier).getRefundRate(), "Refund tier without a rate");
+        }
+
+        return new CompiledPricing(courtIds, courtPrices, anyCourt ? prices(pricingRules, null) : null,
+                refundTiersByMinute(sortedTiers), tierRates, pricingRules.size(), tiers.size(), LocalDateTime.now());
+    }
+
+    BigDecimal price(long tennisCourtId, int hourOfWeek, boolean member) {
+        BigDecimal[] prices = defaultPrices;
+        int mask = courtIds.length - 1;
+        for (int slot = slot(tennisCourtId, courtIds.length); courtIds[slot] != NO_COURT; slot = (slot + 1) & mask) {
+            if (courtIds[slot] == tennisCourtId) {
+                prices = courtPrices[slot];
+                break;
+            }
+        }
+        if (prices == null) {
+            throw new IllegalStateException("No pricing rule covers tennis court " + tennisCourtId);
+        }
+        return prices[(member ? HOURS_PER_WEEK : 0) + hourOfWeek];
+    }
+
+    BigDecimal refundRate(long minutesBefore) {
+        return tierRates[refundTier(minutesBefore)];
+    }
+
+    /**
+     * @return the refund at the scale of money, rounded half up
+     */
+    BigDecimal refund(BigDecimal paid, long minutesBefore) {
+        int tier = refundTier(minutesBefore);
+        if (tier == 0) {
+            return NO_REFUND;
+        }
+        BigDecimal[] refunds = refundsByPrice.get(paid);
+        if (refunds != null) {
+            return refunds[tier];
+        }
+        return refund(paid, tierRates[tier]);
+    }
+
+    PricingSummaryDTO summary() {
+        int pricedCourts = 0;
+        for (long courtId : courtIds) {
+            pricedCourts += courtId == NO_COURT ? 0 : 1;
+        }
+        return new PricingSummaryDTO(rules, refundTiers, pricedCourts, compiledAt);
+    }
+
+    private static BigDecimal[] prices(Collection<PricingRule> pricingRules, Long tennisCourtId) {
+        List<PricingRule> candidates = new ArrayList<>();
+        for (PricingRule rule : pricingRules) {
+            if (rule.getTennisCourtId() == null || rule.getTennisCourtId().equals(tennisCourtId)) {
+                candidates.add(rule);
+            }
+        }
+        candidates.sort(Comparator.comparing(PricingRule::getPriority)
+                .thenComparingInt(CompiledPricing::specificity)
+                .thenComparingInt(rule -> rule.getStartHour() - rule.getEndHour())
+                .reversed());
+
+        BigDecimal[] prices = new BigDecimal[2 * HOURS_PER_WEEK];
+        for (int member = 0; member < 2; member++) {
+            for (int hourOfWeek = 0; hourOfWeek < HOURS_PER_WEEK; hourOfWeek++) {
+                PricingRule rule = match(candidates, hourOfWeek, member == 1);
+                if (rule == null) {
+                    throw new IllegalStateException("No pricing rule covers day " + (hourOfWeek / 24 + 1) + ", hour " + hourOfWeek % 24
+                            + (member == 1 ? " for members" : "") + (tennisCourtId == null ? "" : " of tennis court " + tennisCourtId));
+                }
+                prices[member * HOURS_PER_WEEK + hourOfWeek] = rule.getPrice();
+            }
+        }
+        return prices;
+    }
+
+    private static PricingRule match(List<PricingRule> candidates, int hourOfWeek, boolean member) {
+        int dayOfWeek = hourOfWeek / 24 + 1;
+        int hour = hourOfWeek % 24;
+        for (PricingRule rule : candidates) {
+            if ((rule.getDayOfWeek() == null || rule.getDayOfWeek() == dayOfWeek)
+                    && rule.getStartHour() <= hour && hour < rule.getEndHour()
+                    && (rule.getMember() == null || rule.getMember() == member)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private static int specificity(PricingRule rule) {
+        return (rule.getTennisCourtId() == null ? 0 : 4) + (rule.getDayOfWeek() == null ? 0 : 2) + (rule.getMember() == null ? 0 : 1);
+    }
+
+    private int refundTier(long minutesBefore) {
+        if (minutesBefore < 0) {
+            return 0;
+        }
+        return refundTiersByMinute[(int) Math.min(minutesBefore, refundTiersByMinute.length - 1)];
+    }
+
+    /**
+     * @param sortedTiers the tiers from the shortest to the longest, tier {@code i} is index {@code i + 1}
+     */
+    private static int[] refundTiersByMinute(List<RefundTier> sortedTiers) {
+        long longest = sortedTiers.isEmpty() ? 0 : sortedTiers.get(sortedTiers.size() - 1).getMinMinutesBefore();
+        if (longest > 7 * 24 * 60 * 4) {
+            throw new IllegalArgumentException("Refund tiers longer than four weeks are not supported");
+        }
+
+        int[] tiersByMinute = new int[(int) longest + 1];
+        int tier = 0;
+        for (int minutes = 0; minutes < tiersByMinute.length; minutes++) {
+            while (tier < sortedTiers.size() && sortedTiers.get(tier).getMinMinutesBefore() <= minutes) {
+                tier++;
+            }
+            tiersByMinute[minutes] = tier;
+        }
+        return tiersByMinute;
+    }
+
+    private static Map<BigDecimal, BigDecimal[]> refunds(BigDecimal[] tierRates, BigDecimal[] defaultPrices, BigDecimal[][] courtPrices) {
+        Map<BigDecimal, BigDecimal[]> refunds = new HashMap<>();
+        List<BigDecimal[]> tables = new ArrayList<>(Arrays.asList(courtPrices));
+        tables.add(defaultPrices);
+        for (BigDecimal[] prices : tables) {
+            if (prices == null) {
+                continue;
+            }
+            for (BigDecimal price : prices) {
+                refunds.computeIfAbsent(price.setScale(MONEY_SCALE, RoundingMode.HALF_UP), paid -> {
+                    BigDecimal[] byTier = new BigDecimal[tierRates.length];
+                    byTier[0] = NO_REFUND;
+                    for (int tier = 1; tier < tierRates.length; tier++) {
+                        byTier[tier] = refund(paid, tierRates[tier]);
+                    }
+                    return byTier;
+                });
+            }
+        }
+        return refunds;
+    }
+
+    private static BigDecimal refund(BigDecimal paid, BigDecimal rate) {
+        return paid.multiply(rate).setScale(MONEY_SCALE, RoundingMode.HALF_UP);
+    }
+
+    private static void validate(PricingRule rule) {
+        Objects.requireNonNull(rule.getPrice(), "Pricing rule without a price");
+        if (rule.getStartHour() < 0 || rule.getEndHour() > 24 || rule.getStartHour() >= rule.getEndHour()) {
+            throw new IllegalArgumentException("Pricing rule " + rule.getId() + " has an empty or invalid hour range");
+        }
+        if (rule.getDayOfWeek() != null && (rule.getDayOfWeek() < 1 || rule.getDayOfWeek() > 7)) {
+            throw new IllegalArgumentException("Pricing rule " + rule.getId() + " has an invalid day of week");
+        }
+    }
+
+    private static int slot(long tennisCourtId, int capacity) {
+        int hash = (int) (tennisCourtId ^ (tennisCourtId >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (capacity - 1);
+    }
+}
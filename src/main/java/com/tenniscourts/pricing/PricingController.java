@@ -0,0 +1,29 @@
+package com.tenniscourts.pricing;
+
+import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/admin/pricing")
+public class PricingController {
+
+    private final PricingEngine pricingEngine;
+
+    @ApiOperation(value = "Show the pricing rules in use")
+    @GetMapping
+    public ResponseEntity<PricingSummaryDTO> getSummary() {
+        return ResponseEntity.ok(pricingEngine.getSummary());
+    }
+
+    @ApiOperation(value = "Reload the pricing rules and refund tiers from the database")
+    @PostMapping("/reload")
+    public ResponseEntity<PricingSummaryDTO> reload() {
+        return ResponseEntity.ok(pricingEngine.reload());
+    }
+}
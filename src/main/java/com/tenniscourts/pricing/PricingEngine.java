@@ -0,0 +1,92 @@
+package com.tenniscourts.pricing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Quotes reservation prices and refunds from the pricing rules and refund tiers in the database.
+ * <p>
+ * The rules are compiled into a {@link CompiledPricing} that is swapped in atomically, so quotes never lock and never
+ * see half of a reload. Rules are reloaded periodically and on demand; a rule set that does not compile is rejected and
+ * the previous one stays in use.
+ */
+@Slf4j
+@Service
+public class PricingEngine {
+
+    private final PricingRuleRepository pricingRuleRepository;
+
+    private final RefundTierRepository refundTierRepository;
+
+    private final AtomicReference<CompiledPricing> compiled = new AtomicReference<>();
+
+    public PricingEngine(PricingRuleRepository pricingRuleRepository, RefundTierRepository refundTierRepository) {
+        this.pricingRuleRepository = pricingRuleRepository;
+        this.refundTierRepository = refundTierRepository;
+    }
+
+    public BigDecimal price(Long tennisCourtId, LocalDateTime startDateTime, boolean member) {
+        int hourOfWeek = (startDateTime.getDayOfWeek().getValue() - 1) * 24 + startDateTime.getHour();
+        return current().price(tennisCourtId, hourOfWeek, member);
+    }
+
+    public BigDecimal refund(BigDecimal paid, LocalDateTime startDateTime, LocalDateTime cancelledAt) {
+        return current().refund(paid, ChronoUnit.MINUTES.between(cancelledAt, startDateTime));
+    }
+
+    /**
+     * Returns a quoter bound to the refund tiers in use now, so a batch of quotes is never split by a reload.
+     *
+     * @param cancelledAt the cancellation time every quote of the batch assumes
+     */
+    public RefundQuoter refundQuoter(LocalDateTime cancelledAt) {
+        CompiledPricing pricing = current();
+        return (paid, startDateTime) -> pricing.refund(paid, ChronoUnit.MINUTES.between(cancelledAt, startDateTime));
+    }
+
+    /**
+     * Compiles the rules in the database and puts them in use.
+     *
+     * @throws IllegalStateException when the rules leave a slot without a price
+     */
+    public PricingSummaryDTO reload() {
+        CompiledPricing pricing = CompiledPricing.compile(pricingRuleRepository.findAll(), refundTierRepository.findAll());
+        compiled.set(pricing);
+        return pricing.summary();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${tenniscourts.pricing.reload-interval-ms:60000}", initialDelayString = "${tenniscourts.pricing.reload-interval-ms:60000}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Kept the previous pricing rules, the new ones do not compile: {}", e.getMessage());
+        }
+    }
+
+    public PricingSummaryDTO getSummary() {
+        return current().summary();
+    }
+
+    private CompiledPricing current() {
+        CompiledPricing pricing = compiled.get();
+        if (pricing == null) {
+            reload();
+            pricing = compiled.get();
+        }
+        return pricing;
+    }
+}
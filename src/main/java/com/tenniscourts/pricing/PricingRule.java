@@ -0,0 +1,64 @@
+package com.tenniscourts.pricing;
+
+import com.tenniscourts.config.persistence.BaseEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+/**
+ * The price of the slots a rule matches. A null court, day or member flag matches any. When several rules match a
+ * slot, the highest priority wins, then the most specific one, then the one covering the fewest hours.
+ */
+@Entity
+@Table
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class PricingRule extends BaseEntity<Long> {
+
+    @Column
+    private Long tennisCourtId;
+
+    /**
+     * ISO day of week, 1 for Monday to 7 for Sunday.
+     */
+    @Column
+    private Integer dayOfWeek;
+
+    /**
+     * First hour of the day the rule covers, inclusive.
+     */
+    @Column
+    @NotNull
+    private Integer startHour;
+
+    /**
+     * Last hour of the day the rule covers, exclusive.
+     */
+    @Column
+    @NotNull
+    private Integer endHour;
+
+    @Column
+    private Boolean member;
+
+    @Column
+    @NotNull
+    private BigDecimal price;
+
+    @Column
+    @NotNull
+    private Integer priority;
+}
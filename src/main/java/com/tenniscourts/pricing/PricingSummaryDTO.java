@@ -0,0 +1,23 @@
+package com.tenniscourts.pricing;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class PricingSummaryDTO {
+
+    private final int rules;
+
+    private final int refundTiers;
+
+    private final int pricedCourts;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private final LocalDateTime compiledAt;
+}
@@ -0,0 +1,13 @@
+package com.tenniscourts.pricing;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Quotes refunds against one fixed set of refund tiers and one cancellation time. Safe to share between threads.
+ */
+@FunctionalInterface
+public interface RefundQuoter {
+
+    BigDecimal quote(BigDecimal paid, LocalDateTime startDateTime);
+}
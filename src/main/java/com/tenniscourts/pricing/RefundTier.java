@@ -0,0 +1,37 @@
+package com.tenniscourts.pricing;
+
+import com.tenniscourts.config.persistence.BaseEntity;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+/**
+ * The share of the paid value refunded when a reservation is cancelled at least the given minutes before it starts.
+ */
+@Entity
+@Table
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class RefundTier extends BaseEntity<Long> {
+
+    @Column
+    @NotNull
+    private Long minMinutesBefore;
+
+    @Column(precision = 5, scale = 4)
+    @NotNull
+    private BigDecimal refundRate;
+}
@@ -0,0 +1,39 @@
+package com.tenniscourts.reports;
+
+import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@AllArgsConstructor
+@RestController
+public class ReportController {
+
+    private final ReportRollupService reportRollupService;
+
+    @ApiOperation(value = "Revenue, refunds, cancellation rate and utilization of the slots between two dates, grouped by court, day and/or hour")
+    @GetMapping("/reports")
+    public ResponseEntity<List<ReportRowDTO>> report(@RequestParam(value = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                     @RequestParam(value = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                     @RequestParam(value = "groupBy", required = false) Set<ReportDimension> groupBy) {
+        Set<ReportDimension> dimensions = groupBy == null || groupBy.isEmpty() ? Collections.emptySet() : EnumSet.copyOf(groupBy);
+        return ResponseEntity.ok(reportRollupService.report(startDate, endDate, dimensions));
+    }
+
+    @ApiOperation(value = "Rebuild the report rollup from the reservation and schedule tables")
+    @PostMapping("/admin/reports/rebuild")
+    public ResponseEntity<Void> rebuild() {
+        reportRollupService.rebuild();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,20 @@
+package com.tenniscourts.reports;
+
+/**
+ * Dimensions a report can be grouped by, with the rollup column of each.
+ */
+public enum ReportDimension {
+    COURT("tennis_court_id"),
+    DAY("slot_date"),
+    HOUR("slot_hour");
+
+    private final String column;
+
+    ReportDimension(String column) {
+        this.column = column;
+    }
+
+    String getColumn() {
+        return column;
+    }
+}
@@ -0,0 +1,54 @@
+package com.tenniscourts.reports;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import java.math.BigDecimal;
+
+/**
+ * Reservation totals of one court and hour, derived from the schedule and reservation tables by {@link ReportRollupService}.
+ * Rows are only written with SQL; the mapping exists so the table is part of the schema.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_report_rollup_slot_date", columnList = "slotDate"))
+@Getter
+@NoArgsConstructor
+public class ReportRollup {
+
+    @EmbeddedId
+    private ReportRollupKey id;
+
+    @Column
+    @NotNull
+    private Long slots;
+
+    @Column
+    @NotNull
+    private Long reservations;
+
+    @Column
+    @NotNull
+    private Long booked;
+
+    @Column
+    @NotNull
+    private Long cancellations;
+
+    @Column
+    @NotNull
+    private Long reschedules;
+
+    @Column(precision = 19, scale = 2)
+    @NotNull
+    private BigDecimal revenue;
+
+    @Column(precision = 19, scale = 2)
+    @NotNull
+    private BigDecimal refunds;
+}
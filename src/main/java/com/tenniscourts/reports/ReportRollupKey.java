@@ -0,0 +1,28 @@
+package com.tenniscourts.reports;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ReportRollupKey implements Serializable {
+
+    @Column
+    private Long tennisCourtId;
+
+    @Column
+    private LocalDate slotDate;
+
+    @Column
+    private Integer slotHour;
+}
@@ -0,0 +1,155 @@
+package com.tenniscourts.reports;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.outbox.OutboxEventDTO;
+import com.tenniscourts.outbox.OutboxSubscriber;
+import com.tenniscourts.reservations.ReservationStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the report rollup in step with the schedule and reservation tables, and answers reports from it.
+ * <p>
+ * Every committed schedule or reservation change reaches this service through the outbox, and the rollup row of the
+ * changed court and hour is recomputed from the base tables, hot and archived alike. Recomputing instead of applying deltas keeps redelivered
+ * events harmless. Reports therefore lag commits by the outbox delay, and only aggregate the small rollup table.
+ */
+@Slf4j
+@Service
+public class ReportRollupService implements OutboxSubscriber {
+
+    /**
+     * Holds are neither bookings nor revenue until they are confirmed, so they are left out of every aggregate.
+     */
+    private static final String NOT_HOLD = "reservation_status not in (" + ReservationStatus.HELD.ordinal() + ", " + ReservationStatus.EXPIRED.ordinal()
+            + ", " + ReservationStatus.RELEASED.ordinal() + ")";
+
+    private static final String AGGREGATES = "count(distinct s.id), count(r.id),"
+            + " coalesce(sum(case when r.reservation_status in (?, ?, ?) then 1 else 0 end), 0),"
+            + " coalesce(sum(case when r.reservation_status = ? then 1 else 0 end), 0),"
+            + " coalesce(sum(case when r.reservation_status = ? then 1 else 0 end), 0),"
+            + " coalesce(sum(r.value), 0), coalesce(sum(r.refund_value), 0)"
+            + " from (select id, tennis_court_id, start_date_time from schedule"
+            + " union all select id, tennis_court_id, start_date_time from schedule_archive) s"
+            + " left join (select id, schedule_id, reservation_status, value, refund_value from reservation where " + NOT_HOLD
+            + " union all select id, schedule_id, reservation_status, value, refund_value from reservation_archive where " + NOT_HOLD + ") r"
+            + " on r.schedule_id = s.id";
+
+    private static final String INSERT = "insert into report_rollup (tennis_court_id, slot_date, slot_hour,"
+            + " slots, reservations, booked, cancellations, reschedules, revenue, refunds) ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    public ReportRollupService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onEvent(OutboxEventDTO event) {
+        JsonNode schedule;
+        try {
+            JsonNode payload = objectMapper.readTree(event.getPayload());
+            schedule = payload.has("schedule") ? payload.get("schedule") : payload;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (schedule.path("tennisCourt").path("id").isNumber() && schedule.path("startDateTime").isTextual()) {
+            refresh(schedule.get("tennisCourt").get("id").asLong(), LocalDateTime.parse(schedule.get("startDateTime").asText()));
+        }
+    }
+
+    /**
+     * Recomputes the rollup row of the hour that contains the given time.
+     */
+    @Transactional
+    public void refresh(Long tennisCourtId, LocalDateTime dateTime) {
+        LocalDateTime hour = dateTime.truncatedTo(ChronoUnit.HOURS);
+        jdbcTemplate.update("delete from report_rollup where tennis_court_id = ? and slot_date = ? and slot_hour = ?",
+                tennisCourtId, Date.valueOf(hour.toLocalDate()), hour.getHour());
+        jdbcTemplate.update(INSERT + "select ?, ?, ?, " + AGGREGATES
+                        + " where s.tennis_court_id = ? and s.start_date_time >= ? and s.start_date_time < ? having count(s.id) > 0",
+                tennisCourtId, Date.valueOf(hour.toLocalDate()), hour.getHour(),
+                ReservationStatus.READY_TO_PLAY.ordinal(), ReservationStatus.COMPLETED.ordinal(), ReservationStatus.NO_SHOW.ordinal(),
+                ReservationStatus.CANCELLED.ordinal(), ReservationStatus.RESCHEDULED.ordinal(),
+                tennisCourtId, Timestamp.valueOf(hour), Timestamp.valueOf(hour.plusHours(1)));
+    }
+
+    /**
+     * Recomputes the whole rollup from the base tables.
+     */
+    @Transactional
+    public void rebuild() {
+        jdbcTemplate.update("delete from report_rollup");
+        jdbcTemplate.update(INSERT + "select s.tennis_court_id, cast(s.start_date_time as date), hour(s.start_date_time), " + AGGREGATES
+                        + " group by s.tennis_court_id, cast(s.start_date_time as date), hour(s.start_date_time)",
+                ReservationStatus.READY_TO_PLAY.ordinal(), ReservationStatus.COMPLETED.ordinal(), ReservationStatus.NO_SHOW.ordinal(),
+                ReservationStatus.CANCELLED.ordinal(), ReservationStatus.RESCHEDULED.ordinal());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        Long rows = jdbcTemplate.queryForObject("select count(*) from report_rollup", Long.class);
+        if (rows != null && rows == 0) {
+            rebuild();
+            log.info("Built report rollup");
+        }
+    }
+
+    /**
+     * Aggregates the rollup rows of the slots between the two dates, inclusive, by the given dimensions.
+     */
+    public List<ReportRowDTO> report(LocalDate startDate, LocalDate endDate, Set<ReportDimension> dimensions) {
+        Set<ReportDimension> groupBy = new LinkedHashSet<>();
+        for (ReportDimension dimension : ReportDimension.values()) {
+            if (dimensions.contains(dimension)) {
+                groupBy.add(dimension);
+            }
+        }
+        String columns = groupBy.stream().map(ReportDimension::getColumn).collect(Collectors.joining(", "));
+        String sql = "select " + (groupBy.isEmpty() ? "" : columns + ", ")
+                + "sum(slots) slots, sum(reservations) reservations, sum(booked) booked, sum(cancellations) cancellations,"
+                + " sum(reschedules) reschedules, sum(revenue) revenue, sum(refunds) refunds"
+                + " from report_rollup where slot_date between ? and ?"
+                + (groupBy.isEmpty() ? "" : " group by " + columns + " order by " + columns);
+
+        return new ArrayList<>(jdbcTemplate.query(sql, (resultSet, rowNum) -> {
+            long slots = resultSet.getLong("slots");
+            long reservations = resultSet.getLong("reservations");
+            long booked = resultSet.getLong("booked");
+            long cancellations = resultSet.getLong("cancellations");
+            BigDecimal revenue = resultSet.getBigDecimal("revenue");
+            BigDecimal refunds = resultSet.getBigDecimal("refunds");
+            return new ReportRowDTO(
+                    groupBy.contains(ReportDimension.COURT) ? resultSet.getLong("tennis_court_id") : null,
+                    groupBy.contains(ReportDimension.DAY) ? resultSet.getDate("slot_date").toLocalDate() : null,
+                    groupBy.contains(ReportDimension.HOUR) ? resultSet.getInt("slot_hour") : null,
+                    slots, reservations, booked, cancellations, resultSet.getLong("reschedules"),
+                    revenue == null ? BigDecimal.ZERO : revenue,
+                    refunds == null ? BigDecimal.ZERO : refunds,
+                    reservations == 0 ? 0 : (double) cancellations / reservations,
+                    slots == 0 ? 0 : (double) booked / slots);
+        }, Date.valueOf(startDate), Date.valueOf(endDate)));
+    }
+}
@@ -0,0 +1,40 @@
+package com.tenniscourts.reports;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class ReportRowDTO {
+
+    private final Long tennisCourtId;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private final LocalDate date;
+
+    private final Integer hour;
+
+    private final long slots;
+
+    private final long reservations;
+
+    private final long booked;
+
+    private final long cancellations;
+
+    private final long reschedules;
+
+    private final BigDecimal revenue;
+
+    private final BigDecimal refunds;
+
+    private final double cancellationRate;
+
+    private final double utilization;
+}
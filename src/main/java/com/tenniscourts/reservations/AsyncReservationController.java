@@ -0,0 +1,74 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.admission.BookingAdmission;
+import com.tenniscourts.config.BaseRestController;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link ReservationController}, with the same booking semantics.
+ * Handlers release the servlet thread right away and finish on the async API executor.
+ */
+@RestController
+@RequestMapping("/async/reservations")
+public class AsyncReservationController extends BaseRestController {
+
+    private final ReservationService reservationService;
+
+    private final BookingEngine bookingEngine;
+
+    private final AsyncTaskExecutor asyncApiExecutor;
+
+    private final BookingAdmission bookingAdmission;
+
+    public AsyncReservationController(ReservationService reservationService, BookingEngine bookingEngine,
+                                      @Qualifier("asyncApiExecutor") AsyncTaskExecutor asyncApiExecutor,
+                                      BookingAdmission bookingAdmission) {
+        this.reservationService = reservationService;
+        this.bookingEngine = bookingEngine;
+        this.asyncApiExecutor = asyncApiExecutor;
+        this.bookingAdmission = bookingAdmission;
+    }
+
+    @ApiOperation(value = "Book a reservation")
+    @PostMapping
+    public CompletableFuture<ResponseEntity<Void>> bookReservation(@RequestBody CreateReservationRequestDTO createReservationRequestDTO, HttpServletRequest request) {
+        UriComponentsBuilder location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}");
+        BookingAdmission.Permit permit = bookingAdmission.admit(request, createReservationRequestDTO.getGuestId());
+
+        try {
+            return CompletableFuture.supplyAsync(() -> bookingEngine.bookReservation(createReservationRequestDTO), asyncApiExecutor)
+                    .whenComplete((reservation, ex) -> permit.close())
+                    .thenApply(reservation -> ResponseEntity.created(location.buildAndExpand(reservation.getId()).toUri()).build());
+        } catch (RuntimeException ex) {
+            permit.close();
+            throw ex;
+        }
+    }
+
+    @ApiOperation(value = "Find a reservation by id")
+    @GetMapping(value = "/{id}")
+    public CompletableFuture<ResponseEntity<ReservationDTO>> findReservation(@PathVariable Long id) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.ok(reservationService.findReservation(id)), asyncApiExecutor);
+    }
+
+    @ApiOperation(value = "Cancel a reservation by id")
+    @PutMapping(value = "/{id}/cancel")
+    public CompletableFuture<ResponseEntity<ReservationDTO>> cancelReservation(@PathVariable Long id) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.ok(bookingEngine.cancelReservation(id)), asyncApiExecutor);
+    }
+
+    @ApiOperation(value = "Reschedule a reservation by id")
+    @PutMapping(value = "/{id}")
+    public CompletableFuture<ResponseEntity<ReservationDTO>> rescheduleReservation(@PathVariable Long id, @RequestBody RescheduleReservationRequestDTO rescheduleReservationRequestDTO) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.ok(bookingEngine.rescheduleReservation(id, rescheduleReservationRequestDTO)), asyncApiExecutor);
+    }
+}
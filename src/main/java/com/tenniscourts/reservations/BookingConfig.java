@@ -0,0 +1,89 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.config.threading.ContextPropagatingTaskDecorator;
+import com.tenniscourts.config.threading.VirtualThreads;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+@Configuration
+public class BookingConfig {
+
+    private static final String STRATEGY = "tenniscourts.booking.strategy";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Inserts without a lock and relies on the unique active schedule constraint of {@link Reservation}. The sharded
+     * strategy needs no lock either, its loops already run the commands of a slot one at a time.
+     */
+    @Bean
+    @ConditionalOnExpression("'${" + STRATEGY + ":insert-first}' != 'pessimistic-lock'")
+    public ScheduleLock unlockedSchedules() {
+        return scheduleId -> {
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = STRATEGY, havingValue = "pessimistic-lock")
+    public ScheduleLock pessimisticScheduleLock(DataSource dataSource,
+                                                @Value("${tenniscourts.booking.lock-timeout-ms:500}") long lockTimeoutMillis) throws MetaDataAccessException {
+        String databaseProductName = (String) JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        Long sessionDefaultLockTimeoutMillis = "H2".equals(databaseProductName)
+                ? new JdbcTemplate(dataSource).queryForObject("CALL LOCK_TIMEOUT()", Long.class)
+                : null;
+        return new PessimisticScheduleLock(entityManager, lockTimeoutMillis, sessionDefaultLockTimeoutMillis);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = STRATEGY, havingValue = "sharded")
+    public ShardedBookingEngine shardedBookingEngine(ReservationService reservationService, ReservationRepository reservationRepository,
+                                                     PlatformTransactionManager transactionManager,
+                                                     @Value("${tenniscourts.booking.shards:0}") int shards,
+                                                     @Value("${tenniscourts.booking.queue-capacity:1024}") int queueCapacity,
+                                                     @Value("${tenniscourts.booking.max-batch:64}") int maxBatch,
+                                                     @Value("${tenniscourts.booking.command-timeout-ms:5000}") long commandTimeoutMillis) {
+        return new ShardedBookingEngine(reservationService, reservationRepository, transactionManager,
+                shards > 0 ? shards : Runtime.getRuntime().availableProcessors(), queueCapacity, maxBatch, commandTimeoutMillis);
+    }
+
+    /**
+     * Runs the lookups of {@link BookingLookups}. The pool and its queue are bounded, and a lookup that finds no room
+     * runs on the booking thread instead. Lookups see the logging context and request attributes of the booking.
+     */
+    @Bean
+    public AsyncTaskExecutor bookingLookupExecutor(@Value("${tenniscourts.threads.virtual.enabled:false}") boolean virtualThreads,
+                                                   @Value("${tenniscourts.booking.lookup-pool-size:8}") int poolSize,
+                                                   @Value("${tenniscourts.booking.lookup-queue-capacity:64}") int queueCapacity) {
+        if (virtualThreads) {
+            TaskExecutorAdapter executor = new TaskExecutorAdapter(VirtualThreads.newThreadPerTaskExecutor("booking-lookup-vt-"));
+            executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("booking-lookup-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        return executor;
+    }
+}
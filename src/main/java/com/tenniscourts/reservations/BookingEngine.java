@@ -0,0 +1,14 @@
+package com.tenniscourts.reservations;
+
+/**
+ * Runs the commands that change which reservation owns a slot. {@link ReservationService} runs them on the calling
+ * thread; {@link ShardedBookingEngine} routes them to the event loop of the court.
+ */
+public interface BookingEngine {
+
+    ReservationDTO bookReservation(CreateReservationRequestDTO createReservationRequestDTO);
+
+    ReservationDTO cancelReservation(Long reservationId);
+
+    ReservationDTO rescheduleReservation(Long previousReservationId, RescheduleReservationRequestDTO rescheduleReservationRequestDTO);
+}
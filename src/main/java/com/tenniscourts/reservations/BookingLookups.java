@@ -0,0 +1,111 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.exceptions.ServiceUnavailableException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs the reads of a booking that do not depend on each other at the same time, so the booking waits for the slowest
+ * of them instead of their sum.
+ * <p>
+ * A connection cannot be shared across threads, so every lookup runs in a read-only transaction of its own and sees
+ * committed rows only. That holds for guests and schedules, which exist before anyone books them. Lookups are started
+ * before the booking opens its transaction, so a lookup never waits for a connection while its booking holds one: with
+ * every connection taken by bookings waiting for their lookups, none would ever finish. A caller that already holds a
+ * transaction, such as a reschedule or a batch of the sharded engine, runs its lookups inline on that transaction
+ * instead.
+ */
+@Component
+class BookingLookups {
+
+    private final AsyncTaskExecutor bookingLookupExecutor;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final long timeoutMillis;
+
+    BookingLookups(@Qualifier("bookingLookupExecutor") AsyncTaskExecutor bookingLookupExecutor,
+                   PlatformTransactionManager transactionManager,
+                   @Value("${tenniscourts.booking.lookup-timeout-ms:2000}") long timeoutMillis) {
+        this.bookingLookupExecutor = bookingLookupExecutor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @return the time, in {@link System#nanoTime()} terms, by which the lookups started now must have finished
+     */
+    long deadline() {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    /**
+     * Starts a lookup. When the caller holds a transaction or the executor is full, the lookup runs right away on the
+     * caller, in the caller's transaction if there is one.
+     */
+    <T> Future<T> submit(Supplier<T> lookup) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return inline(lookup);
+        }
+        try {
+            return bookingLookupExecutor.submit(() -> readOnlyTransaction.execute(status -> lookup.get()));
+        } catch (TaskRejectedException e) {
+            return inline(lookup);
+        }
+    }
+
+    /**
+     * Waits for a lookup and rethrows what it threw, so a missing entity fails the booking as it would without the
+     * fan-out.
+     *
+     * @throws ServiceUnavailableException when the deadline passes first
+     */
+    <T> T await(Future<T> lookup, long deadline) {
+        try {
+            return lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new ServiceUnavailableException("Booking lookups did not finish within " + timeoutMillis + "ms, try again later");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the booking lookups", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Drops lookups the booking no longer needs. Running ones are not interrupted, an interrupt can close the
+     * connection under a JDBC call.
+     */
+    void cancel(Future<?>... lookups) {
+        for (Future<?> lookup : lookups) {
+            lookup.cancel(false);
+        }
+    }
+
+    private static <T> Future<T> inline(Supplier<T> lookup) {
+        FutureTask<T> inline = new FutureTask<>(lookup::get);
+        inline.run();
+        return inline;
+    }
+}
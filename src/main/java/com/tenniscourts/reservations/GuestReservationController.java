@@ -0,0 +1,32 @@
+package com.tenniscourts.reservations;
+
+import io.swagger.annotations.ApiOperation;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@AllArgsConstructor
+@RestController
+public class GuestReservationController {
+
+    private final ReservationService reservationService;
+
+    private final GuestReservationIndex guestReservationIndex;
+
+    @ApiOperation(value = "List the upcoming reservations of a guest")
+    @GetMapping(value = "/guests/{id}/reservations")
+    public ResponseEntity<List<ReservationDTO>> findUpcomingReservations(@PathVariable Long id) {
+        return ResponseEntity.ok(reservationService.findUpcomingReservations(id));
+    }
+
+    @ApiOperation(value = "Rebuild the guest reservation index from the database")
+    @PostMapping(value = "/admin/guest-reservation-index/rebuild")
+    public ResponseEntity<Long> rebuildIndex() {
+        return ResponseEntity.ok(guestReservationIndex.rebuild());
+    }
+}
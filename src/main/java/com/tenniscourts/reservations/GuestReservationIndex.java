@@ -0,0 +1,185 @@
+package com.tenniscourts.reservations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.config.persistence.EntityStreams;
+import com.tenniscourts.exceptions.LockConflictException;
+import com.tenniscourts.outbox.OutboxEventDTO;
+import com.tenniscourts.outbox.OutboxSubscriber;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Index from guest to the ids of their live reservations, held off-heap in an {@link OffHeapLongMultimap}.
+ * <p>
+ * The reservation changes of this node are applied once their transaction commits, so the guest sees them on the next
+ * read. Every node also follows the reservation events of the outbox, which carry the changes made on the other nodes,
+ * expired holds included, a poll interval after they commit. Both apply the same change, which is idempotent. Ids that
+ * stop being live any other way, such as elapsed reservations, stay until the next rebuild, so readers must check the
+ * reservations they load.
+ * <p>
+ * A rebuild reads the upcoming live reservations from the database into a new map without blocking writers: changes
+ * applied meanwhile are recorded and replayed onto the new map before it replaces the old one. Only one rebuild runs
+ * at a time, another one is refused with a {@link LockConflictException}.
+ */
+@Slf4j
+@Component
+public class GuestReservationIndex implements OutboxSubscriber {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private OffHeapLongMultimap index = new OffHeapLongMultimap(0);
+
+    private List<long[]> changesDuringRebuild;
+
+    public GuestReservationIndex(DataSource dataSource, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(Integer.parseInt(EntityStreams.FETCH_SIZE));
+        this.objectMapper = objectMapper;
+    }
+
+    public synchronized void add(long guestId, long reservationId) {
+        index.put(guestId, reservationId);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(new long[]{guestId, reservationId, 1});
+        }
+    }
+
+    public synchronized void remove(long guestId, long reservationId) {
+        index.remove(guestId, reservationId);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(new long[]{guestId, reservationId, 0});
+        }
+    }
+
+    /**
+     * Adds the reservation when the current transaction commits, or right away outside a transaction.
+     */
+    public void addAfterCommit(long guestId, long reservationId) {
+        afterCommit(() -> add(guestId, reservationId));
+    }
+
+    /**
+     * Removes the reservation when the current transaction commits, or right away outside a transaction.
+     */
+    public void removeAfterCommit(long guestId, long reservationId) {
+        afterCommit(() -> remove(guestId, reservationId));
+    }
+
+    @Override
+    public void onEvent(OutboxEventDTO event) {
+        if (!ReservationService.AGGREGATE_TYPE.equals(event.getAggregateType())) {
+            return;
+        }
+        boolean live = ReservationEventType.RESERVATION_BOOKED.name().equals(event.getEventType())
+                || ReservationEventType.RESERVATION_HELD.name().equals(event.getEventType());
+        boolean ended = ReservationEventType.RESERVATION_CANCELLED.name().equals(event.getEventType())
+                || ReservationEventType.RESERVATION_RESCHEDULED.name().equals(event.getEventType())
+                || ReservationEventType.RESERVATION_EXPIRED.name().equals(event.getEventType())
+                || ReservationEventType.RESERVATION_RELEASED.name().equals(event.getEventType())
+                || ReservationEventType.RESERVATION_COMPLETED.name().equals(event.getEventType())
+                || ReservationEventType.RESERVATION_NO_SHOW.name().equals(event.getEventType());
+        if (!live && !ended) {
+            return;
+        }
+
+        ReservationDTO reservation;
+        try {
+            reservation = objectMapper.readValue(event.getPayload(), ReservationDTO.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (live) {
+            add(reservation.getGuest().getId(), reservation.getId());
+        } else {
+            remove(reservation.getGuest().getId(), reservation.getId());
+        }
+    }
+
+    public synchronized long[] findReservationIds(long guestId) {
+        return index.get(guestId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${tenniscourts.guest-index.rebuild-cron:0 0 4 * * *}")
+    public void rebuildNow() {
+        try {
+            rebuild();
+        } catch (LockConflictException e) {
+            log.info("Skipped the scheduled rebuild of the guest reservation index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the index with the upcoming live reservations in the database.
+     *
+     * @return the number of reservations indexed
+     * @throws LockConflictException when another rebuild is running
+     */
+    public long rebuild() {
+        synchronized (this) {
+            if (changesDuringRebuild != null) {
+                throw new LockConflictException("The guest reservation index is already being rebuilt");
+            }
+            changesDuringRebuild = new ArrayList<>();
+        }
+
+        OffHeapLongMultimap rebuilt = new OffHeapLongMultimap(1024);
+        try {
+            jdbcTemplate.query("select r.guest_id, r.id from reservation r"
+                            + " join schedule s on s.id = r.schedule_id"
+                            + " where r.reservation_status in (?, ?) and s.start_date_time >= ?",
+                    resultSet -> {
+                        rebuilt.put(resultSet.getLong(1), resultSet.getLong(2));
+                    },
+                    ReservationStatus.READY_TO_PLAY.ordinal(), ReservationStatus.HELD.ordinal(), Timestamp.valueOf(LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changesDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            for (long[] change : changesDuringRebuild) {
+                if (change[2] == 1) {
+                    rebuilt.put(change[0], change[1]);
+                } else {
+                    rebuilt.remove(change[0], change[1]);
+                }
+            }
+            changesDuringRebuild = null;
+            index = rebuilt;
+            log.info("Indexed {} reservations of {} guests in {} off-heap bytes", rebuilt.valueCount(), rebuilt.keyCount(), rebuilt.offHeapBytes());
+            return rebuilt.valueCount();
+        }
+    }
+
+    private static void afterCommit(Runnable change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
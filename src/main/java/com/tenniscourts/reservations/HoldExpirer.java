@@ -0,0 +1,149 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.config.threading.HierarchicalTimingWheel;
+import com.tenniscourts.outbox.OutboxPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expires {@link ReservationStatus#HELD} reservations when their TTL runs out.
+ * <p>
+ * Deadlines are kept in a {@link HierarchicalTimingWheel}, so placing a hold costs the same with one or with millions
+ * pending. The wheel is only an index: the deadline itself is the reservation's {@code holdExpiresAt} column, and the
+ * wheel is refilled from it at startup, so holds survive a restart. A hold that is confirmed or released before its
+ * deadline is simply skipped when it fires. A booking that finds a due hold on its slot before the wheel does expires
+ * it the same way, so every expiry writes a {@code RESERVATION_EXPIRED} event.
+ * <p>
+ * An expiry is a conditional update of a row that is still held, so a confirmation or release that commits between
+ * reading the hold and expiring it wins, and the expiry is dropped.
+ */
+@Slf4j
+@Component
+public class HoldExpirer {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final ReservationRepository reservationRepository;
+
+    private final ReservationMapper reservationMapper;
+
+    private final OutboxPublisher outboxPublisher;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Duration ttl;
+
+    private final HierarchicalTimingWheel<Long> wheel;
+
+    public HoldExpirer(ReservationRepository reservationRepository, ReservationMapper reservationMapper, OutboxPublisher outboxPublisher,
+                       JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                       @Value("${tenniscourts.holds.ttl-seconds:300}") long ttlSeconds,
+                       @Value("${tenniscourts.holds.tick-ms:100}") long tickMillis,
+                       @Value("${tenniscourts.holds.wheel-size:512}") int wheelSize) {
+        this.reservationRepository = reservationRepository;
+        this.reservationMapper = reservationMapper;
+        this.outboxPublisher = outboxPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+    }
+
+    public LocalDateTime deadlineFrom(LocalDateTime now) {
+        return now.plus(ttl);
+    }
+
+    public void schedule(Long reservationId, LocalDateTime holdExpiresAt) {
+        wheel.schedule(reservationId, toEpochMillis(holdExpiresAt));
+    }
+
+    public int getPending() {
+        return wheel.size();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        int[] holds = {0};
+        jdbcTemplate.query("select id, hold_expires_at from reservation where reservation_status = ?", resultSet -> {
+            schedule(resultSet.getLong("id"), resultSet.getTimestamp("hold_expires_at").toLocalDateTime());
+            holds[0]++;
+        }, ReservationStatus.HELD.ordinal());
+        if (holds[0] > 0) {
+            log.info("Scheduled expiry of {} pending holds", holds[0]);
+        }
+    }
+
+    /**
+     * Expires the holds whose deadline has passed.
+     *
+     * @return the number of holds expired
+     */
+    @Scheduled(fixedDelayString = "${tenniscourts.holds.tick-ms:100}")
+    public int expire() {
+        List<Long> due = new ArrayList<>();
+        wheel.advance(System.currentTimeMillis(), due::add);
+
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += CHUNK_SIZE) {
+            List<Long> chunk = due.subList(from, Math.min(from + CHUNK_SIZE, due.size()));
+            Integer count = transactionTemplate.execute(status -> expire(chunk));
+            expired += count == null ? 0 : count;
+        }
+        return expired;
+    }
+
+    private int expire(List<Long> reservationIds) {
+        LocalDateTime now = LocalDateTime.now();
+        int expired = 0;
+        for (Reservation reservation : reservationRepository.findAllById(reservationIds)) {
+            if (!ReservationStatus.HELD.equals(reservation.getReservationStatus())) {
+                continue;
+            }
+            if (reservation.getHoldExpiresAt().isAfter(now)) {
+                // not due yet by this clock
+                schedule(reservation.getId(), reservation.getHoldExpiresAt());
+                continue;
+            }
+            if (expire(reservation)) {
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Expires a due hold in the caller's transaction and writes its event. The update runs right away, so the slot is
+     * free for an insert that follows in the same transaction.
+     *
+     * @param reservation the hold as it was read, it is not changed
+     * @return false when the hold was no longer held
+     */
+    public boolean expire(Reservation reservation) {
+        if (reservationRepository.endHeld(reservation.getId(), ReservationStatus.EXPIRED, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        ReservationDTO reservationDTO = reservationMapper.map(reservation);
+        reservationDTO.setReservationStatus(ReservationStatus.EXPIRED.name());
+        outboxPublisher.publish(ReservationService.AGGREGATE_TYPE, reservationDTO.getId(), ReservationEventType.RESERVATION_EXPIRED.name(), reservationDTO);
+        return true;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,280 @@
+package com.tenniscourts.reservations;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Maps long keys to small sets of long values, stored outside the heap in direct buffers and never boxed.
+ * <p>
+ * Keys live in an open addressing table of 24 byte slots: the key, then the offset, size and capacity of its block of
+ * values. Values live in one arena of longs. A block that fills up is moved to the end of the arena with twice the
+ * capacity; the space it leaves is reclaimed by compacting the arena when it runs out and half of it is garbage.
+ * A key whose last value is removed gives up its slot and its block. Value order is not kept. Not thread-safe.
+ */
+final class OffHeapLongMultimap {
+
+    private static final int SLOT_BYTES = 24;
+
+    private static final int OFFSET = 8;
+
+    private static final int SIZE = 12;
+
+    private static final int CAPACITY = 16;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private static final int FIRST_BLOCK = 2;
+
+    private ByteBuffer table;
+
+    private int slots;
+
+    private int keys;
+
+    private LongBuffer arena;
+
+    private int arenaUsed;
+
+    private int garbage;
+
+    private long values;
+
+    OffHeapLongMultimap(int expectedKeys) {
+        slots = Math.max(16, Integer.highestOneBit(Math.max(expectedKeys, 1) * 2) * 2);
+        table = newTable(slots);
+        arena = newArena(Math.max(64, expectedKeys * FIRST_BLOCK));
+    }
+
+    /**
+     * @return false when the value was already mapped to the key
+     */
+    boolean put(long key, long value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved");
+        }
+        int slot = find(key);
+        if (slot < 0) {
+            if ((keys + 1) * 2 > slots) {
+                resize(slots * 2);
+            }
+            slot = insert(key);
+        }
+
+        int offset = table.getInt(slot + OFFSET);
+        int size = table.getInt(slot + SIZE);
+        if (indexOf(offset, size, value) >= 0) {
+            return false;
+        }
+        if (size == table.getInt(slot + CAPACITY)) {
+            offset = grow(slot, Math.max(FIRST_BLOCK, size * 2));
+        }
+        arena.put(offset + size, value);
+        table.putInt(slot + SIZE, size + 1);
+        values++;
+        return true;
+    }
+
+    /**
+     * @return false when the value was not mapped to the key
+     */
+    boolean remove(long key, long value) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        int offset = table.getInt(slot + OFFSET);
+        int size = table.getInt(slot + SIZE);
+        int index = indexOf(offset, size, value);
+        if (index < 0) {
+            return false;
+        }
+        arena.put(offset + index, arena.get(offset + size - 1));
+        table.putInt(slot + SIZE, size - 1);
+        values--;
+        if (size == 1) {
+            delete(slot);
+        }
+        return true;
+    }
+
+    long[] get(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return new long[0];
+        }
+        long[] result = new long[table.getInt(slot + SIZE)];
+        int offset = table.getInt(slot + OFFSET);
+        for (int i = 0; i < result.length; i++) {
+            result[i] = arena.get(offset + i);
+        }
+        return result;
+    }
+
+    int keyCount() {
+        return keys;
+    }
+
+    long valueCount() {
+        return values;
+    }
+
+    long offHeapBytes() {
+        return (long) table.capacity() + (long) arena.capacity() * Long.BYTES;
+    }
+
+    private int find(long key) {
+        int mask = slots - 1;
+        for (int index = hash(key) & mask; ; index = (index + 1) & mask) {
+            long candidate = table.getLong(index * SLOT_BYTES);
+            if (candidate == key) {
+                return index * SLOT_BYTES;
+            }
+            if (candidate == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    private int insert(long key) {
+        int mask = slots - 1;
+        int index = hash(key) & mask;
+        while (table.getLong(index * SLOT_BYTES) != EMPTY) {
+            index = (index + 1) & mask;
+        }
+        int slot = index * SLOT_BYTES;
+        table.putLong(slot, key);
+        table.putInt(slot + OFFSET, 0);
+        table.putInt(slot + SIZE, 0);
+        table.putInt(slot + CAPACITY, 0);
+        keys++;
+        return slot;
+    }
+
+    /**
+     * Frees a slot, shifting back the slots further along its probe sequence so that no lookup stops short at it.
+     */
+    private void delete(int slot) {
+        garbage += table.getInt(slot + CAPACITY);
+        keys--;
+        int mask = slots - 1;
+        int hole = slot / SLOT_BYTES;
+        for (int index = (hole + 1) & mask; ; index = (index + 1) & mask) {
+            long key = table.getLong(index * SLOT_BYTES);
+            if (key == EMPTY) {
+                break;
+            }
+            int home = hash(key) & mask;
+            if (((index - home) & mask) >= ((index - hole) & mask)) {
+                table.putLong(hole * SLOT_BYTES, key);
+                table.putInt(hole * SLOT_BYTES + OFFSET, table.getInt(index * SLOT_BYTES + OFFSET));
+                table.putInt(hole * SLOT_BYTES + SIZE, table.getInt(index * SLOT_BYTES + SIZE));
+                table.putInt(hole * SLOT_BYTES + CAPACITY, table.getInt(index * SLOT_BYTES + CAPACITY));
+                hole = index;
+            }
+        }
+        table.putLong(hole * SLOT_BYTES, EMPTY);
+    }
+
+    private int indexOf(int offset, int size, long value) {
+        for (int i = 0; i < size; i++) {
+            if (arena.get(offset + i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the block of a slot to the end of the arena with the given capacity.
+     *
+     * @return the new offset of the block
+     */
+    private int grow(int slot, int capacity) {
+        if (arenaUsed + capacity > arena.capacity()) {
+            if (garbage * 2 > arenaUsed) {
+                compact();
+            }
+            if (arenaUsed + capacity > arena.capacity()) {
+                LongBuffer larger = newArena(Math.max(arena.capacity() * 2, arenaUsed + capacity));
+                for (int i = 0; i < arenaUsed; i++) {
+                    larger.put(i, arena.get(i));
+                }
+                arena = larger;
+            }
+        }
+
+        int offset = table.getInt(slot + OFFSET);
+        int size = table.getInt(slot + SIZE);
+        for (int i = 0; i < size; i++) {
+            arena.put(arenaUsed + i, arena.get(offset + i));
+        }
+        garbage += table.getInt(slot + CAPACITY);
+        table.putInt(slot + OFFSET, arenaUsed);
+        table.putInt(slot + CAPACITY, capacity);
+        arenaUsed += capacity;
+        return arenaUsed - capacity;
+    }
+
+    /**
+     * Rewrites every block back to back into a new arena, keeping its capacity.
+     */
+    private void compact() {
+        LongBuffer compacted = newArena(arena.capacity());
+        int used = 0;
+        for (int slot = 0; slot < slots * SLOT_BYTES; slot += SLOT_BYTES) {
+            if (table.getLong(slot) == EMPTY) {
+                continue;
+            }
+            int offset = table.getInt(slot + OFFSET);
+            int size = table.getInt(slot + SIZE);
+            for (int i = 0; i < size; i++) {
+                compacted.put(used + i, arena.get(offset + i));
+            }
+            table.putInt(slot + OFFSET, used);
+            used += table.getInt(slot + CAPACITY);
+        }
+        arena = compacted;
+        arenaUsed = used;
+        garbage = 0;
+    }
+
+    private void resize(int newSlots) {
+        ByteBuffer old = table;
+        int oldSlots = slots;
+        table = newTable(newSlots);
+        slots = newSlots;
+        int mask = newSlots - 1;
+        for (int slot = 0; slot < oldSlots * SLOT_BYTES; slot += SLOT_BYTES) {
+            long key = old.getLong(slot);
+            if (key == EMPTY) {
+                continue;
+            }
+            int index = hash(key) & mask;
+            while (table.getLong(index * SLOT_BYTES) != EMPTY) {
+                index = (index + 1) & mask;
+            }
+            table.putLong(index * SLOT_BYTES, key);
+            table.putInt(index * SLOT_BYTES + OFFSET, old.getInt(slot + OFFSET));
+            table.putInt(index * SLOT_BYTES + SIZE, old.getInt(slot + SIZE));
+            table.putInt(index * SLOT_BYTES + CAPACITY, old.getInt(slot + CAPACITY));
+        }
+    }
+
+    private static ByteBuffer newTable(int slots) {
+        ByteBuffer table = ByteBuffer.allocateDirect(slots * SLOT_BYTES).order(ByteOrder.nativeOrder());
+        for (int slot = 0; slot < slots * SLOT_BYTES; slot += SLOT_BYTES) {
+            table.putLong(slot, EMPTY);
+        }
+        return table;
+    }
+
+    private static LongBuffer newArena(int capacity) {
+        return ByteBuffer.allocateDirect(capacity * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private static int hash(long key) {
+        int hash = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,78 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.exceptions.EntityNotFoundException;
+import com.tenniscourts.exceptions.LockConflictException;
+import com.tenniscourts.schedules.Schedule;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.LockTimeoutException;
+import javax.persistence.PessimisticLockException;
+import java.util.Collections;
+
+/**
+ * Locks the schedule row with SELECT ... FOR UPDATE, so bookings of one slot are serialized across every node that
+ * shares the database. A booking that cannot get the lock within the timeout fails fast with a 409 instead of queueing.
+ */
+@Slf4j
+public class PessimisticScheduleLock implements ScheduleLock {
+
+    private static final String LOCK_TIMEOUT_HINT = "javax.persistence.lock.timeout";
+
+    private final EntityManager entityManager;
+
+    private final long lockTimeoutMillis;
+
+    private final Long sessionDefaultLockTimeoutMillis;
+
+    /**
+     * @param sessionDefaultLockTimeoutMillis the lock timeout sessions start with, when the database ignores the JPA
+     *                                        lock timeout hint and the timeout has to be set on the session instead, as
+     *                                        H2 does; null when the hint is honoured
+     */
+    public PessimisticScheduleLock(EntityManager entityManager, long lockTimeoutMillis, Long sessionDefaultLockTimeoutMillis) {
+        this.entityManager = entityManager;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.sessionDefaultLockTimeoutMillis = sessionDefaultLockTimeoutMillis;
+    }
+
+    /**
+     * The session setting outlives the transaction on a pooled connection, so it is put back after the lock is taken
+     * and later users of the connection keep the default.
+     */
+    @Override
+    public void lock(Long scheduleId) {
+        if (sessionDefaultLockTimeoutMillis == null) {
+            lockRow(scheduleId);
+            return;
+        }
+        setSessionLockTimeout(lockTimeoutMillis);
+        try {
+            lockRow(scheduleId);
+        } finally {
+            try {
+                setSessionLockTimeout(sessionDefaultLockTimeoutMillis);
+            } catch (RuntimeException e) {
+                // a connection broken by the timeout is evicted by the pool, so there is no session left to restore
+                log.debug("Could not restore the lock timeout of the session", e);
+            }
+        }
+    }
+
+    private void setSessionLockTimeout(long millis) {
+        entityManager.createNativeQuery("SET LOCK_TIMEOUT " + millis).executeUpdate();
+    }
+
+    private void lockRow(Long scheduleId) {
+        try {
+            Schedule schedule = entityManager.find(Schedule.class, scheduleId, LockModeType.PESSIMISTIC_WRITE,
+                    Collections.singletonMap(LOCK_TIMEOUT_HINT, lockTimeoutMillis));
+            if (schedule == null) {
+                throw new EntityNotFoundException("Schedule not found.");
+            }
+        } catch (PessimisticLockException | LockTimeoutException e) {
+            throw new LockConflictException("The schedule " + scheduleId + " is being booked by another request, try again.");
+        }
+    }
+}
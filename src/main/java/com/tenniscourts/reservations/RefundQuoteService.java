@@ -0,0 +1,96 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.config.persistence.EntityStreams;
+import com.tenniscourts.pricing.PricingEngine;
+import com.tenniscourts.pricing.RefundQuoter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Previews the refunds of many reservations at once, without cancelling any of them.
+ * <p>
+ * Matching reservations are read in chunks by id, each quoted as its rows are mapped, so no connection is held while
+ * the consumer writes a chunk. Every quote uses the same cancellation time and the same refund tiers, so a reload
+ * during the stream cannot mix two policies. Each chunk is a read of its own, not one snapshot of the whole range: a
+ * reservation whose status changes while the stream runs is quoted by the state its chunk saw. Archived reservations
+ * have all started and are not quoted.
+ */
+@Service
+public class RefundQuoteService {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final PricingEngine pricingEngine;
+
+    private final int chunkSize;
+
+    public RefundQuoteService(DataSource dataSource, PricingEngine pricingEngine,
+                              @Value("${tenniscourts.refund-quotes.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.jdbcTemplate.getJdbcTemplate().setFetchSize(Integer.parseInt(EntityStreams.FETCH_SIZE));
+        this.pricingEngine = pricingEngine;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param tennisCourtId     the court, or null for every court
+     * @param startDateTime     the earliest slot start, inclusive
+     * @param endDateTime       the end of the slot starts, exclusive
+     * @param reservationStatus the status of the quoted reservations
+     * @param quotedAt          the cancellation time every quote assumes
+     * @param consumer          receives the quotes in reservation id order
+     */
+    public void streamRefundQuotes(Long tennisCourtId, LocalDateTime startDateTime, LocalDateTime endDateTime,
+                                   ReservationStatus reservationStatus, LocalDateTime quotedAt, Consumer<RefundQuoteDTO> consumer) {
+        RefundQuoter refundQuoter = pricingEngine.refundQuoter(quotedAt);
+        String sql = "select r.id, r.guest_id, s.tennis_court_id, s.start_date_time, r.value"
+                + " from reservation r"
+                + " join schedule s on s.id = r.schedule_id"
+                + " where r.id > :afterId and r.reservation_status = :status"
+                + " and s.start_date_time >= :startDateTime and s.start_date_time < :endDateTime"
+                + (tennisCourtId == null ? "" : " and s.tennis_court_id = :tennisCourtId")
+                + " order by r.id limit :limit";
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("status", reservationStatus.ordinal())
+                .addValue("startDateTime", Timestamp.valueOf(startDateTime))
+                .addValue("endDateTime", Timestamp.valueOf(endDateTime))
+                .addValue("tennisCourtId", tennisCourtId)
+                .addValue("limit", chunkSize);
+
+        long afterId = 0L;
+        while (true) {
+            parameters.addValue("afterId", afterId);
+            List<RefundQuoteDTO> chunk = jdbcTemplate.query(sql, parameters, (resultSet, rowNum) -> map(resultSet, reservationStatus, refundQuoter));
+            chunk.forEach(consumer);
+            if (chunk.size() < chunkSize) {
+                return;
+            }
+            afterId = chunk.get(chunk.size() - 1).getReservationId();
+        }
+    }
+
+    private RefundQuoteDTO map(ResultSet resultSet, ReservationStatus reservationStatus, RefundQuoter refundQuoter) throws SQLException {
+        LocalDateTime startDateTime = resultSet.getTimestamp("start_date_time").toLocalDateTime();
+        BigDecimal value = resultSet.getBigDecimal("value");
+        return RefundQuoteDTO.builder()
+                .reservationId(resultSet.getLong("id"))
+                .guestId(resultSet.getLong("guest_id"))
+                .tennisCourtId(resultSet.getLong("tennis_court_id"))
+                .startDateTime(startDateTime)
+                .reservationStatus(reservationStatus.name())
+                .value(value)
+                .refundValue(refundQuoter.quote(value, startDateTime))
+                .build();
+    }
+}
@@ -0,0 +1,25 @@
+package com.tenniscourts.reservations;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Refund quotes for every matching reservation, all computed as if cancelled at {@code quotedAt}.
+ */
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundQuotesDTO {
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime quotedAt;
+
+    private List<RefundQuoteDTO> quotes;
+}
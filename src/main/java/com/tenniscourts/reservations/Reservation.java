@@ -10,16 +10,23 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToOne;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 
 @Entity
-@Table
+@Table(indexes = @Index(name = "idx_reservation_status_schedule", columnList = "reservationStatus, schedule_id"),
+        uniqueConstraints = @UniqueConstraint(name = Reservation.ACTIVE_SCHEDULE_CONSTRAINT, columnNames = "activeScheduleId"))
 @Getter
 @Setter
 @AllArgsConstructor
@@ -28,6 +35,8 @@ import java.math.BigDecimal;
 @Builder
 public class Reservation extends BaseEntity<Long> {
 
+    public static final String ACTIVE_SCHEDULE_CONSTRAINT = "uk_reservation_active_schedule";
+
     @OneToOne
     @NotNull
     private Guest guest;
@@ -43,4 +52,24 @@ public class Reservation extends BaseEntity<Long> {
     private ReservationStatus reservationStatus = ReservationStatus.READY_TO_PLAY;
 
     private BigDecimal refundValue;
+
+    @Column
+    private LocalDateTime checkedInAt;
+
+    @Column
+    private LocalDateTime holdExpiresAt;
+
+    /**
+     * The schedule id while the reservation is {@link ReservationStatus#READY_TO_PLAY} or {@link ReservationStatus#HELD}, null otherwise. Its unique
+     * constraint lets the database reject a second live reservation of a schedule.
+     */
+    @Column
+    private Long activeScheduleId;
+
+    @PrePersist
+    @PreUpdate
+    void updateActiveScheduleId() {
+        boolean live = ReservationStatus.READY_TO_PLAY.equals(reservationStatus) || ReservationStatus.HELD.equals(reservationStatus);
+        activeScheduleId = live && schedule != null ? schedule.getId() : null;
+    }
 }
@@ -1,12 +1,21 @@
 package com.tenniscourts.reservations;
 
+import com.tenniscourts.admission.BookingAdmission;
 import com.tenniscourts.config.BaseRestController;
+import com.tenniscourts.config.web.ResponseStreams;
 import io.swagger.annotations.ApiOperation;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 @AllArgsConstructor
 @RestController
@@ -15,10 +24,48 @@ public class ReservationController extends BaseRestController {
 
     private final ReservationService reservationService;
 
+    private final ResponseStreams responseStreams;
+
+    private final BookingAdmission bookingAdmission;
+
+    private final RefundQuoteService refundQuoteService;
+
+    private final BookingEngine bookingEngine;
+
     @ApiOperation(value = "Book a reservation")
     @PostMapping
-    public ResponseEntity<Void> bookReservation(@RequestBody CreateReservationRequestDTO createReservationRequestDTO) {
-        return ResponseEntity.created(locationByEntity(reservationService.bookReservation(createReservationRequestDTO).getId())).build();
+    public ResponseEntity<Void> bookReservation(@RequestBody CreateReservationRequestDTO createReservationRequestDTO, HttpServletRequest request) {
+        BookingAdmission.Permit permit = bookingAdmission.admit(request, createReservationRequestDTO.getGuestId());
+        try {
+            return ResponseEntity.created(locationByEntity(bookingEngine.bookReservation(createReservationRequestDTO).getId())).build();
+        } finally {
+            permit.close();
+        }
+    }
+
+    @ApiOperation(value = "Hold a slot for a guest until the hold expires or is confirmed")
+    @PostMapping(value = "/holds")
+    public ResponseEntity<ReservationDTO> holdReservation(@RequestBody CreateReservationRequestDTO createReservationRequestDTO, HttpServletRequest request) {
+        BookingAdmission.Permit permit = bookingAdmission.admit(request, createReservationRequestDTO.getGuestId());
+        try {
+            ReservationDTO reservationDTO = reservationService.holdReservation(createReservationRequestDTO);
+            return ResponseEntity.created(ServletUriComponentsBuilder.fromCurrentContextPath()
+                    .path("/reservations/{id}").buildAndExpand(reservationDTO.getId()).toUri()).body(reservationDTO);
+        } finally {
+            permit.close();
+        }
+    }
+
+    @ApiOperation(value = "Confirm a held reservation by id")
+    @PutMapping(value = "/{id}/confirm")
+    public ResponseEntity<ReservationDTO> confirmHold(@PathVariable Long id) {
+        return ResponseEntity.ok(reservationService.confirmHold(id));
+    }
+
+    @ApiOperation(value = "Release a held reservation by id")
+    @DeleteMapping(value = "/{id}/hold")
+    public ResponseEntity<ReservationDTO> releaseHold(@PathVariable Long id) {
+        return ResponseEntity.ok(reservationService.releaseHold(id));
     }
 
     @ApiOperation(value = "Find a reservation by id")
@@ -30,19 +77,39 @@ public class ReservationController extends BaseRestController {
     @ApiOperation(value = "Cancel a reservation by id")
     @PutMapping(value = "/{id}/cancel")
     public ResponseEntity<ReservationDTO> cancelReservation(@PathVariable Long id) {
-        return ResponseEntity.ok(reservationService.cancelReservation(id));
+        return ResponseEntity.ok(bookingEngine.cancelReservation(id));
+    }
+
+    @ApiOperation(value = "Check in to a reservation by id")
+    @PutMapping(value = "/{id}/check-in")
+    public ResponseEntity<ReservationDTO> checkInReservation(@PathVariable Long id) {
+        return ResponseEntity.ok(reservationService.checkInReservation(id));
     }
 
     @ApiOperation(value = "Reschedule a reservation by id")
     @PutMapping(value = "/{id}")
     public ResponseEntity<ReservationDTO> rescheduleReservation(@PathVariable Long id, @RequestBody RescheduleReservationRequestDTO rescheduleReservationRequestDTO) {
-        return ResponseEntity.ok(reservationService.rescheduleReservation(id, rescheduleReservationRequestDTO));
+        return ResponseEntity.ok(bookingEngine.rescheduleReservation(id, rescheduleReservationRequestDTO));
+    }
+
+    @ApiOperation(value = "Preview the refunds of the matching reservations without cancelling them", response = RefundQuotesDTO.class)
+    @GetMapping(value = "/refund-quotes")
+    public ResponseEntity<StreamingResponseBody> quoteRefunds(@RequestParam(value = "tennisCourtId", required = false) Long tennisCourtId,
+                                                              @RequestParam(value = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                              @RequestParam(value = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                                              @RequestParam(value = "status", defaultValue = "READY_TO_PLAY") ReservationStatus status) throws HttpMediaTypeNotAcceptableException {
+        LocalDateTime startDateTime = LocalDateTime.of(startDate, LocalTime.of(0, 0));
+        LocalDateTime endDateTime = endDate.plusDays(1).atStartOfDay();
+        LocalDateTime quotedAt = LocalDateTime.now();
+
+        return responseStreams.<RefundQuoteDTO>objectWithArrayResponse(new RefundQuotesDTO(quotedAt, null), "quotes",
+                consumer -> refundQuoteService.streamRefundQuotes(tennisCourtId, startDateTime, endDateTime, status, quotedAt, consumer));
     }
 
-    @ApiOperation(value = "List all past reservations")
+    @ApiOperation(value = "List all past reservations", response = ReservationDTO.class, responseContainer = "List")
     @GetMapping(value = "/history")
-    public ResponseEntity<List<ReservationDTO>> showPastReservations() {
-        return ResponseEntity.ok(reservationService.showPastReservations());
+    public ResponseEntity<StreamingResponseBody> showPastReservations() throws HttpMediaTypeNotAcceptableException {
+        return responseStreams.<ReservationDTO>arrayResponse(reservationService::streamPastReservations);
     }
 
 }
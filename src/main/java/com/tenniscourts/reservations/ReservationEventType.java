@@ -0,0 +1,17 @@
+package com.tenniscourts.reservations;
+
+/**
+ * Types of the reservation events written to the outbox.
+ */
+public enum ReservationEventType {
+    RESERVATION_BOOKED,
+    RESERVATION_CANCELLED,
+    RESERVATION_RESCHEDULED,
+    RESERVATION_CHECKED_IN,
+    RESERVATION_HELD,
+    RESERVATION_CONFIRMED,
+    RESERVATION_EXPIRED,
+    RESERVATION_RELEASED,
+    RESERVATION_COMPLETED,
+    RESERVATION_NO_SHOW
+}
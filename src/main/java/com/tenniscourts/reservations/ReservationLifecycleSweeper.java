@@ -0,0 +1,137 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.outbox.OutboxPublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Closes reservations whose slot has elapsed: checked in ones become {@link ReservationStatus#COMPLETED}, the others
+ * {@link ReservationStatus#NO_SHOW}. Only live reservations are then left in {@link ReservationStatus#READY_TO_PLAY}.
+ * <p>
+ * Every chunk is a single UPDATE in its own transaction, which also writes a {@code RESERVATION_COMPLETED} or
+ * {@code RESERVATION_NO_SHOW} event for each closed reservation, so the outbox subscribers see the change. Slots cannot
+ * be booked in the past, so nothing new can appear behind a completed sweep, and the next sweep only looks at slots
+ * that ended after the previous cut-off. The cut-off is stored in {@code sweep_watermark}, so a restart does not start
+ * over from the oldest slot.
+ */
+@Slf4j
+@Component
+public class ReservationLifecycleSweeper {
+
+    static final String SWEEPER = "reservation-lifecycle";
+
+    private static final String CHUNK = "select r.id from reservation r join schedule s on s.id = r.schedule_id"
+            + " where r.reservation_status = :readyToPlay and s.end_date_time <= :endedBefore and s.end_date_time > :endedAfter"
+            + " order by r.id limit :chunkSize";
+
+    private static final String SWEEP = "update reservation set"
+            + " reservation_status = case when checked_in_at is null then :noShow else :completed end, active_schedule_id = null, date_update = :now"
+            + " where id in (:ids) and reservation_status = :readyToPlay";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final ReservationRepository reservationRepository;
+
+    private final SweepWatermarkRepository sweepWatermarkRepository;
+
+    private final ReservationMapper reservationMapper;
+
+    private final OutboxPublisher outboxPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final long graceMinutes;
+
+    private final int chunkSize;
+
+    private LocalDateTime highWaterMark;
+
+    public ReservationLifecycleSweeper(NamedParameterJdbcTemplate jdbcTemplate, ReservationRepository reservationRepository,
+                                       SweepWatermarkRepository sweepWatermarkRepository, ReservationMapper reservationMapper,
+                                       OutboxPublisher outboxPublisher, PlatformTransactionManager transactionManager,
+                                       @Value("${tenniscourts.lifecycle.grace-minutes:15}") long graceMinutes,
+                                       @Value("${tenniscourts.lifecycle.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reservationRepository = reservationRepository;
+        this.sweepWatermarkRepository = sweepWatermarkRepository;
+        this.reservationMapper = reservationMapper;
+        this.outboxPublisher = outboxPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.graceMinutes = graceMinutes;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Closes every live reservation whose slot ended more than the grace period ago.
+     *
+     * @return the number of reservations closed
+     */
+    @Scheduled(fixedDelayString = "${tenniscourts.lifecycle.interval-ms:60000}")
+    public synchronized int sweep() {
+        if (highWaterMark == null) {
+            highWaterMark = sweepWatermarkRepository.findById(SWEEPER)
+                    .map(SweepWatermark::getEndedBefore)
+                    .orElse(LocalDateTime.of(1970, 1, 1, 0, 0));
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime endedBefore = now.minusMinutes(graceMinutes);
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("noShow", ReservationStatus.NO_SHOW.ordinal())
+                .addValue("completed", ReservationStatus.COMPLETED.ordinal())
+                .addValue("readyToPlay", ReservationStatus.READY_TO_PLAY.ordinal())
+                .addValue("now", Timestamp.valueOf(now))
+                .addValue("endedBefore", Timestamp.valueOf(endedBefore))
+                .addValue("endedAfter", Timestamp.valueOf(highWaterMark))
+                .addValue("chunkSize", chunkSize);
+
+        int swept = 0;
+        while (true) {
+            int[] chunk = {0, 0};
+            transactionTemplate.execute(status -> {
+                List<Long> ids = jdbcTemplate.queryForList(CHUNK, parameters, Long.class);
+                chunk[0] = ids.size();
+                if (!ids.isEmpty()) {
+                    chunk[1] = jdbcTemplate.update(SWEEP, new MapSqlParameterSource(parameters.getValues()).addValue("ids", ids));
+                    publishClosed(ids);
+                }
+                return null;
+            });
+            swept += chunk[1];
+            if (chunk[0] < chunkSize) {
+                break;
+            }
+        }
+        transactionTemplate.execute(status -> sweepWatermarkRepository.save(new SweepWatermark(SWEEPER, endedBefore, now)));
+        highWaterMark = endedBefore;
+        if (swept > 0) {
+            log.info("Closed {} reservations of slots that ended before {}", swept, endedBefore);
+        }
+        return swept;
+    }
+
+    private void publishClosed(List<Long> ids) {
+        for (Reservation reservation : reservationRepository.findAllById(ids)) {
+            ReservationEventType eventType;
+            if (ReservationStatus.COMPLETED.equals(reservation.getReservationStatus())) {
+                eventType = ReservationEventType.RESERVATION_COMPLETED;
+            } else if (ReservationStatus.NO_SHOW.equals(reservation.getReservationStatus())) {
+                eventType = ReservationEventType.RESERVATION_NO_SHOW;
+            } else {
+                // changed by someone else between the select and the update
+                continue;
+            }
+            ReservationDTO reservationDTO = reservationMapper.map(reservation);
+            outboxPublisher.publish(ReservationService.AGGREGATE_TYPE, reservationDTO.getId(), eventType.name(), reservationDTO);
+        }
+    }
+}
@@ -1,17 +1,58 @@
 package com.tenniscourts.reservations;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
 
+    /**
+     * Finds the hold on the schedule that has expired but that the expiry wheel has not reached yet.
+     */
+    @Query("select r from Reservation r"
+            + " where r.activeScheduleId = :scheduleId and r.reservationStatus = com.tenniscourts.reservations.ReservationStatus.HELD"
+            + " and r.holdExpiresAt <= :now")
+    Optional<Reservation> findExpiredHold(@Param("scheduleId") Long scheduleId, @Param("now") LocalDateTime now);
+
+    /**
+     * Confirms a hold that is still held and not due, in one statement, so it cannot race its expiry or release.
+     *
+     * @return 1 when the hold was confirmed, 0 otherwise
+     */
+    @Modifying
+    @Query("update Reservation r set r.reservationStatus = com.tenniscourts.reservations.ReservationStatus.READY_TO_PLAY, r.dateUpdate = :now"
+            + " where r.id = :id and r.reservationStatus = com.tenniscourts.reservations.ReservationStatus.HELD and r.holdExpiresAt > :now")
+    int confirmHeld(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Ends a hold that is still held with the given status and frees its slot, in one statement, so it cannot race a
+     * confirmation.
+     *
+     * @return 1 when the hold was ended, 0 otherwise
+     */
+    @Modifying
+    @Query("update Reservation r set r.reservationStatus = :status, r.activeScheduleId = null, r.dateUpdate = :now"
+            + " where r.id = :id and r.reservationStatus = com.tenniscourts.reservations.ReservationStatus.HELD")
+    int endHeld(@Param("id") Long id, @Param("status") ReservationStatus status, @Param("now") LocalDateTime now);
+
+    @EntityGraph(attributePaths = {"guest", "schedule.tennisCourt"})
     List<Reservation> findBySchedule_Id(Long scheduleId);
 
+    @EntityGraph(attributePaths = {"guest", "schedule.tennisCourt"})
     List<Reservation> findByReservationStatusAndSchedule_StartDateTimeGreaterThanEqualAndSchedule_EndDateTimeLessThanEqual(ReservationStatus reservationStatus, LocalDateTime startDateTime, LocalDateTime endDateTime);
 
+    @EntityGraph(attributePaths = {"guest", "schedule.tennisCourt"})
     List<Reservation> findAllBySchedule_StartDateTimeLessThanEqual(LocalDateTime startDateTime);
 
+    @EntityGraph(attributePaths = {"guest", "schedule.tennisCourt"})
+    List<Reservation> findBySchedule_StartDateTimeLessThanEqualAndIdGreaterThanOrderById(LocalDateTime startDateTime, Long id, Pageable pageable);
+
     // List<Reservation> findByStartDateTimeGreaterThanEqualAndEndDateTimeLessThanEqualAndTennisCourt(LocalDateTime startDateTime, LocalDateTime endDateTime, TennisCourt tennisCourt);
 }
@@ -1,24 +1,38 @@
 package com.tenniscourts.reservations;
 
+import com.tenniscourts.archive.ArchivedReservationReader;
+import com.tenniscourts.config.persistence.EntityStreams;
 import com.tenniscourts.exceptions.AlreadyExistsEntityException;
 import com.tenniscourts.exceptions.EntityNotFoundException;
+import com.tenniscourts.exceptions.InvalidRequestException;
 import com.tenniscourts.guests.GuestDTO;
 import com.tenniscourts.guests.GuestMapper;
 import com.tenniscourts.guests.GuestService;
+import com.tenniscourts.outbox.OutboxPublisher;
+import com.tenniscourts.pricing.PricingEngine;
 import com.tenniscourts.schedules.ScheduleDTO;
 import com.tenniscourts.schedules.ScheduleMapper;
 import com.tenniscourts.schedules.ScheduleService;
 import lombok.AllArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
-public class ReservationService {
+public class ReservationService implements BookingEngine {
 
     private final ReservationRepository reservationRepository;
 
@@ -29,23 +43,156 @@ public class ReservationService {
     private final GuestMapper guestMapper;
     private final ScheduleMapper scheduleMapper;
 
-    private final BigDecimal RESERVATION_DEPOSIT = new BigDecimal(10);
+    private final EntityStreams entityStreams;
 
+    private final OutboxPublisher outboxPublisher;
+
+    private final ArchivedReservationReader archivedReservationReader;
+
+    private final ScheduleLock scheduleLock;
+
+    private final HoldExpirer holdExpirer;
+
+    private final PricingEngine pricingEngine;
+
+    private final GuestReservationIndex guestReservationIndex;
+
+    private final BookingLookups bookingLookups;
+
+    private final TransactionTemplate transactionTemplate;
+
+    static final String AGGREGATE_TYPE = "Reservation";
+
+    private static final long CHECK_IN_OPENS_MINUTES = 30;
+
+    /**
+     * Books the slot. The guest and schedule are looked up before the booking transaction opens, see
+     * {@link BookingLookups}.
+     */
+    @Override
     public ReservationDTO bookReservation(CreateReservationRequestDTO createReservationRequestDTO) {
-        GuestDTO guestDTO = guestService.findGuestById(createReservationRequestDTO.getGuestId());
-        ScheduleDTO scheduleDTO = scheduleService.findSchedule(createReservationRequestDTO.getScheduleId());
-        List<Reservation> reservationList = reservationRepository.findBySchedule_Id(createReservationRequestDTO.getScheduleId());
+        BookingSubject subject = lookUp(createReservationRequestDTO);
+        return transactionTemplate.execute(status -> {
+            ReservationDTO reservationDTO = reservationMapper.map(reserve(subject, ReservationStatus.READY_TO_PLAY, null));
+            publish(ReservationEventType.RESERVATION_BOOKED, reservationDTO);
+            return reservationDTO;
+        });
+    }
+
+    /**
+     * Holds the slot for the guest until the hold TTL runs out, without taking payment yet.
+     */
+    public ReservationDTO holdReservation(CreateReservationRequestDTO createReservationRequestDTO) {
+        BookingSubject subject = lookUp(createReservationRequestDTO);
+        return transactionTemplate.execute(status -> {
+            LocalDateTime holdExpiresAt = holdExpirer.deadlineFrom(LocalDateTime.now());
+            ReservationDTO reservationDTO = reservationMapper.map(reserve(subject, ReservationStatus.HELD, holdExpiresAt));
+            holdExpirer.schedule(reservationDTO.getId(), holdExpiresAt);
+            publish(ReservationEventType.RESERVATION_HELD, reservationDTO);
+            return reservationDTO;
+        });
+    }
+
+    /**
+     * Confirms a hold. The transition is a conditional update, so of a confirmation and an expiry or release racing
+     * for the same hold only one wins.
+     */
+    @Transactional
+    public ReservationDTO confirmHold(Long reservationId) {
+        if (reservationRepository.confirmHeld(reservationId, LocalDateTime.now()) == 0) {
+            findHold(reservationId);
+            throw new InvalidRequestException("Cannot confirm because the hold has expired.");
+        }
+
+        ReservationDTO reservationDTO = reservationMapper.map(findUpdatedReservation(reservationId));
+        publish(ReservationEventType.RESERVATION_CONFIRMED, reservationDTO);
+        return reservationDTO;
+    }
+
+    @Transactional
+    public ReservationDTO releaseHold(Long reservationId) {
+        if (reservationRepository.endHeld(reservationId, ReservationStatus.RELEASED, LocalDateTime.now()) == 0) {
+            findHold(reservationId);
+            throw new InvalidRequestException("Cannot confirm/release because it's not in held status.");
+        }
+
+        Reservation reservation = findUpdatedReservation(reservationId);
+        guestReservationIndex.removeAfterCommit(reservation.getGuest().getId(), reservation.getId());
+        ReservationDTO reservationDTO = reservationMapper.map(reservation);
+        publish(ReservationEventType.RESERVATION_RELEASED, reservationDTO);
+        return reservationDTO;
+    }
+
+    /**
+     * Reads a reservation after a conditional update, which bypasses the persistence context.
+     */
+    private Reservation findUpdatedReservation(Long reservationId) {
+        return reservationRepository.findById(reservationId).orElseThrow(() -> {
+            throw new EntityNotFoundException("Reservation not found.");
+        });
+    }
+
+    private Reservation findHold(Long reservationId) {
+        Reservation reservation = reservationRepository.findById(reservationId).orElseThrow(() -> {
+            throw new EntityNotFoundException("Reservation not found.");
+        });
+        if (!ReservationStatus.HELD.equals(reservation.getReservationStatus())) {
+            throw new InvalidRequestException("Cannot confirm/release because it's not in held status.");
+        }
+        return reservation;
+    }
+
+    private BookingSubject lookUp(CreateReservationRequestDTO createReservationRequestDTO) {
+        long deadline = bookingLookups.deadline();
+        Future<GuestDTO> guest = bookingLookups.submit(() -> guestService.findGuestById(createReservationRequestDTO.getGuestId()));
+        Future<ScheduleDTO> schedule = bookingLookups.submit(() -> scheduleService.findSchedule(createReservationRequestDTO.getScheduleId()));
+        try {
+            return new BookingSubject(bookingLookups.await(guest, deadline), bookingLookups.await(schedule, deadline));
+        } finally {
+            bookingLookups.cancel(guest, schedule);
+        }
+    }
+
+    private Reservation reserve(BookingSubject subject, ReservationStatus status, LocalDateTime holdExpiresAt) {
+        GuestDTO guestDTO = subject.guest;
+        ScheduleDTO scheduleDTO = subject.schedule;
+        scheduleLock.lock(scheduleDTO.getId());
+        reservationRepository.findExpiredHold(scheduleDTO.getId(), LocalDateTime.now()).ifPresent(holdExpirer::expire);
 
-        validateBooking(reservationList, scheduleDTO);
+        validateBooking(scheduleDTO);
 
         Reservation reservation = Reservation.builder()
                 .guest(guestMapper.map(guestDTO))
                 .schedule(scheduleMapper.map(scheduleDTO))
-                .value(RESERVATION_DEPOSIT)
-                .reservationStatus(ReservationStatus.READY_TO_PLAY)
+                .value(pricingEngine.price(scheduleDTO.getTennisCourt().getId(), scheduleDTO.getStartDateTime(), guestDTO.isMember()))
+                .reservationStatus(status)
+                .holdExpiresAt(holdExpiresAt)
                 .build();
 
-        return reservationMapper.map(reservationRepository.save(reservation));
+        reservation = insert(reservation, scheduleDTO);
+        guestReservationIndex.addAfterCommit(guestDTO.getId(), reservation.getId());
+        return reservation;
+    }
+
+    /**
+     * Lists the live reservations of a guest that have not started yet, soonest first.
+     */
+    public List<ReservationDTO> findUpcomingReservations(Long guestId) {
+        guestService.findGuestById(guestId);
+        long[] reservationIds = guestReservationIndex.findReservationIds(guestId);
+        List<Long> ids = new ArrayList<>(reservationIds.length);
+        for (long reservationId : reservationIds) {
+            ids.add(reservationId);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        return reservationRepository.findAllById(ids).stream()
+                .filter(reservation -> ReservationStatus.READY_TO_PLAY.equals(reservation.getReservationStatus())
+                        || ReservationStatus.HELD.equals(reservation.getReservationStatus()) && reservation.getHoldExpiresAt().isAfter(now))
+                .filter(reservation -> !reservation.getSchedule().getStartDateTime().isBefore(now))
+                .sorted(Comparator.comparing(reservation -> reservation.getSchedule().getStartDateTime()))
+                .map(reservationMapper::map)
+                .collect(Collectors.toList());
     }
 
     public ReservationDTO findReservation(Long reservationId) {
@@ -54,8 +201,12 @@ public class ReservationService {
         });
     }
 
+    @Override
+    @Transactional
     public ReservationDTO cancelReservation(Long reservationId) {
-        return reservationMapper.map(this.cancel(reservationId));
+        ReservationDTO reservationDTO = reservationMapper.map(this.cancel(reservationId));
+        publish(ReservationEventType.RESERVATION_CANCELLED, reservationDTO);
+        return reservationDTO;
     }
 
     private Reservation cancel(Long reservationId) {
@@ -71,6 +222,30 @@ public class ReservationService {
         });
     }
 
+    @Transactional
+    public ReservationDTO checkInReservation(Long reservationId) {
+        Reservation reservation = reservationRepository.findById(reservationId).orElseThrow(() -> {
+            throw new EntityNotFoundException("Reservation not found.");
+        });
+
+        if (!ReservationStatus.READY_TO_PLAY.equals(reservation.getReservationStatus())) {
+            throw new InvalidRequestException("Cannot check in because it's not in ready to play status.");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(reservation.getSchedule().getStartDateTime().minusMinutes(CHECK_IN_OPENS_MINUTES))
+                || now.isAfter(reservation.getSchedule().getEndDateTime())) {
+            throw new InvalidRequestException("Can check in only from " + CHECK_IN_OPENS_MINUTES + " minutes before the start until the end of the slot.");
+        }
+
+        if (reservation.getCheckedInAt() == null) {
+            reservation.setCheckedInAt(now);
+            reservation = reservationRepository.save(reservation);
+            publish(ReservationEventType.RESERVATION_CHECKED_IN, reservationMapper.map(reservation));
+        }
+        return reservationMapper.map(reservation);
+    }
+
     private Reservation reschedule(Reservation reservation) {
         this.validateCancellation(reservation);
 
@@ -79,6 +254,7 @@ public class ReservationService {
     }
 
     private Reservation updateReservation(Reservation reservation, BigDecimal refundValue, ReservationStatus status) {
+        guestReservationIndex.removeAfterCommit(reservation.getGuest().getId(), reservation.getId());
         reservation.setReservationStatus(status);
         reservation.setValue(reservation.getValue().subtract(refundValue));
         reservation.setRefundValue(refundValue);
@@ -88,57 +264,67 @@ public class ReservationService {
 
     private void validateCancellation(Reservation reservation) {
         if (!ReservationStatus.READY_TO_PLAY.equals(reservation.getReservationStatus())) {
-            throw new IllegalArgumentException("Cannot cancel/reschedule because it's not in ready to play status.");
+            throw new InvalidRequestException("Cannot cancel/reschedule because it's not in ready to play status.");
         }
 
         if (reservation.getSchedule().getStartDateTime().isBefore(LocalDateTime.now())) {
-            throw new IllegalArgumentException("Can cancel/reschedule only future dates.");
+            throw new InvalidRequestException("Can cancel/reschedule only future dates.");
         }
     }
 
-    private void validateBooking(List<Reservation> reservations, ScheduleDTO scheduleDTO) {
-        if (hasReservation(reservations)) {
+    /**
+     * Inserts without reading the schedule's reservations first: the unique active schedule constraint rejects a
+     * second live reservation, on every node, in the same statement.
+     */
+    private Reservation insert(Reservation reservation, ScheduleDTO scheduleDTO) {
+        try {
+            return reservationRepository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, Reservation.ACTIVE_SCHEDULE_CONSTRAINT)) {
+                throw e;
+            }
             throw new AlreadyExistsEntityException("Reservation already exists for"
                     + " tennis court " + scheduleDTO.getTennisCourt().getName()
                     + ", startDateTime = " + scheduleDTO.getStartDateTime()
                     + ", endDateTime = " + scheduleDTO.getEndDateTime());
         }
+    }
 
-        if (scheduleDTO.getStartDateTime().isBefore(LocalDateTime.now())) {
-            throw new IllegalArgumentException("Start date and time is in the past");
+    private boolean violates(DataIntegrityViolationException e, String constraintName) {
+        if (e.getCause() instanceof ConstraintViolationException) {
+            String violated = ((ConstraintViolationException) e.getCause()).getConstraintName();
+            return violated != null && violated.toLowerCase().contains(constraintName);
         }
+        return false;
     }
 
-    public BigDecimal getRefundValue(Reservation reservation) {
-        long minutes = ChronoUnit.MINUTES.between(LocalDateTime.now(), reservation.getSchedule().getStartDateTime());
-
-        if (minutes >= 1440) {
-            return reservation.getValue();
-        } else if (minutes >= 720) {
-            return reservation.getValue().multiply(BigDecimal.valueOf(0.75));
-        } else if (minutes >= 120) {
-            return reservation.getValue().multiply(BigDecimal.valueOf(0.5));
-        } else if (minutes >= 1) {
-            return reservation.getValue().multiply(BigDecimal.valueOf(0.25));
+    private void validateBooking(ScheduleDTO scheduleDTO) {
+        if (scheduleDTO.getStartDateTime().isBefore(LocalDateTime.now())) {
+            throw new InvalidRequestException("Start date and time is in the past");
         }
+    }
 
-        return BigDecimal.ZERO;
+    public BigDecimal getRefundValue(Reservation reservation) {
+        return pricingEngine.refund(reservation.getValue(), reservation.getSchedule().getStartDateTime(), LocalDateTime.now());
     }
 
+    @Override
+    @Transactional
     public ReservationDTO rescheduleReservation(Long previousReservationId, RescheduleReservationRequestDTO rescheduleReservationRequestDTO) {
         Reservation previousReservation = reservationMapper.map(findReservation(previousReservationId));
         Long scheduleId = rescheduleReservationRequestDTO.getScheduleId();
 
         if (scheduleId == null) {
-            throw new IllegalArgumentException("Schedule id cannot be null.");
+            throw new InvalidRequestException("Schedule id cannot be null.");
         }
 
         if (scheduleId.equals(previousReservation.getSchedule().getId())) {
-            throw new IllegalArgumentException("Cannot reschedule to the same slot.");
+            throw new InvalidRequestException("Cannot reschedule to the same slot.");
         }
 
         previousReservation = reschedule(previousReservation);
         reservationRepository.saveAndFlush(previousReservation);
+        publish(ReservationEventType.RESERVATION_RESCHEDULED, reservationMapper.map(previousReservation));
 
         ReservationDTO newReservation = bookReservation(CreateReservationRequestDTO.builder()
                 .guestId(previousReservation.getGuest().getId())
@@ -148,13 +334,34 @@ public class ReservationService {
         return newReservation;
     }
 
-    private boolean hasReservation(List<Reservation> reservationList) {
-        return reservationList
-                .stream()
-                .anyMatch(reservation -> reservation.getReservationStatus().equals(ReservationStatus.READY_TO_PLAY));
+    private void publish(ReservationEventType eventType, ReservationDTO reservationDTO) {
+        outboxPublisher.publish(AGGREGATE_TYPE, reservationDTO.getId(), eventType.name(), reservationDTO);
     }
 
     public List<ReservationDTO> showPastReservations() {
-        return reservationMapper.map(reservationRepository.findAllBySchedule_StartDateTimeLessThanEqual(LocalDateTime.now()));
+        LocalDateTime now = LocalDateTime.now();
+        List<ReservationDTO> reservations = new ArrayList<>();
+        archivedReservationReader.streamReservationsStartingBefore(now, reservations::add);
+        reservations.addAll(reservationMapper.map(reservationRepository.findAllBySchedule_StartDateTimeLessThanEqual(now)));
+        return reservations;
+    }
+
+    public void streamPastReservations(Consumer<ReservationDTO> consumer) {
+        LocalDateTime now = LocalDateTime.now();
+        archivedReservationReader.streamReservationsStartingBefore(now, consumer);
+        entityStreams.forEach((Reservation last, Pageable page) -> reservationRepository.findBySchedule_StartDateTimeLessThanEqualAndIdGreaterThanOrderById(now, EntityStreams.idAfter(last), page),
+                reservationMapper::map, consumer);
+    }
+
+    private static final class BookingSubject {
+
+        private final GuestDTO guest;
+
+        private final ScheduleDTO schedule;
+
+        BookingSubject(GuestDTO guest, ScheduleDTO schedule) {
+            this.guest = guest;
+            this.schedule = schedule;
+        }
     }
 }
@@ -3,5 +3,10 @@ package com.tenniscourts.reservations;
 public enum ReservationStatus {
   READY_TO_PLAY,
   CANCELLED,
-  RESCHEDULED
+  RESCHEDULED,
+  COMPLETED,
+  NO_SHOW,
+  HELD,
+  EXPIRED,
+  RELEASED
 }
@@ -0,0 +1,10 @@
+package com.tenniscourts.reservations;
+
+/**
+ * Serializes the bookings of one schedule. {@link ReservationService} takes it inside the booking transaction, before
+ * it checks the schedule for a live reservation, and holds it until the transaction ends.
+ */
+public interface ScheduleLock {
+
+    void lock(Long scheduleId);
+}
@@ -0,0 +1,265 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.exceptions.AlreadyExistsEntityException;
+import com.tenniscourts.exceptions.EntityNotFoundException;
+import com.tenniscourts.exceptions.InvalidRequestException;
+import com.tenniscourts.exceptions.ServiceUnavailableException;
+import com.tenniscourts.exceptions.TooManyRequestsException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Runs the booking, cancellation and reschedule commands of a slot on a single thread.
+ * <p>
+ * Schedule ids are hashed to a fixed number of shards: a booking goes to the shard of its slot, a reschedule to the
+ * shard of the slot it moves to, and a cancellation to the shard of the slot it frees. Routing needs no read for
+ * bookings and reschedules. Each shard has a bounded queue and one thread that drains up to {@code maxBatch} commands
+ * and commits them in one transaction, so the commands of a slot never contend with each other and share the cost of a
+ * commit. The loop tracks the slots taken within the batch and rejects a second booking of the same slot before it
+ * reaches the database. When any command of a batch fails, the batch is rolled back and every command is retried in a
+ * transaction of its own, so one bad command only fails itself.
+ * <p>
+ * The loops serialize the commands, they keep no state of the slots between batches: each command still reads and
+ * writes through {@link ReservationService}. Holds, the lifecycle sweeper and other nodes write outside the loops, so
+ * the unique active schedule constraint stays the final guard against double booking.
+ * <p>
+ * A caller waits for its command up to the command timeout. A command that has not started by then is dropped and the
+ * caller gets a 503; one that is already running may still commit, and the caller is told so.
+ */
+@Slf4j
+public class ShardedBookingEngine implements BookingEngine, DisposableBean {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final ReservationService reservationService;
+
+    private final ReservationRepository reservationRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final int maxBatch;
+
+    private final long commandTimeoutMillis;
+
+    private final Shard[] shards;
+
+    private volatile boolean running = true;
+
+    public ShardedBookingEngine(ReservationService reservationService, ReservationRepository reservationRepository,
+                                PlatformTransactionManager transactionManager, int shardCount, int queueCapacity, int maxBatch,
+                                long commandTimeoutMillis) {
+        if (shardCount < 1 || queueCapacity < 1 || maxBatch < 1 || commandTimeoutMillis < 1) {
+            throw new IllegalArgumentException("Shards, queue capacity, batch size and command timeout must be positive");
+        }
+        this.reservationService = reservationService;
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatch = maxBatch;
+        this.commandTimeoutMillis = commandTimeoutMillis;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+    }
+
+    @Override
+    public ReservationDTO bookReservation(CreateReservationRequestDTO createReservationRequestDTO) {
+        Long scheduleId = createReservationRequestDTO.getScheduleId();
+        if (scheduleId == null) {
+            throw new InvalidRequestException("Schedule id cannot be null.");
+        }
+        return submit(scheduleId, scheduleId, () -> reservationService.bookReservation(createReservationRequestDTO));
+    }
+
+    @Override
+    public ReservationDTO cancelReservation(Long reservationId) {
+        return submit(scheduleOf(reservationId), null, () -> reservationService.cancelReservation(reservationId));
+    }
+
+    @Override
+    public ReservationDTO rescheduleReservation(Long previousReservationId, RescheduleReservationRequestDTO rescheduleReservationRequestDTO) {
+        if (rescheduleReservationRequestDTO.getScheduleId() == null) {
+            throw new InvalidRequestException("Schedule id cannot be null.");
+        }
+        Long scheduleId = rescheduleReservationRequestDTO.getScheduleId();
+        return submit(scheduleId, scheduleId, () -> reservationService.rescheduleReservation(previousReservationId, rescheduleReservationRequestDTO));
+    }
+
+    int shardOf(Long scheduleId) {
+        int hash = scheduleId.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        for (Shard shard : shards) {
+            shard.thread.interrupt();
+        }
+        for (Shard shard : shards) {
+            shard.thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    private Long scheduleOf(Long reservationId) {
+        return reservationRepository.findById(reservationId)
+                .map(reservation -> reservation.getSchedule().getId())
+                .orElseThrow(() -> new EntityNotFoundException("Reservation not found."));
+    }
+
+    /**
+     * @param routingScheduleId the slot whose shard runs the command
+     * @param takenScheduleId   the slot the command books, or null when it books none
+     */
+    private ReservationDTO submit(Long routingScheduleId, Long takenScheduleId, Supplier<ReservationDTO> action) {
+        if (!running) {
+            throw new IllegalStateException("The booking engine is shut down");
+        }
+        Command command = new Command(takenScheduleId, action);
+        if (!shards[shardOf(routingScheduleId)].queue.offer(command)) {
+            throw new TooManyRequestsException("Too many bookings waiting for this slot, try again later");
+        }
+        try {
+            return command.result.get(commandTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            if (command.claim()) {
+                throw new ServiceUnavailableException("The booking was not started in time, try again later");
+            }
+            throw new ServiceUnavailableException("The booking did not complete in time and may still be applied, check it before retrying");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            command.claim();
+            throw new ServiceUnavailableException("Interrupted while waiting for the booking");
+        }
+    }
+
+    private void commit(List<Command> batch) {
+        batch.removeIf(command -> !command.claim());
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<ReservationDTO> results;
+        try {
+            results = transactionTemplate.execute(status -> {
+                Set<Long> taken = new HashSet<>();
+                List<ReservationDTO> reservations = new ArrayList<>(batch.size());
+                for (Command command : batch) {
+                    if (command.scheduleId != null && !taken.add(command.scheduleId)) {
+                        reservations.add(null);
+                    } else {
+                        reservations.add(command.action.get());
+                    }
+                }
+                return reservations;
+            });
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result.completeExceptionally(e);
+            } else {
+                batch.forEach(this::commitAlone);
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            Command command = batch.get(i);
+            if (results.get(i) == null) {
+                command.result.completeExceptionally(new AlreadyExistsEntityException("Reservation already exists for schedule " + command.scheduleId));
+            } else {
+                command.result.complete(results.get(i));
+            }
+        }
+    }
+
+    private void commitAlone(Command command) {
+        try {
+            command.result.complete(transactionTemplate.execute(status -> command.action.get()));
+        } catch (RuntimeException e) {
+            command.result.completeExceptionally(e);
+        }
+    }
+
+    private final class Shard implements Runnable {
+
+        private final BlockingQueue<Command> queue;
+
+        private final Thread thread;
+
+        Shard(int index, int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.thread = new Thread(this, "booking-shard-" + index);
+            this.thread.setDaemon(true);
+            this.thread.start();
+        }
+
+        @Override
+        public void run() {
+            List<Command> batch = new ArrayList<>(maxBatch);
+            while (running) {
+                try {
+                    Command first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatch - 1);
+                    commit(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (RuntimeException e) {
+                    log.error("Booking shard {} failed a batch", thread.getName(), e);
+                    batch.forEach(command -> command.result.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+            queue.drainTo(batch);
+            batch.forEach(command -> command.result.completeExceptionally(new IllegalStateException("The booking engine is shut down")));
+        }
+    }
+
+    private static final class Command {
+
+        private final Long scheduleId;
+
+        private final Supplier<ReservationDTO> action;
+
+        private final CompletableFuture<ReservationDTO> result = new CompletableFuture<>();
+
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Command(Long scheduleId, Supplier<ReservationDTO> action) {
+            this.scheduleId = scheduleId;
+            this.action = action;
+        }
+
+        /**
+         * Taken once, either by the shard that runs the command or by the caller that stops waiting for it.
+         */
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+}
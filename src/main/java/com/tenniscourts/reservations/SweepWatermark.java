@@ -0,0 +1,32 @@
+package com.tenniscourts.reservations;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * How far a sweep has got: every slot that ended before the time has been swept.
+ */
+@Entity
+@Table
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SweepWatermark {
+
+    @Id
+    @Column
+    private String sweeper;
+
+    @Column
+    private LocalDateTime endedBefore;
+
+    @Column
+    private LocalDateTime dateUpdate;
+}
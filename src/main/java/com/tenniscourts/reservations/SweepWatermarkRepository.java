@@ -0,0 +1,6 @@
+package com.tenniscourts.reservations;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SweepWatermarkRepository extends JpaRepository<SweepWatermark, String> {
+}
@@ -0,0 +1,55 @@
+package com.tenniscourts.schedules;
+
+import com.tenniscourts.config.BaseRestController;
+import com.tenniscourts.config.web.ResponseStreams;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link ScheduleController}. Handlers release the servlet thread right away
+ * and finish on the async API executor.
+ */
+@RestController
+@RequestMapping("/async/schedules")
+public class AsyncScheduleController extends BaseRestController {
+
+    private final ScheduleService scheduleService;
+
+    private final ResponseStreams responseStreams;
+
+    private final AsyncTaskExecutor asyncApiExecutor;
+
+    public AsyncScheduleController(ScheduleService scheduleService, ResponseStreams responseStreams,
+                                   @Qualifier("asyncApiExecutor") AsyncTaskExecutor asyncApiExecutor) {
+        this.scheduleService = scheduleService;
+        this.responseStreams = responseStreams;
+        this.asyncApiExecutor = asyncApiExecutor;
+    }
+
+    @ApiOperation(value = "Stream schedules by dates")
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> findSchedulesByDates(@RequestParam(value = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                      @RequestParam(value = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) throws HttpMediaTypeNotAcceptableException {
+        LocalDateTime startDateTime = LocalDateTime.of(startDate, LocalTime.of(0, 0));
+        LocalDateTime endDateTime = LocalDateTime.of(endDate, LocalTime.of(23, 59));
+
+        return responseStreams.<ScheduleDTO>arrayResponse(consumer -> scheduleService.streamSchedulesByDates(startDateTime, endDateTime, consumer));
+    }
+
+    @ApiOperation(value = "Find a schedule by id")
+    @GetMapping(value = "/{id}")
+    public CompletableFuture<ResponseEntity<ScheduleDTO>> findByScheduleId(@PathVariable Long id) {
+        return CompletableFuture.supplyAsync(() -> ResponseEntity.ok(scheduleService.findSchedule(id)), asyncApiExecutor);
+    }
+}
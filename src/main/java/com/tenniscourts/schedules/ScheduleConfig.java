@@ -0,0 +1,16 @@
+package com.tenniscourts.schedules;
+
+import com.tenniscourts.config.web.SharedResponseBody;
+import com.tenniscourts.config.web.SingleFlight;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ScheduleConfig {
+
+    @Bean
+    public SingleFlight<String, SharedResponseBody> scheduleRangeQueries(@Value("${tenniscourts.schedules.coalescing.freshness-ms:250}") long freshnessMillis) {
+        return new SingleFlight<>(freshnessMillis);
+    }
+}
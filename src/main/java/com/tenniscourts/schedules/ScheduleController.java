@@ -1,16 +1,20 @@
 package com.tenniscourts.schedules;
 
 import com.tenniscourts.config.BaseRestController;
+import com.tenniscourts.config.web.ResponseStreams;
+import com.tenniscourts.config.web.SharedResponseBody;
+import com.tenniscourts.config.web.SingleFlight;
 import io.swagger.annotations.ApiOperation;
 import lombok.AllArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.List;
 
 @AllArgsConstructor
 @RestController
@@ -19,17 +23,25 @@ public class ScheduleController extends BaseRestController {
 
     private final ScheduleService scheduleService;
 
+    private final ResponseStreams responseStreams;
+
+    private final SingleFlight<String, SharedResponseBody> scheduleRangeQueries;
+
     @ApiOperation(value = "Add a schedule to a tennis court")
     @PostMapping
     public ResponseEntity<Void> addScheduleTennisCourt(@RequestBody CreateScheduleRequestDTO createScheduleRequestDTO) {
         return ResponseEntity.created(locationByEntity(scheduleService.addSchedule(createScheduleRequestDTO.getTennisCourtId(), createScheduleRequestDTO).getId())).build();
     }
 
-    @ApiOperation(value = "Find schedules by dates")
+    @ApiOperation(value = "Find schedules by dates", response = ScheduleDTO.class, responseContainer = "List")
     @GetMapping
-    public ResponseEntity<List<ScheduleDTO>> findSchedulesByDates(@RequestParam(value = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-                                                                  @RequestParam(value = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        return ResponseEntity.ok(scheduleService.findSchedulesByDates(LocalDateTime.of(startDate, LocalTime.of(0, 0)), LocalDateTime.of(endDate, LocalTime.of(23, 59))));
+    public ResponseEntity<StreamingResponseBody> findSchedulesByDates(@RequestParam(value = "startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                                      @RequestParam(value = "endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) throws HttpMediaTypeNotAcceptableException {
+        LocalDateTime startDateTime = LocalDateTime.of(startDate, LocalTime.of(0, 0));
+        LocalDateTime endDateTime = LocalDateTime.of(endDate, LocalTime.of(23, 59));
+
+        return responseStreams.<ScheduleDTO>sharedArrayResponse(scheduleRangeQueries, startDateTime + "/" + endDateTime,
+                consumer -> scheduleService.streamSchedulesByDates(startDateTime, endDateTime, consumer));
     }
 
     @ApiOperation(value = "Find a schedule by id")
@@ -0,0 +1,8 @@
+package com.tenniscourts.schedules;
+
+/**
+ * Types of the schedule events written to the outbox.
+ */
+public enum ScheduleEventType {
+    SCHEDULE_ADDED
+}
@@ -1,15 +1,35 @@
 package com.tenniscourts.schedules;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
 
+    @EntityGraph(attributePaths = "tennisCourt")
     List<Schedule> findByTennisCourt_IdOrderByStartDateTime(Long id);
 
     Schedule findByTennisCourt_IdAndStartDateTimeEquals(Long id, LocalDateTime starDateTime);
 
+    @EntityGraph(attributePaths = "tennisCourt")
     List<Schedule> findAllByStartDateTimeIsGreaterThanEqualAndEndDateTimeIsLessThanEqual(LocalDateTime starDateTime, LocalDateTime endDateTime);
-}
\ No newline at end of file
+
+    @EntityGraph(attributePaths = "tennisCourt")
+    List<Schedule> findByTennisCourt_IdOrderByStartDateTimeAscIdAsc(Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "tennisCourt")
+    @Query("select s from Schedule s where s.tennisCourt.id = :tennisCourtId"
+            + " and (s.startDateTime > :startDateTime or s.startDateTime = :startDateTime and s.id > :id)"
+            + " order by s.startDateTime, s.id")
+    List<Schedule> findByTennisCourtIdAfter(@Param("tennisCourtId") Long tennisCourtId, @Param("startDateTime") LocalDateTime startDateTime,
+                                            @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph(attributePaths = "tennisCourt")
+    List<Schedule> findByStartDateTimeIsGreaterThanEqualAndEndDateTimeIsLessThanEqualAndIdGreaterThanOrderById(LocalDateTime starDateTime, LocalDateTime endDateTime,
+                                                                                                              Long id, Pageable pageable);
+}
@@ -1,16 +1,21 @@
 package com.tenniscourts.schedules;
 
+import com.tenniscourts.config.persistence.EntityStreams;
 import com.tenniscourts.exceptions.AlreadyExistsEntityException;
 import com.tenniscourts.exceptions.EntityNotFoundException;
+import com.tenniscourts.outbox.OutboxPublisher;
 import com.tenniscourts.tenniscourts.TennisCourt;
 import com.tenniscourts.tenniscourts.TennisCourtDTO;
 import com.tenniscourts.tenniscourts.TennisCourtMapper;
 import com.tenniscourts.tenniscourts.TennisCourtRepository;
 import lombok.AllArgsConstructor;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @AllArgsConstructor
@@ -21,15 +26,24 @@ public class ScheduleService {
 
     private final ScheduleMapper scheduleMapper;
 
+    private final EntityStreams entityStreams;
+
+    private final OutboxPublisher outboxPublisher;
+
+    private final static String AGGREGATE_TYPE = "Schedule";
+
     private final static Long PLAY_TIME_HOURS = 1L;
 
+    @Transactional
     public ScheduleDTO addSchedule(Long tennisCourtId, CreateScheduleRequestDTO createScheduleRequestDTO) {
         if (createScheduleRequestDTO.getStartDateTime() == null) {
             throw new IllegalArgumentException("Missing schedule start date and time");
         } else if (createScheduleRequestDTO.getStartDateTime().isBefore(LocalDateTime.now())) {
             throw new IllegalArgumentException("Start date and time is in the past");
         } else {
-            return scheduleMapper.map(scheduleRepository.saveAndFlush(createScheduleForTennisCourt(tennisCourtId, createScheduleRequestDTO)));
+            ScheduleDTO scheduleDTO = scheduleMapper.map(scheduleRepository.saveAndFlush(createScheduleForTennisCourt(tennisCourtId, createScheduleRequestDTO)));
+            outboxPublisher.publish(AGGREGATE_TYPE, scheduleDTO.getId(), ScheduleEventType.SCHEDULE_ADDED.name(), scheduleDTO);
+            return scheduleDTO;
         }
     }
 
@@ -53,6 +67,11 @@ public class ScheduleService {
         return scheduleMapper.map(scheduleRepository.findAllByStartDateTimeIsGreaterThanEqualAndEndDateTimeIsLessThanEqual(startDate, endDate));
     }
 
+    public void streamSchedulesByDates(LocalDateTime startDate, LocalDateTime endDate, Consumer<ScheduleDTO> consumer) {
+        entityStreams.forEach((Schedule last, Pageable page) -> scheduleRepository.findByStartDateTimeIsGreaterThanEqualAndEndDateTimeIsLessThanEqualAndIdGreaterThanOrderById(
+                startDate, endDate, EntityStreams.idAfter(last), page), scheduleMapper::map, consumer);
+    }
+
     public ScheduleDTO findSchedule(Long scheduleId) {
         return scheduleRepository.findById(scheduleId).map(scheduleMapper::map).orElseThrow(() -> {
             throw new EntityNotFoundException("Schedule not found.");
@@ -62,4 +81,11 @@ public class ScheduleService {
     public List<ScheduleDTO> findSchedulesByTennisCourtId(Long tennisCourtId) {
         return scheduleMapper.map(scheduleRepository.findByTennisCourt_IdOrderByStartDateTime(tennisCourtId));
     }
+
+    public void streamSchedulesByTennisCourtId(Long tennisCourtId, Consumer<ScheduleDTO> consumer) {
+        entityStreams.forEach((Schedule last, Pageable page) -> last == null
+                        ? scheduleRepository.findByTennisCourt_IdOrderByStartDateTimeAscIdAsc(tennisCourtId, page)
+                        : scheduleRepository.findByTennisCourtIdAfter(tennisCourtId, last.getStartDateTime(), last.getId(), page),
+                scheduleMapper::map, consumer);
+    }
 }
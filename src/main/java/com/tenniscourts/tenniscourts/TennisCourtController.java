@@ -1,10 +1,14 @@
 package com.tenniscourts.tenniscourts;
 
 import com.tenniscourts.config.BaseRestController;
+import com.tenniscourts.config.web.ResponseStreams;
+import com.tenniscourts.schedules.ScheduleDTO;
 import io.swagger.annotations.ApiOperation;
 import lombok.AllArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @AllArgsConstructor
 @RestController
@@ -13,6 +17,8 @@ public class TennisCourtController extends BaseRestController {
 
     private final TennisCourtService tennisCourtService;
 
+    private final ResponseStreams responseStreams;
+
     @ApiOperation(value = "Add a tennis court")
     @PostMapping
     public ResponseEntity<Void> addTennisCourt(@RequestBody TennisCourtDTO tennisCourtDTO) {
@@ -25,9 +31,12 @@ public class TennisCourtController extends BaseRestController {
         return ResponseEntity.ok(tennisCourtService.findTennisCourtById(id));
     }
 
-    @ApiOperation(value = "Find tennis court with schedules by id")
+    @ApiOperation(value = "Find tennis court with schedules by id", response = TennisCourtDTO.class)
     @GetMapping(value = "/{id}/withSchedules")
-    public ResponseEntity<TennisCourtDTO> findTennisCourtWithSchedulesById(@PathVariable Long id) {
-        return ResponseEntity.ok(tennisCourtService.findTennisCourtWithSchedulesById(id));
+    public ResponseEntity<StreamingResponseBody> findTennisCourtWithSchedulesById(@PathVariable Long id) throws HttpMediaTypeNotAcceptableException {
+        TennisCourtDTO tennisCourtDTO = tennisCourtService.findTennisCourtById(id);
+
+        return responseStreams.<ScheduleDTO>objectWithArrayResponse(tennisCourtDTO, "tennisCourtSchedules",
+                consumer -> tennisCourtService.streamTennisCourtSchedules(id, consumer));
     }
 }
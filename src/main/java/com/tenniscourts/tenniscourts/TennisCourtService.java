@@ -1,10 +1,13 @@
 package com.tenniscourts.tenniscourts;
 
 import com.tenniscourts.exceptions.EntityNotFoundException;
+import com.tenniscourts.schedules.ScheduleDTO;
 import com.tenniscourts.schedules.ScheduleService;
 import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.function.Consumer;
+
 @Service
 @AllArgsConstructor
 public class TennisCourtService {
@@ -30,4 +33,8 @@ public class TennisCourtService {
         tennisCourtDTO.setTennisCourtSchedules(scheduleService.findSchedulesByTennisCourtId(tennisCourtId));
         return tennisCourtDTO;
     }
+
+    public void streamTennisCourtSchedules(Long tennisCourtId, Consumer<ScheduleDTO> consumer) {
+        scheduleService.streamSchedulesByTennisCourtId(tennisCourtId, consumer);
+    }
 }
@@ -1,5 +1,5 @@
-insert into guest(id, name) values(null, 'Roger Federer');
-insert into guest(id, name) values(null, 'Rafael Nadal');
+insert into guest(id, name, member) values(null, 'Roger Federer', false);
+insert into guest(id, name, member) values(null, 'Rafael Nadal', false);
 
 insert into tennis_court(id, name) values(null, 'Roland Garros - Court Philippe-Chatrier');
 
@@ -8,4 +8,11 @@ insert
         schedule
         (id, start_date_time, end_date_time, tennis_court_id)
     values
-        (null, '2020-12-20T20:00:00.0', '2020-02-20T21:00:00.0', 1);
\ No newline at end of file
+        (null, '2020-12-20T20:00:00.0', '2020-02-20T21:00:00.0', 1);
+
+insert into pricing_rule(id, start_hour, end_hour, price, priority) values(null, 0, 24, 10.00, 0);
+
+insert into refund_tier(id, min_minutes_before, refund_rate) values(null, 1440, 1.0000);
+insert into refund_tier(id, min_minutes_before, refund_rate) values(null, 720, 0.7500);
+insert into refund_tier(id, min_minutes_before, refund_rate) values(null, 120, 0.5000);
+insert into refund_tier(id, min_minutes_before, refund_rate) values(null, 1, 0.2500);
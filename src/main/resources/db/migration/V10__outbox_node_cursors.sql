@@ -0,0 +1,26 @@
+drop index idx_outbox_event_unpublished;
+alter table outbox_event drop column published_at;
+alter table outbox_event drop column attempts;
+create index idx_outbox_event_date_create on outbox_event (date_create);
+
+create table outbox_cursor (
+    node_id varchar(255) not null,
+    last_event_id bigint not null,
+    date_update timestamp,
+    primary key (node_id)
+);
+
+create table outbox_parked_event (
+    id bigint generated by default as identity,
+    date_create timestamp,
+    date_update timestamp,
+    ip_number_create varchar(255),
+    ip_number_update varchar(255),
+    user_create bigint,
+    user_update bigint,
+    node_id varchar(255) not null,
+    event_id bigint not null,
+    attempts integer not null,
+    last_error varchar(1000),
+    primary key (id)
+);
@@ -0,0 +1,10 @@
+-- V7 gave only the oldest live reservation of each schedule the active_schedule_id. The later ones stayed live without
+-- it, and the first update of any of them would set it and break uk_reservation_active_schedule. They are double
+-- bookings of a taken slot, so they are cancelled with a full refund, leaving no value as a cancellation does.
+update reservation r set reservation_status = 1, refund_value = value, value = 0, date_update = current_timestamp
+where reservation_status = 0
+  and active_schedule_id is null
+  and exists (select 1 from reservation a where a.active_schedule_id = r.schedule_id);
+
+-- The rollup still counts them as bookings. Emptied, it is rebuilt from the base tables at startup.
+delete from report_rollup;
@@ -0,0 +1,6 @@
+create table sweep_watermark (
+    sweeper varchar(255) not null,
+    ended_before timestamp not null,
+    date_update timestamp,
+    primary key (sweeper)
+);
@@ -0,0 +1,64 @@
+create table guest (
+    id bigint generated by default as identity,
+    date_create timestamp,
+    date_update timestamp,
+    ip_number_create varchar(255),
+    ip_number_update varchar(255),
+    user_create bigint,
+    user_update bigint,
+    name varchar(255) not null,
+    primary key (id)
+);
+
+create table tennis_court (
+    id bigint generated by default as identity,
+    date_create timestamp,
+    date_update timestamp,
+    ip_number_create varchar(255),
+    ip_number_update varchar(255),
+    user_create bigint,
+    user_update bigint,
+    name varchar(255) not null,
+    primary key (id)
+);
+
+create table schedule (
+    id bigint generated by default as identity,
+    date_create timestamp,
+    date_update timestamp,
+    ip_number_create varchar(255),
+    ip_number_update varchar(255),
+    user_create bigint,
+    user_update bigint,
+    end_date_time timestamp not null,
+    start_date_time timestamp not null,
+    tennis_court_id bigint not null,
+    primary key (id),
+    constraint fk_schedule_tennis_court foreign key (tennis_court_id) references tennis_court
+);
+
+create table reservation (
+    id bigint generated by default as identity,
+    date_create timestamp,
+    date_update timestamp,
+    ip_number_create varchar(255),
+    ip_number_update varchar(255),
+    user_create bigint,
+    user_update bigint,
+    refund_value decimal(19,2),
+    reservation_status integer not null,
+    value decimal(19,2) not null,
+    guest_id bigint not null,
+    schedule_id bigint not null,
+    primary key (id),
+    constraint fk_reservation_guest foreign key (guest_id) references guest,
+    constraint fk_reservation_schedule foreign key (schedule_id) references schedule
+);
+
+create table schedule_reservations (
+    schedule_id bigint not null,
+    reservations_id bigint not null,
+    constraint uk_schedule_reservations_reservation unique (reservations_id),
+    constraint fk_schedule_reservations_schedule foreign key (schedule_id) references schedule,
+    constraint fk_schedule_reservations_reservation foreign key (reservations_id) references reservation
+);
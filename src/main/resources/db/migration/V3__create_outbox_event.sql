@@ -0,0 +1,18 @@
+create table outbox_event (
+    id bigint generated by default as identity,
+    date_create timestamp,
+    date_update timestamp,
+    ip_number_create varchar(255),
+    ip_number_update varchar(255),
+    user_create bigint,
+    user_update bigint,
+    aggregate_type varchar(255) not null,
+    aggregate_id bigint not null,
+    event_type varchar(255) not null,
+    payload clob not null,
+    published_at timestamp,
+    attempts integer not null,
+    primary key (id)
+);
+
+create index idx_outbox_event_unpublished on outbox_event (published_at, id);
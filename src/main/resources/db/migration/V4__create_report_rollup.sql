@@ -0,0 +1,15 @@
+create table report_rollup (
+    slot_date date not null,
+    slot_hour integer not null,
+    tennis_court_id bigint not null,
+    slots bigint not null,
+    reservations bigint not null,
+    booked bigint not null,
+    cancellations bigint not null,
+    reschedules bigint not null,
+    revenue decimal(19,2) not null,
+    refunds decimal(19,2) not null,
+    primary key (slot_date, slot_hour, tennis_court_id)
+);
+
+create index idx_report_rollup_slot_date on report_rollup (slot_date);
@@ -0,0 +1,34 @@
+create table schedule_archive (
+    id bigint generated by default as identity,
+    date_create timestamp,
+    date_update timestamp,
+    ip_number_create varchar(255),
+    ip_number_update varchar(255),
+    user_create bigint,
+    user_update bigint,
+    end_date_time timestamp not null,
+    start_date_time timestamp not null,
+    tennis_court_id bigint not null,
+    archived_at timestamp not null,
+    primary key (id)
+);
+
+create table reservation_archive (
+    id bigint generated by default as identity,
+    date_create timestamp,
+    date_update timestamp,
+    ip_number_create varchar(255),
+    ip_number_update varchar(255),
+    user_create bigint,
+    user_update bigint,
+    refund_value decimal(19,2),
+    reservation_status integer not null,
+    value decimal(19,2) not null,
+    guest_id bigint not null,
+    schedule_id bigint not null,
+    archived_at timestamp not null,
+    primary key (id)
+);
+
+create index idx_schedule_archive_start on schedule_archive (start_date_time);
+create index idx_reservation_archive_schedule on reservation_archive (schedule_id);
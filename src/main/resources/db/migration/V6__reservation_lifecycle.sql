@@ -0,0 +1,4 @@
+alter table reservation add column checked_in_at timestamp;
+alter table reservation_archive add column checked_in_at timestamp;
+
+create index idx_reservation_status_schedule on reservation (reservation_status, schedule_id);
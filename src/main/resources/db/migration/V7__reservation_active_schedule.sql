@@ -0,0 +1,7 @@
+alter table reservation add column active_schedule_id bigint;
+
+update reservation r set active_schedule_id = schedule_id
+where reservation_status = 0
+  and id = (select min(id) from reservation d where d.schedule_id = r.schedule_id and d.reservation_status = 0);
+
+alter table reservation add constraint uk_reservation_active_schedule unique (active_schedule_id);
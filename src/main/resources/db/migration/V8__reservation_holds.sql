@@ -0,0 +1,2 @@
+alter table reservation add column hold_expires_at timestamp;
+alter table reservation_archive add column hold_expires_at timestamp;
@@ -0,0 +1,39 @@
+create table pricing_rule (
+    id bigint generated by default as identity,
+    date_create timestamp,
+    date_update timestamp,
+    ip_number_create varchar(255),
+    ip_number_update varchar(255),
+    user_create bigint,
+    user_update bigint,
+    tennis_court_id bigint,
+    day_of_week integer,
+    start_hour integer not null,
+    end_hour integer not null,
+    member boolean,
+    price decimal(19,2) not null,
+    priority integer not null,
+    primary key (id)
+);
+
+create table refund_tier (
+    id bigint generated by default as identity,
+    date_create timestamp,
+    date_update timestamp,
+    ip_number_create varchar(255),
+    ip_number_update varchar(255),
+    user_create bigint,
+    user_update bigint,
+    min_minutes_before bigint not null,
+    refund_rate decimal(5,4) not null,
+    primary key (id)
+);
+
+alter table guest add column member boolean default false not null;
+
+insert into pricing_rule(start_hour, end_hour, price, priority) values(0, 24, 10.00, 0);
+
+insert into refund_tier(min_minutes_before, refund_rate) values(1440, 1.0000);
+insert into refund_tier(min_minutes_before, refund_rate) values(720, 0.7500);
+insert into refund_tier(min_minutes_before, refund_rate) values(120, 0.5000);
+insert into refund_tier(min_minutes_before, refund_rate) values(1, 0.2500);
@@ -0,0 +1,39 @@
+package com.tenniscourts.admission;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    private static final long TARGET_LATENCY_NANOS = 100;
+
+    @Test
+    void testRejectsAboveLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, TARGET_LATENCY_NANOS);
+
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertTrue(limiter.tryAcquire());
+        Assertions.assertFalse(limiter.tryAcquire());
+
+        limiter.release(TARGET_LATENCY_NANOS);
+        Assertions.assertEquals(1, limiter.getInFlight());
+        Assertions.assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void testLimitFollowsLatency() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 12, TARGET_LATENCY_NANOS);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire();
+            limiter.release(TARGET_LATENCY_NANOS * 10);
+        }
+        Assertions.assertEquals(2, limiter.getLimit());
+
+        for (int i = 0; i < 1000; i++) {
+            limiter.tryAcquire();
+            limiter.release(TARGET_LATENCY_NANOS / 2);
+        }
+        Assertions.assertEquals(12, limiter.getLimit());
+    }
+}
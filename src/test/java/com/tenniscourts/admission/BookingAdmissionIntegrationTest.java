@@ -0,0 +1,102 @@
+package com.tenniscourts.admission;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.reservations.CreateReservationRequestDTO;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"tenniscourts.admission.guest.capacity=2", "tenniscourts.admission.guest.refill-per-second=0.001",
+        "tenniscourts.admission.address.capacity=3", "tenniscourts.admission.address.refill-per-second=0.001",
+        "tenniscourts.admission.client-address-header=X-Forwarded-For"})
+public class BookingAdmissionIntegrationTest {
+
+    private static final String BASE_URL = "http://localhost:8080";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Test that bookings for a guest above the booking rate get 429 before the booking reaches the database
+     */
+    @Test
+    void testGuestAboveRateIsRejected() throws Exception {
+        Guest guest = guestRepository.save(Guest.builder().name("Scripted Client").build());
+        byte[] request = objectMapper.writeValueAsBytes(new CreateReservationRequestDTO(guest.getId(), Long.MAX_VALUE));
+        JsonNode before = stats();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post(BASE_URL + "/reservations")
+                    .header("X-Forwarded-For", "198.51.100.1, 198.51.100." + (10 + i))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(request))
+                    .andExpect(status().isNotFound());
+        }
+
+        mockMvc.perform(post(BASE_URL + "/reservations")
+                .header("X-Forwarded-For", "198.51.100.12")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(request))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.code", is("TOO_MANY_REQUESTS")));
+
+        JsonNode after = stats();
+        Assertions.assertEquals(2, after.get("admitted").asLong() - before.get("admitted").asLong());
+        Assertions.assertEquals(1, after.get("rejectedByGuest").asLong() - before.get("rejectedByGuest").asLong());
+        Assertions.assertEquals(0, after.get("inFlight").asLong());
+    }
+
+    /**
+     * Test that a client rotating guest ids is held by the bucket of the address its trusted proxy forwarded
+     */
+    @Test
+    void testClientRotatingGuestsIsRejectedByForwardedAddress() throws Exception {
+        JsonNode before = stats();
+
+        for (int i = 0; i < 4; i++) {
+            Guest guest = guestRepository.save(Guest.builder().name("Rotating Client " + i).build());
+            mockMvc.perform(post(BASE_URL + "/reservations")
+                    .header("X-Forwarded-For", "10.1.1.1, 203.0.113.7")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsBytes(new CreateReservationRequestDTO(guest.getId(), Long.MAX_VALUE))))
+                    .andExpect(i < 3 ? status().isNotFound() : status().isTooManyRequests());
+        }
+
+        Guest guest = guestRepository.save(Guest.builder().name("Neighbour").build());
+        mockMvc.perform(post(BASE_URL + "/reservations")
+                .header("X-Forwarded-For", "10.1.1.1, 203.0.113.8")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(new CreateReservationRequestDTO(guest.getId(), Long.MAX_VALUE))))
+                .andExpect(status().isNotFound());
+
+        JsonNode after = stats();
+        Assertions.assertEquals(4, after.get("admitted").asLong() - before.get("admitted").asLong());
+        Assertions.assertEquals(1, after.get("rejectedByAddress").asLong() - before.get("rejectedByAddress").asLong());
+    }
+
+    private JsonNode stats() throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(BASE_URL + "/admin/admission"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray());
+    }
+}
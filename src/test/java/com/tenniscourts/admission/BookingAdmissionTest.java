@@ -0,0 +1,29 @@
+package com.tenniscourts.admission;
+
+import com.tenniscourts.exceptions.TooManyRequestsException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BookingAdmissionTest {
+
+    @Test
+    void testRejectedAttemptSpendsNoCallerToken() {
+        BookingAdmission bookingAdmission = new BookingAdmission(
+                new TokenBucketRateLimiter(1, 0.001, 10),
+                new TokenBucketRateLimiter(1, 0.001, 10),
+                new AdaptiveConcurrencyLimiter(1, 1, 1, Long.MAX_VALUE), null);
+
+        bookingAdmission.admit("someone-else", "10.0.0.1").close();
+        Assertions.assertThrows(TooManyRequestsException.class, () -> bookingAdmission.admit("guest", "10.0.0.1"));
+
+        BookingAdmission.Permit permit = bookingAdmission.admit("guest", "10.0.0.2");
+        Assertions.assertThrows(TooManyRequestsException.class, () -> bookingAdmission.admit("other", "10.0.0.3"));
+        permit.close();
+
+        AdmissionStatsDTO stats = bookingAdmission.getStats();
+        Assertions.assertEquals(2, stats.getAdmitted());
+        Assertions.assertEquals(1, stats.getRejectedByAddress());
+        Assertions.assertEquals(1, stats.getRejectedByConcurrency());
+        Assertions.assertDoesNotThrow(() -> bookingAdmission.admit("other", "10.0.0.3").close());
+    }
+}
@@ -0,0 +1,72 @@
+package com.tenniscourts.admission;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class TokenBucketRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testBucketEmptiesAndRefills() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, 10, clock::get);
+
+        Assertions.assertTrue(limiter.tryAcquire("guest-1"));
+        Assertions.assertTrue(limiter.tryAcquire("guest-1"));
+        Assertions.assertFalse(limiter.tryAcquire("guest-1"));
+        Assertions.assertTrue(limiter.tryAcquire("guest-2"));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        Assertions.assertTrue(limiter.tryAcquire("guest-1"));
+        Assertions.assertFalse(limiter.tryAcquire("guest-1"));
+    }
+
+    @Test
+    void testTableIsBounded() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 2, clock::get);
+
+        Assertions.assertTrue(limiter.tryAcquire("guest-1"));
+        Assertions.assertTrue(limiter.tryAcquire("guest-2"));
+        Assertions.assertTrue(limiter.tryAcquire("guest-3"));
+        Assertions.assertFalse(limiter.tryAcquire("guest-4"));
+        Assertions.assertEquals(3, limiter.getTrackedKeys());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assertions.assertTrue(limiter.tryAcquire("guest-5"));
+        Assertions.assertEquals(3, limiter.getTrackedKeys());
+        Assertions.assertFalse(limiter.tryAcquire("guest-5"));
+    }
+
+    @Test
+    void testBusyOldKeysAreKeptAndIdleOnesEvicted() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, 3, clock::get);
+        limiter.tryAcquire("busy");
+        limiter.tryAcquire("idle-1");
+        limiter.tryAcquire("idle-2");
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        limiter.tryAcquire("busy");
+        limiter.tryAcquire("busy");
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+
+        Assertions.assertTrue(limiter.tryAcquire("new-1"));
+        Assertions.assertTrue(limiter.tryAcquire("new-2"));
+        Assertions.assertEquals(3, limiter.getTrackedKeys());
+        // busy kept its bucket, so it is still one token short of a fresh one
+        Assertions.assertTrue(limiter.tryAcquire("busy"));
+        Assertions.assertFalse(limiter.tryAcquire("busy"));
+    }
+
+    @Test
+    void testReleaseGivesTheTokenBack() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 10, clock::get);
+
+        Assertions.assertTrue(limiter.tryAcquire("guest-1"));
+        limiter.release("guest-1");
+        Assertions.assertTrue(limiter.tryAcquire("guest-1"));
+        Assertions.assertFalse(limiter.tryAcquire("guest-1"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.tenniscourts.archive;
+
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.reports.ReportDimension;
+import com.tenniscourts.reports.ReportRollupService;
+import com.tenniscourts.reports.ReportRowDTO;
+import com.tenniscourts.reservations.Reservation;
+import com.tenniscourts.reservations.ReservationDTO;
+import com.tenniscourts.reservations.ReservationRepository;
+import com.tenniscourts.reservations.ReservationService;
+import com.tenniscourts.reservations.ReservationStatus;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"tenniscourts.archive.retention-days=30", "tenniscourts.archive.chunk-size=2"})
+public class ArchiveServiceIntegrationTest {
+
+    private static final LocalDateTime OLD_DAY = LocalDateTime.now().minusDays(60).truncatedTo(ChronoUnit.DAYS);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReportRollupService reportRollupService;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Test
+    void testArchiveMovesOldSchedulesAndKeepsThemReadable() throws Exception {
+        Guest guest = guestRepository.save(new Guest("Archived Guest"));
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Archive Court"));
+
+        List<Schedule> oldSchedules = new ArrayList<>();
+        List<Reservation> oldReservations = new ArrayList<>();
+        for (int hour = 10; hour < 13; hour++) {
+            Schedule schedule = saveSchedule(tennisCourt, OLD_DAY.plusHours(hour));
+            oldSchedules.add(schedule);
+            oldReservations.add(saveReservation(guest, schedule));
+        }
+        Schedule recentSchedule = saveSchedule(tennisCourt, LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.HOURS));
+        Reservation recentReservation = saveReservation(guest, recentSchedule);
+        reportRollupService.rebuild();
+
+        int pastBefore = reservationService.showPastReservations().size();
+
+        Assertions.assertTrue(archiveService.archive() >= oldSchedules.size());
+        oldSchedules.forEach(schedule -> Assertions.assertFalse(scheduleRepository.findById(schedule.getId()).isPresent()));
+        oldReservations.forEach(reservation -> Assertions.assertFalse(reservationRepository.findById(reservation.getId()).isPresent()));
+        Assertions.assertTrue(scheduleRepository.findById(recentSchedule.getId()).isPresent());
+        Assertions.assertTrue(reservationRepository.findById(recentReservation.getId()).isPresent());
+        Assertions.assertEquals(0, archiveService.archive());
+
+        List<ReservationDTO> past = reservationService.showPastReservations();
+        Assertions.assertEquals(pastBefore, past.size());
+        Map<Long, ReservationDTO> pastById = past.stream().collect(Collectors.toMap(ReservationDTO::getId, Function.identity()));
+        for (Reservation reservation : oldReservations) {
+            ReservationDTO archived = pastById.get(reservation.getId());
+            Assertions.assertNotNull(archived);
+            Assertions.assertEquals("Archived Guest", archived.getGuest().getName());
+            Assertions.assertEquals("Archive Court", archived.getSchedule().getTennisCourt().getName());
+            Assertions.assertEquals(ReservationStatus.READY_TO_PLAY.name(), archived.getReservationStatus());
+        }
+        Assertions.assertTrue(pastById.containsKey(recentReservation.getId()));
+
+        mockMvc.perform(get("/reservations/history")).andExpect(status().isOk());
+        mockMvc.perform(post("/admin/archive")).andExpect(status().isOk());
+
+        reportRollupService.rebuild();
+        LocalDate oldDate = OLD_DAY.toLocalDate();
+        ReportRowDTO row = reportRollupService.report(oldDate, oldDate, Collections.singleton(ReportDimension.COURT)).stream()
+                .filter(candidate -> tennisCourt.getId().equals(candidate.getTennisCourtId()))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        Assertions.assertEquals(3, row.getSlots());
+        Assertions.assertEquals(3, row.getReservations());
+        Assertions.assertEquals(0, new BigDecimal(30).compareTo(row.getRevenue()));
+    }
+
+    private Schedule saveSchedule(TennisCourt tennisCourt, LocalDateTime startDateTime) {
+        return scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(startDateTime)
+                .endDateTime(startDateTime.plusHours(1))
+                .build());
+    }
+
+    private Reservation saveReservation(Guest guest, Schedule schedule) {
+        return reservationRepository.save(Reservation.builder()
+                .guest(guest)
+                .schedule(schedule)
+                .value(new BigDecimal(10))
+                .reservationStatus(ReservationStatus.READY_TO_PLAY)
+                .build());
+    }
+}
@@ -0,0 +1,160 @@
+package com.tenniscourts.availability;
+
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.outbox.OutboxRelay;
+import com.tenniscourts.reservations.CreateReservationRequestDTO;
+import com.tenniscourts.reservations.ReservationDTO;
+import com.tenniscourts.reservations.ReservationService;
+import com.tenniscourts.schedules.CreateScheduleRequestDTO;
+import com.tenniscourts.schedules.ScheduleDTO;
+import com.tenniscourts.schedules.ScheduleService;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "tenniscourts.availability.history-size=4")
+public class AvailabilityFeedIntegrationTest {
+
+    private static final String BASE_URL = "http://localhost:8080";
+    private static final LocalDateTime START_OF_TOMORROW = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\w+)-(\\d+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AvailabilityFeed availabilityFeed;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    private TennisCourt tennisCourt;
+
+    private Guest guest;
+
+    @BeforeEach
+    void setUp() {
+        tennisCourt = tennisCourtRepository.save(new TennisCourt("Margaret Court Arena"));
+        guest = guestRepository.save(Guest.builder().name("Ashleigh Barty").build());
+        outboxRelay.drain();
+        availabilityFeed.flush();
+    }
+
+    /**
+     * Test that a burst of changes to one slot reaches subscribers as a single event with the final state
+     */
+    @Test
+    void testChangesAreCoalescedAndPushed() throws Exception {
+        MvcResult subscription = subscribe(null);
+
+        ScheduleDTO schedule = scheduleService.addSchedule(tennisCourt.getId(), new CreateScheduleRequestDTO(tennisCourt.getId(), START_OF_TOMORROW.plusHours(9)));
+        ReservationDTO reservation = reservationService.bookReservation(new CreateReservationRequestDTO(guest.getId(), schedule.getId()));
+        outboxRelay.drain();
+        availabilityFeed.flush();
+
+        String content = awaitContent(subscription, "event:availability", 1);
+        Assertions.assertEquals(1, count(content, "event:availability"));
+        Assertions.assertTrue(content.contains("\"scheduleId\":" + schedule.getId() + ",\"startDateTime\":\"" + schedule.getStartDateTime().toString().substring(0, 16)));
+        Assertions.assertTrue(content.contains("\"available\":false"));
+
+        reservationService.cancelReservation(reservation.getId());
+        outboxRelay.drain();
+        availabilityFeed.flush();
+
+        content = awaitContent(subscription, "event:availability", 2);
+        Assertions.assertEquals(2, count(content, "event:availability"));
+        Assertions.assertTrue(content.contains("\"available\":true"));
+    }
+
+    /**
+     * Test that a reconnecting client gets the events after its Last-Event-ID, and a reset when they are gone or the
+     * id is from another epoch
+     */
+    @Test
+    void testResumeWithLastEventId() throws Exception {
+        MvcResult subscription = subscribe(null);
+        scheduleService.addSchedule(tennisCourt.getId(), new CreateScheduleRequestDTO(tennisCourt.getId(), START_OF_TOMORROW.plusHours(10)));
+        outboxRelay.drain();
+        availabilityFeed.flush();
+
+        Matcher matcher = EVENT_ID.matcher(awaitContent(subscription, "event:availability", 1));
+        Assertions.assertTrue(matcher.find());
+        String epoch = matcher.group(1);
+        long eventId = Long.parseLong(matcher.group(2));
+
+        String replayed = awaitContent(subscribe(epoch + "-" + (eventId - 1)), "id:" + epoch + "-" + eventId, 1);
+        Assertions.assertTrue(replayed.contains("id:" + epoch + "-" + eventId));
+
+        Assertions.assertEquals("", subscribe(epoch + "-" + eventId).getResponse().getContentAsString());
+        Assertions.assertTrue(awaitContent(subscribe("restarted-" + (eventId - 1)), "event:reset", 1).contains("event:reset"));
+        Assertions.assertTrue(awaitContent(subscribe(String.valueOf(eventId - 1)), "event:reset", 1).contains("event:reset"));
+
+        for (int hour = 11; hour < 15; hour++) {
+            scheduleService.addSchedule(tennisCourt.getId(), new CreateScheduleRequestDTO(tennisCourt.getId(), START_OF_TOMORROW.plusHours(hour)));
+            outboxRelay.drain();
+            availabilityFeed.flush();
+        }
+        Assertions.assertTrue(awaitContent(subscribe(epoch + "-" + (eventId - 1)), "event:reset", 1).contains("event:reset"));
+        Assertions.assertTrue(awaitContent(subscribe(epoch + "-" + (eventId + 1000)), "event:reset", 1).contains("event:reset"));
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        return mockMvc.perform(lastEventId == null
+                ? get(BASE_URL + "/availability/stream?tennisCourtId=" + tennisCourt.getId() + "&date=" + START_OF_TOMORROW.toLocalDate())
+                : get(BASE_URL + "/availability/stream?tennisCourtId=" + tennisCourt.getId() + "&date=" + START_OF_TOMORROW.toLocalDate())
+                .header("Last-Event-ID", lastEventId))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+    }
+
+    /**
+     * Events are written on the feed executor, so the content is polled until the token shows up often enough.
+     */
+    private static String awaitContent(MvcResult subscription, String token, int times) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String content = subscription.getResponse().getContentAsString();
+        while (count(content, token) < times && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = subscription.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
+    private static int count(String content, String token) {
+        int count = 0;
+        for (int index = content.indexOf(token); index >= 0; index = content.indexOf(token, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,64 @@
+package com.tenniscourts.config.persistence;
+
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleDTO;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.schedules.ScheduleService;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+@SpringBootTest
+public class EntityStreamsIntegrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.now().plusYears(1).truncatedTo(ChronoUnit.DAYS);
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Test
+    void testPagesAreHandedOnOutsideTheirTransaction() {
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Paged Court"));
+        int schedules = Integer.parseInt(EntityStreams.FETCH_SIZE) * 2 + 1;
+        List<Schedule> saved = new ArrayList<>();
+        // saved in reverse, so id order and start order disagree
+        for (int i = schedules - 1; i >= 0; i--) {
+            saved.add(Schedule.builder()
+                    .tennisCourt(tennisCourt)
+                    .startDateTime(START.plusHours(i))
+                    .endDateTime(START.plusHours(i + 1))
+                    .build());
+        }
+        scheduleRepository.saveAll(saved);
+
+        List<ScheduleDTO> streamed = new ArrayList<>();
+        scheduleService.streamSchedulesByTennisCourtId(tennisCourt.getId(), scheduleDTO -> {
+            Assertions.assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            streamed.add(scheduleDTO);
+        });
+
+        Assertions.assertEquals(schedules, streamed.size());
+        for (int i = 0; i < schedules; i++) {
+            Assertions.assertEquals(START.plusHours(i), streamed.get(i).getStartDateTime());
+        }
+
+        List<ScheduleDTO> byDates = new ArrayList<>();
+        scheduleService.streamSchedulesByDates(START, START.plusHours(schedules), byDates::add);
+        Assertions.assertEquals(schedules, byDates.size());
+    }
+}
@@ -0,0 +1,158 @@
+package com.tenniscourts.config.persistence;
+
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.reservations.Reservation;
+import com.tenniscourts.reservations.ReservationRepository;
+import com.tenniscourts.reservations.ReservationStatus;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.LongFunction;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Fails when the number of JDBC statements issued by a list endpoint grows with the number of rows it returns.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class StatementCountIntegrationTest {
+
+    private static final String BASE_URL = "http://localhost:8080";
+    private static final LocalDateTime START_OF_YESTERDAY = LocalDateTime.now().minusDays(1).truncatedTo(ChronoUnit.DAYS);
+    private static final int SMALL = 2;
+    private static final int LARGE = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void destroy() {
+        reservationRepository.deleteAll();
+        scheduleRepository.deleteAll();
+        tennisCourtRepository.deleteAll();
+        guestRepository.deleteAll();
+    }
+
+    @Test
+    void testSchedulesByDates() throws Exception {
+        String url = BASE_URL + "/schedules?startDate=" + START_OF_YESTERDAY.toLocalDate() + "&endDate=" + START_OF_YESTERDAY.toLocalDate();
+        assertConstantStatementCount(url, this::seedReservations);
+    }
+
+    @Test
+    void testTennisCourtWithSchedules() throws Exception {
+        assertConstantStatementCount(null, size -> {
+            seedReservations(size);
+            TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Centre Court"));
+            for (int hour = 0; hour < size; hour++) {
+                scheduleRepository.save(Schedule.builder()
+                        .tennisCourt(tennisCourt)
+                        .startDateTime(START_OF_YESTERDAY.plusHours(hour))
+                        .endDateTime(START_OF_YESTERDAY.plusHours(hour + 1))
+                        .build());
+            }
+            return BASE_URL + "/tennisCourts/" + tennisCourt.getId() + "/withSchedules";
+        }, "$.tennisCourtSchedules");
+    }
+
+    @Test
+    void testPastReservations() throws Exception {
+        assertConstantStatementCount(BASE_URL + "/reservations/history", this::seedReservations);
+    }
+
+    @Test
+    void testGuests() throws Exception {
+        assertConstantStatementCount(BASE_URL + "/guests", this::seedReservations);
+    }
+
+    private void assertConstantStatementCount(String url, LongFunction<String> seed) throws Exception {
+        assertConstantStatementCount(url, seed, "$");
+    }
+
+    private void assertConstantStatementCount(String url, LongFunction<String> seed, String listPath) throws Exception {
+        long smallCount = countStatements(url, seed, SMALL, listPath);
+        destroy();
+        long largeCount = countStatements(url, seed, LARGE, listPath);
+        Assertions.assertEquals(smallCount, largeCount, "Statement count grows with result size for " + url);
+    }
+
+    private long countStatements(String url, LongFunction<String> seed, int size, String listPath) throws Exception {
+        String seededUrl = seed.apply(size);
+        String requestUrl = url != null ? url : seededUrl;
+
+        statistics.clear();
+        MvcResult mvcResult = mockMvc.perform(get(requestUrl))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(listPath, hasSize(size)));
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Books one past reservation per court and guest, so every row of a list references distinct associated entities.
+     */
+    private String seedReservations(long size) {
+        for (int i = 0; i < size; i++) {
+            TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Court " + i));
+            Guest guest = guestRepository.save(Guest.builder().name("Guest " + i).build());
+            Schedule schedule = scheduleRepository.save(Schedule.builder()
+                    .tennisCourt(tennisCourt)
+                    .startDateTime(START_OF_YESTERDAY.plusHours(i))
+                    .endDateTime(START_OF_YESTERDAY.plusHours(i + 1))
+                    .build());
+            reservationRepository.save(Reservation.builder()
+                    .guest(guest)
+                    .schedule(schedule)
+                    .value(new BigDecimal("10.00"))
+                    .reservationStatus(ReservationStatus.READY_TO_PLAY)
+                    .build());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,45 @@
+package com.tenniscourts.config.startup;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Boots the prod profile: the schema comes from the Flyway migrations and Hibernate validates the mappings against it.
+ */
+@ActiveProfiles("prod")
+@AutoConfigureMockMvc
+@SpringBootTest
+public class ProdProfileIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Test
+    void testMigrationsMatchEntityMappings() throws Exception {
+        Assertions.assertNotNull(flyway.info().current());
+        Assertions.assertEquals(0, flyway.info().pending().length);
+
+        mockMvc.perform(get("/guests"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testSwaggerDocsBuiltOnDemand() throws Exception {
+        mockMvc.perform(get("/v2/api-docs"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paths['/guests']").exists());
+    }
+}
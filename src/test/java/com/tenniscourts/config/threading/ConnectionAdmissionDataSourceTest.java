@@ -0,0 +1,42 @@
+package com.tenniscourts.config.threading;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+public class ConnectionAdmissionDataSourceTest {
+
+    private ConnectionAdmissionDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setURL("jdbc:h2:mem:admission");
+        dataSource = new ConnectionAdmissionDataSource(h2DataSource, 2, 50);
+    }
+
+    @Test
+    void testConnectionsAreBoundedAndReleasedOnClose() throws Exception {
+        Connection connection1 = dataSource.getConnection();
+        Connection connection2 = dataSource.getConnection();
+        Assertions.assertEquals(0, dataSource.getAvailablePermits());
+
+        Assertions.assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+
+        connection1.close();
+        connection1.close();
+        Assertions.assertEquals(1, dataSource.getAvailablePermits());
+
+        try (Connection connection3 = dataSource.getConnection()) {
+            Assertions.assertTrue(connection3.isValid(1));
+            Assertions.assertEquals(0, dataSource.getAvailablePermits());
+        }
+
+        connection2.close();
+        Assertions.assertEquals(2, dataSource.getAvailablePermits());
+    }
+}
@@ -0,0 +1,85 @@
+package com.tenniscourts.config.threading;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class HierarchicalTimingWheelTest {
+
+    private static final long START = 1_000_000L;
+
+    @Test
+    void testTasksFireAtTheirDeadlineAcrossLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 8, START);
+        Random random = new Random(42);
+        Map<Long, Long> deadlines = new HashMap<>();
+        for (long task = 0; task < 2_000; task++) {
+            long deadline = START + random.nextInt(500_000);
+            deadlines.put(task, deadline);
+            wheel.schedule(task, deadline);
+        }
+        Assertions.assertTrue(wheel.levelCount() > 3);
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = START; now <= START + 500_010; now += 7) {
+            long time = now;
+            wheel.advance(time, task -> {
+                long deadline = deadlines.get(task);
+                Assertions.assertTrue(deadline <= time, "fired early");
+                Assertions.assertTrue(time - deadline < 10 + 7, "fired late");
+                fired.add(task);
+            });
+        }
+
+        Assertions.assertEquals(deadlines.size(), fired.size());
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testPastDeadlineFiresOnNextAdvance() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(100, 16, START);
+        wheel.schedule("overdue", START - 5_000);
+        wheel.schedule("due", START + 250);
+
+        List<String> fired = new ArrayList<>();
+        Assertions.assertEquals(1, wheel.advance(START, fired::add));
+        Assertions.assertEquals(0, wheel.advance(START + 299, fired::add));
+        Assertions.assertEquals(1, wheel.advance(START + 300, fired::add));
+        Assertions.assertEquals(Arrays.asList("overdue", "due"), fired);
+    }
+
+    @Test
+    void testIdleWheelJumpsToNow() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 64, START);
+        Assertions.assertEquals(0, wheel.advance(START + 86_400_000L, task -> Assertions.fail()));
+
+        wheel.schedule("hold", START + 86_400_000L + 5);
+        List<String> fired = new ArrayList<>();
+        wheel.advance(START + 86_400_000L + 4, fired::add);
+        Assertions.assertTrue(fired.isEmpty());
+        wheel.advance(START + 86_400_000L + 5, fired::add);
+        Assertions.assertEquals(Arrays.asList("hold"), fired);
+    }
+
+    @Test
+    void testMillionHoldsScheduleAndExpire() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(100, 512, START);
+        int holds = 1_000_000;
+        for (int i = 0; i < holds; i++) {
+            wheel.schedule(i, START + 300_000 + (i % 60_000));
+        }
+        Assertions.assertEquals(holds, wheel.size());
+
+        int[] fired = {0};
+        for (long now = START; now <= START + 400_000; now += 1_000) {
+            wheel.advance(now, task -> fired[0]++);
+        }
+        Assertions.assertEquals(holds, fired[0]);
+    }
+}
@@ -0,0 +1,40 @@
+package com.tenniscourts.config.web;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.Map;
+
+public class ResponseStreamsTest {
+
+    @Test
+    void testElementsAreFlushedOncePerPage() throws Exception {
+        ResponseStreams responseStreams = new ResponseStreams(new StaticApplicationContext(), 262144);
+        ResponseEntity<StreamingResponseBody> response = responseStreams.<Map<String, Integer>>arrayResponse(consumer -> {
+            for (int i = 0; i < 1_200; i++) {
+                consumer.accept(Collections.singletonMap("value", i));
+            }
+        });
+
+        FlushCountingOutputStream outputStream = new FlushCountingOutputStream();
+        response.getBody().writeTo(outputStream);
+
+        Assertions.assertTrue(outputStream.toString("UTF-8").endsWith("{\"value\":1199}]"));
+        Assertions.assertTrue(outputStream.flushes <= 4, "Flushed " + outputStream.flushes + " times");
+    }
+
+    private static final class FlushCountingOutputStream extends ByteArrayOutputStream {
+
+        private int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
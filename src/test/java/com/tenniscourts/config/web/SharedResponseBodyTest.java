@@ -0,0 +1,101 @@
+package com.tenniscourts.config.web;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class SharedResponseBodyTest {
+
+    @Test
+    void testReaderGetsWhatWasWrittenBeforeAndAfterItJoined() throws Exception {
+        ByteArrayOutputStream writerOutput = new ByteArrayOutputStream();
+        SharedResponseBody body = new SharedResponseBody(writerOutput, 1024);
+        body.write(ascii("[1,"));
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            ByteArrayOutputStream readerOutput = new ByteArrayOutputStream();
+            Assertions.assertTrue(body.join());
+            Future<?> reader = executorService.submit(() -> {
+                body.copyTo(readerOutput);
+                return null;
+            });
+            body.write(ascii("2]"));
+            body.finish();
+
+            reader.get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals("[1,2]", readerOutput.toString("US-ASCII"));
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assertions.assertEquals("[1,2]", writerOutput.toString("US-ASCII"));
+    }
+
+    @Test
+    void testFailureReachesTheReaders() throws IOException {
+        SharedResponseBody body = new SharedResponseBody(new ByteArrayOutputStream(), 1024);
+        body.write(ascii("[1,"));
+        body.close();
+        Assertions.assertTrue(body.join());
+        body.fail(new IllegalStateException("Database unavailable"));
+
+        Assertions.assertThrows(IOException.class, () -> body.copyTo(new ByteArrayOutputStream()));
+        Assertions.assertFalse(body.join());
+    }
+
+    @Test
+    void testWriterStopsWhenItsClientIsGoneAndNobodyReads() throws IOException {
+        SharedResponseBody body = new SharedResponseBody(new BrokenOutputStream(), 1024);
+        body.write(ascii("[1,"));
+
+        Assertions.assertThrows(IOException.class, () -> body.write(ascii("2]")));
+        Assertions.assertThrows(IOException.class, body::checkWriterOutput);
+    }
+
+    @Test
+    void testReaderLeavingDoesNotStopTheBodyForTheOthers() throws IOException {
+        SharedResponseBody body = new SharedResponseBody(new BrokenOutputStream(), 1024);
+        Assertions.assertTrue(body.join());
+        Assertions.assertTrue(body.join());
+        body.write(ascii("[1,"));
+
+        Assertions.assertThrows(IOException.class, () -> body.copyTo(new BrokenOutputStream()));
+        body.write(ascii("2]"));
+        body.finish();
+
+        ByteArrayOutputStream readerOutput = new ByteArrayOutputStream();
+        body.copyTo(readerOutput);
+        Assertions.assertEquals("[1,2]", readerOutput.toString("US-ASCII"));
+    }
+
+    @Test
+    void testBodyOverTheCapTakesNoNewReadersAndDropsLaggingOnes() throws IOException {
+        SharedResponseBody body = new SharedResponseBody(new ByteArrayOutputStream(), 4);
+        Assertions.assertTrue(body.join());
+        body.write(ascii("[1,"));
+        body.write(ascii("2,"));
+
+        Assertions.assertFalse(body.join());
+        Assertions.assertThrows(IOException.class, () -> body.copyTo(new ByteArrayOutputStream()));
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static final class BrokenOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            throw new IOException("Broken pipe");
+        }
+    }
+}
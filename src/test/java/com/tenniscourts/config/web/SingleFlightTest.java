@@ -0,0 +1,138 @@
+package com.tenniscourts.config.web;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SingleFlightTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void testConcurrentCallsRunLoaderOnce() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(0);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executorService.submit(() -> singleFlight.execute("2020-01-01", () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return "schedules";
+            })));
+            loaderStarted.await();
+            for (int i = 0; i < 7; i++) {
+                results.add(executorService.submit(() -> singleFlight.execute("2020-01-01", () -> {
+                    loads.incrementAndGet();
+                    return "reloaded";
+                })));
+            }
+            while (singleFlight.getStats().getCoalesced() < 7) {
+                Thread.sleep(1);
+            }
+            releaseLoader.countDown();
+
+            for (Future<String> result : results) {
+                Assertions.assertEquals("schedules", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        Assertions.assertEquals(1, loads.get());
+        Assertions.assertEquals(1, singleFlight.getStats().getExecutions());
+        Assertions.assertEquals(0.875, singleFlight.getStats().getCoalescingRatio());
+
+        Assertions.assertEquals("reloaded", singleFlight.execute("2020-01-01", () -> "reloaded"));
+    }
+
+    @Test
+    void testCompletedCallIsNotKept() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(0);
+
+        Assertions.assertEquals("first", singleFlight.execute("2020-01-01", () -> "first"));
+        Assertions.assertEquals(0, singleFlight.tracked());
+        Assertions.assertEquals("second", singleFlight.execute("2020-01-01", () -> "second"));
+    }
+
+    @Test
+    void testResultIsSharedWithinFreshnessWindow() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(100, clock::get);
+
+        Assertions.assertEquals("first", singleFlight.execute("2020-01-01", () -> "first"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        Assertions.assertEquals("first", singleFlight.execute("2020-01-01", () -> "second"));
+        clock.addAndGet(1);
+        Assertions.assertEquals("third", singleFlight.execute("2020-01-01", () -> "third"));
+    }
+
+    @Test
+    void testRefusedCallerRunsItsOwnCallForLaterCallers() {
+        SingleFlight<String, StringBuffer> singleFlight = new SingleFlight<>(100, clock::get);
+
+        StringBuffer first = singleFlight.share("2020-01-01", StringBuffer::new, buffer -> buffer.append("first"), buffer -> true);
+        StringBuffer second = singleFlight.share("2020-01-01", StringBuffer::new, buffer -> buffer.append("second"), buffer -> false);
+        StringBuffer third = singleFlight.share("2020-01-01", StringBuffer::new, buffer -> buffer.append("third"), buffer -> true);
+
+        Assertions.assertEquals("first", first.toString());
+        Assertions.assertEquals("second", second.toString());
+        Assertions.assertSame(second, third);
+        Assertions.assertEquals(2, singleFlight.getStats().getExecutions());
+    }
+
+    @Test
+    void testSharedResultIsHandedOutWhileItIsWritten() throws Exception {
+        SingleFlight<String, StringBuffer> singleFlight = new SingleFlight<>(0);
+        CountDownLatch followerJoined = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<StringBuffer> leader = executorService.submit(() -> singleFlight.share("2020-01-01", StringBuffer::new, buffer -> {
+                buffer.append("first half");
+                await(followerJoined);
+                buffer.append(", second half");
+            }, buffer -> true));
+            while (singleFlight.tracked() == 0) {
+                Thread.sleep(1);
+            }
+
+            StringBuffer shared = singleFlight.share("2020-01-01", StringBuffer::new, buffer -> buffer.append("reloaded"), buffer -> true);
+            followerJoined.countDown();
+
+            Assertions.assertSame(leader.get(5, TimeUnit.SECONDS), shared);
+            Assertions.assertEquals("first half, second half", shared.toString());
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assertions.assertEquals(0, singleFlight.tracked());
+    }
+
+    @Test
+    void testFailureIsNotShared() {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(100, clock::get);
+
+        Assertions.assertThrows(IllegalStateException.class, () -> singleFlight.execute("2020-01-01", () -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+        Assertions.assertEquals("schedules", singleFlight.execute("2020-01-01", () -> "schedules"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
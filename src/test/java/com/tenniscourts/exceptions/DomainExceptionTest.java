@@ -0,0 +1,18 @@
+package com.tenniscourts.exceptions;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DomainExceptionTest {
+
+    @Test
+    void testDomainExceptionsAreStackless() {
+        DomainException exception = new AlreadyExistsEntityException("Reservation already exists");
+        exception.addSuppressed(new IllegalStateException());
+
+        Assertions.assertEquals(0, exception.getStackTrace().length);
+        Assertions.assertEquals(0, exception.getSuppressed().length);
+        Assertions.assertEquals(ErrorCode.ALREADY_EXISTS, exception.getErrorCode());
+        Assertions.assertEquals("Reservation already exists", exception.getMessage());
+    }
+}
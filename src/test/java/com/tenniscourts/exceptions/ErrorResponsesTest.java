@@ -0,0 +1,44 @@
+package com.tenniscourts.exceptions;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+public class ErrorResponsesTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testRenderedBodyMatchesErrorDetails() throws Exception {
+        ErrorResponses errorResponses = new ErrorResponses();
+
+        JsonNode body = objectMapper.readTree(errorResponses.body(ErrorCode.ALREADY_EXISTS, "Court \"1\" is taken\n", "/reservations/\u00e9"));
+
+        Assertions.assertEquals("Court \"1\" is taken\n", body.get("message").asText());
+        Assertions.assertEquals("uri=/reservations/\u00e9", body.get("details").asText());
+        Assertions.assertEquals("ALREADY_EXISTS", body.get("code").asText());
+        Assertions.assertNotNull(LocalDateTime.parse(body.get("timestamp").asText()));
+    }
+
+    @Test
+    void testMessageCacheIsBounded() {
+        ErrorResponses errorResponses = new ErrorResponses();
+        for (int i = 0; i < ErrorResponses.MAX_CACHED_MESSAGES * 2; i++) {
+            errorResponses.body(ErrorCode.ENTITY_NOT_FOUND, "Reservation " + i + " not found.", "/reservations");
+        }
+        Assertions.assertEquals(ErrorResponses.MAX_CACHED_MESSAGES, errorResponses.cachedMessages(ErrorCode.ENTITY_NOT_FOUND));
+    }
+
+    @Test
+    void testOnlyJsonPreferringClientsGetTheRenderedBody() {
+        Assertions.assertTrue(ErrorResponses.prefersJson(null));
+        Assertions.assertTrue(ErrorResponses.prefersJson("*/*"));
+        Assertions.assertTrue(ErrorResponses.prefersJson("application/json;charset=UTF-8"));
+        Assertions.assertTrue(ErrorResponses.prefersJson("text/html;q=0.5, application/json"));
+        Assertions.assertFalse(ErrorResponses.prefersJson("application/cbor"));
+        Assertions.assertFalse(ErrorResponses.prefersJson("application/x-jackson-smile, application/json;q=0.1"));
+    }
+}
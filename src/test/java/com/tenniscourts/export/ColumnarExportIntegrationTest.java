@@ -0,0 +1,152 @@
+package com.tenniscourts.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.reservations.Reservation;
+import com.tenniscourts.reservations.ReservationRepository;
+import com.tenniscourts.reservations.ReservationStatus;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.FileSystemUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "tenniscourts.export.enabled=true",
+        "tenniscourts.export.directory=${java.io.tmpdir}/tenniscourts-export-test",
+        "tenniscourts.export.row-group-size=2",
+        "tenniscourts.export.overlap-seconds=0"})
+public class ColumnarExportIntegrationTest {
+
+    private static final LocalDateTime START_OF_TOMORROW = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Value("${tenniscourts.export.directory}")
+    private Path directory;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        FileSystemUtils.deleteRecursively(directory.toFile());
+    }
+
+    /**
+     * Test that each run exports only changed rows, partitioned by slot date, and that the files read back column by column
+     */
+    @Test
+    void testIncrementalExport() throws Exception {
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Court Suzanne-Lenglen"));
+        Guest guest = guestRepository.save(Guest.builder().name("Iga Swiatek").build());
+        List<Reservation> reservations = new ArrayList<>();
+        for (int hour = 0; hour < 3; hour++) {
+            reservations.add(book(tennisCourt, guest, START_OF_TOMORROW.plusHours(9 + hour)));
+        }
+        book(tennisCourt, guest, START_OF_TOMORROW.plusDays(1).plusHours(9));
+
+        Map<String, Long> exported = export();
+        Assertions.assertTrue(exported.get("reservations") >= 4);
+        Assertions.assertTrue(exported.get("schedules") >= 4);
+
+        List<Object[]> tomorrow = read("reservations", START_OF_TOMORROW, Arrays.asList("id", "reservation_status", "tennis_court_name"));
+        Assertions.assertEquals(3, tomorrow.size());
+        Assertions.assertEquals(reservations.get(0).getId(), tomorrow.get(0)[0]);
+        Assertions.assertEquals("READY_TO_PLAY", tomorrow.get(0)[1]);
+        Assertions.assertEquals("Court Suzanne-Lenglen", tomorrow.get(0)[2]);
+        Assertions.assertEquals(1, read("reservations", START_OF_TOMORROW.plusDays(1), Arrays.asList("id")).size());
+
+        Assertions.assertEquals(0L, export().get("reservations"));
+
+        Reservation cancelled = reservationRepository.findById(reservations.get(1).getId()).get();
+        cancelled.setReservationStatus(ReservationStatus.CANCELLED);
+        cancelled.setRefundValue(new BigDecimal("10.00"));
+        reservationRepository.save(cancelled);
+
+        exported = export();
+        Assertions.assertEquals(1L, exported.get("reservations"));
+        Assertions.assertEquals(0L, exported.get("schedules"));
+
+        List<Object[]> latest = read("reservations", START_OF_TOMORROW, Arrays.asList("date_update", "id", "reservation_status", "refund_value"));
+        latest.sort((left, right) -> ((LocalDateTime) right[0]).compareTo((LocalDateTime) left[0]));
+        Assertions.assertEquals(cancelled.getId(), latest.get(0)[1]);
+        Assertions.assertEquals("CANCELLED", latest.get(0)[2]);
+        Assertions.assertEquals(new BigDecimal("10.00"), latest.get(0)[3]);
+    }
+
+    private Reservation book(TennisCourt tennisCourt, Guest guest, LocalDateTime startDateTime) {
+        Schedule schedule = scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(startDateTime)
+                .endDateTime(startDateTime.plusHours(1))
+                .build());
+        return reservationRepository.save(Reservation.builder()
+                .guest(guest)
+                .schedule(schedule)
+                .value(new BigDecimal("10.00"))
+                .reservationStatus(ReservationStatus.READY_TO_PLAY)
+                .build());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> export() throws Exception {
+        byte[] response = mockMvc.perform(post("http://localhost:8080/admin/exports"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        Map<String, Number> exported = objectMapper.readValue(response, Map.class);
+        return exported.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().longValue()));
+    }
+
+    private List<Object[]> read(String dataset, LocalDateTime date, List<String> columns) throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        Path partition = directory.resolve(dataset).resolve("date=" + date.toLocalDate());
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(partition)) {
+            files = paths.filter(path -> path.toString().endsWith(ColumnarExport.FILE_EXTENSION)).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            try (ColumnarReader reader = new ColumnarReader(file)) {
+                reader.read(columns, rows::add);
+            }
+        }
+        return rows;
+    }
+}
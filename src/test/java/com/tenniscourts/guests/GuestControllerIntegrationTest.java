@@ -9,6 +9,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.hasSize;
@@ -45,8 +46,11 @@ public class GuestControllerIntegrationTest {
                 .content(objectMapper.writeValueAsBytes(guestDTO)))
                 .andExpect(status().isCreated());
 
-        mockMvc.perform(get(BASE_URL + "/guests?name=Novak Djokovic")
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/guests?name=Novak Djokovic")
                 .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$", hasSize(1)))
@@ -66,8 +70,11 @@ public class GuestControllerIntegrationTest {
                 .andExpect(jsonPath("$.name", is("N Djokovic")))
                 .andExpect((jsonPath("$.id", is(3))));
 
-        mockMvc.perform(get(BASE_URL + "/guests")
+        mvcResult = mockMvc.perform(get(BASE_URL + "/guests")
                 .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$", hasSize(3)));
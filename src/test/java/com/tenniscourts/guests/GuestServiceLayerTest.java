@@ -1,5 +1,6 @@
 package com.tenniscourts.guests;
 
+import com.tenniscourts.config.persistence.EntityStreams;
 import com.tenniscourts.exceptions.EntityNotFoundException;
 import org.junit.FixMethodOrder;
 import org.junit.jupiter.api.Assertions;
@@ -30,7 +31,7 @@ public class GuestServiceLayerTest {
     @BeforeEach
     void setUp() {
         guestMapper = new GuestMapperImpl();
-        guestService = new GuestService(guestRepository, guestMapper);
+        guestService = new GuestService(guestRepository, guestMapper, Mockito.mock(EntityStreams.class));
     }
 
     @Test
@@ -0,0 +1,104 @@
+package com.tenniscourts.journal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class MappedJournalTest {
+
+    private static final int SEGMENT_BYTES = 256;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsRollOverSegmentsAndSurviveReopening() throws IOException {
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_BYTES);
+        for (int i = 1; i <= 40; i++) {
+            Assertions.assertEquals(i, journal.append(payload("record-" + i)));
+        }
+        Assertions.assertTrue(journal.getSegmentCount() > 1);
+        journal.close();
+
+        MappedJournal reopened = new MappedJournal(directory, SEGMENT_BYTES);
+        Assertions.assertEquals(40, reopened.getLastSequence());
+        Assertions.assertEquals(41, reopened.append(payload("record-41")));
+        Assertions.assertEquals(Arrays.asList("record-39", "record-40", "record-41"), replay(reopened, 38));
+        Assertions.assertEquals(41, replay(reopened, 0).size());
+    }
+
+    @Test
+    void testTornRecordIsDroppedAndOverwritten() throws IOException {
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_BYTES);
+        journal.append(payload("first"));
+        journal.append(payload("second"));
+        journal.close();
+
+        // flip a payload byte of the last record, as a crash in the middle of the write would leave it
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int secondPayload = 2 * MappedJournal.HEADER_BYTES + "first".length();
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), secondPayload);
+        }
+
+        MappedJournal reopened = new MappedJournal(directory, SEGMENT_BYTES);
+        Assertions.assertEquals(1, reopened.getLastSequence());
+        Assertions.assertEquals(2, reopened.append(payload("again")));
+        reopened.close();
+        Assertions.assertEquals(Arrays.asList("first", "again"), replay(new MappedJournal(directory, SEGMENT_BYTES), 0));
+    }
+
+    @Test
+    void testCoveredSegmentsAreDeleted() throws IOException {
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_BYTES);
+        for (int i = 1; i <= 40; i++) {
+            journal.append(payload("record-" + i));
+        }
+        int segmentCount = journal.getSegmentCount();
+
+        Assertions.assertEquals(0, journal.deleteSegmentsUpTo(1));
+        int deleted = journal.deleteSegmentsUpTo(30);
+        Assertions.assertTrue(deleted > 0);
+        Assertions.assertEquals(segmentCount - deleted, segments().size());
+
+        List<String> tail = replay(journal, 30);
+        Assertions.assertEquals(10, tail.size());
+        Assertions.assertEquals("record-31", tail.get(0));
+        journal.deleteSegmentsUpTo(journal.getLastSequence());
+        Assertions.assertEquals(1, journal.getSegmentCount());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> journal.append(new byte[SEGMENT_BYTES]));
+    }
+
+    private List<String> replay(MappedJournal journal, long afterSequence) {
+        List<String> records = new ArrayList<>();
+        journal.replay(afterSequence, (payload, sequence) -> {
+            byte[] bytes = new byte[payload.remaining()];
+            payload.get(bytes);
+            records.add(new String(bytes, StandardCharsets.UTF_8));
+        });
+        return records;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static byte[] payload(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
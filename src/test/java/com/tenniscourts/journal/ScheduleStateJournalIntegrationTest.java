@@ -0,0 +1,127 @@
+package com.tenniscourts.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.outbox.OutboxRelay;
+import com.tenniscourts.reservations.CreateReservationRequestDTO;
+import com.tenniscourts.reservations.ReservationDTO;
+import com.tenniscourts.reservations.ReservationService;
+import com.tenniscourts.schedules.CreateScheduleRequestDTO;
+import com.tenniscourts.schedules.ScheduleDTO;
+import com.tenniscourts.schedules.ScheduleService;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        "tenniscourts.journal.enabled=true",
+        "tenniscourts.journal.directory=${java.io.tmpdir}/tenniscourts-journal-test-${random.uuid}",
+        "tenniscourts.journal.segment-bytes=512"})
+public class ScheduleStateJournalIntegrationTest {
+
+    private static final LocalDateTime START_OF_NEXT_DAY = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ScheduleStateJournal scheduleStateJournal;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testViewFollowsEventsAndRecoversFromSnapshotAndTail() throws Exception {
+        Guest guest = guestRepository.save(new Guest("Journaled Guest"));
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Journaled Court"));
+        LocalDate date = START_OF_NEXT_DAY.toLocalDate();
+
+        ScheduleDTO first = addSchedule(tennisCourt, 8);
+        ScheduleDTO second = addSchedule(tennisCourt, 9);
+        ReservationDTO booked = book(guest, first);
+        outboxRelay.drain();
+
+        mockMvc.perform(get("/admin/journal/slots?tennisCourtId=" + tennisCourt.getId() + "&date=" + date))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].scheduleId", is(first.getId().intValue())))
+                .andExpect(jsonPath("$[0].available", is(false)))
+                .andExpect(jsonPath("$[1].available", is(true)));
+
+        mockMvc.perform(post("/admin/journal/snapshot"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.snapshotSequence", is((int) scheduleStateJournal.getStats().getLastSequence())));
+
+        reservationService.cancelReservation(booked.getId());
+        book(guest, second);
+        for (int hour = 10; hour < 22; hour++) {
+            addSchedule(tennisCourt, hour);
+        }
+        outboxRelay.drain();
+        Assertions.assertTrue(scheduleStateJournal.getStats().getSegments() > 1);
+
+        scheduleStateJournal.close();
+        ScheduleStateJournal recovered = new ScheduleStateJournal(scheduleStateJournal.getDirectory(),
+                new MappedJournal(scheduleStateJournal.getDirectory(), 512), new JdbcTemplate(dataSource), objectMapper, Duration.ofDays(365));
+        recovered.recover();
+
+        Assertions.assertEquals(scheduleStateJournal.getStats().getSnapshotSequence(), recovered.getStats().getSnapshotSequence());
+        Assertions.assertEquals(scheduleStateJournal.getStats().getLastSequence() - recovered.getStats().getSnapshotSequence(),
+                recovered.getStats().getReplayedRecords());
+        Assertions.assertEquals(14, recovered.findSlots(tennisCourt.getId(), date).size());
+        Assertions.assertTrue(recovered.findSlots(tennisCourt.getId(), date).get(0).isAvailable());
+        Assertions.assertFalse(recovered.findSlots(tennisCourt.getId(), date).get(1).isAvailable());
+        Assertions.assertEquals(scheduleStateJournal.findSlots(tennisCourt.getId(), date).toString(), recovered.findSlots(tennisCourt.getId(), date).toString());
+    }
+
+    private ScheduleDTO addSchedule(TennisCourt tennisCourt, int hour) {
+        CreateScheduleRequestDTO createScheduleRequestDTO = new CreateScheduleRequestDTO(tennisCourt.getId(), START_OF_NEXT_DAY.plusHours(hour));
+        return scheduleService.addSchedule(tennisCourt.getId(), createScheduleRequestDTO);
+    }
+
+    private ReservationDTO book(Guest guest, ScheduleDTO schedule) {
+        return reservationService.bookReservation(CreateReservationRequestDTO.builder()
+                .guestId(guest.getId())
+                .scheduleId(schedule.getId())
+                .build());
+    }
+}
@@ -0,0 +1,65 @@
+package com.tenniscourts.monitoring;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+public class SlowQueryDataSourceTest {
+
+    private SlowQueryLog slowQueryLog;
+
+    private SlowQueryDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2DataSource = new JdbcDataSource();
+        h2DataSource.setURL("jdbc:h2:mem:slowQueries;DB_CLOSE_DELAY=-1");
+        slowQueryLog = new SlowQueryLog(0, 0, 10, true);
+        dataSource = new SlowQueryDataSource(h2DataSource, slowQueryLog);
+    }
+
+    @Test
+    void testStatementsAreTimedWithParametersAndPlan() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table if not exists court (id bigint primary key, name varchar(255))");
+                statement.executeUpdate("delete from court");
+            }
+            try (PreparedStatement statement = connection.prepareStatement("insert into court (id, name) values (?, ?)")) {
+                statement.setLong(1, 1L);
+                statement.setString(2, "Court 1");
+                statement.executeUpdate();
+            }
+            try (PreparedStatement statement = connection.prepareStatement("select name from court where id = ?")) {
+                statement.setLong(1, 1L);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    Assertions.assertTrue(resultSet.next());
+                    Assertions.assertEquals("Court 1", resultSet.getString(1));
+                }
+            }
+        }
+
+        List<SlowQueryDTO> slowestQueries = slowQueryLog.getSlowestQueries();
+        Assertions.assertEquals(4, slowestQueries.size());
+        Assertions.assertTrue(slowestQueries.get(0).getDurationMillis() >= slowestQueries.get(3).getDurationMillis());
+
+        SlowQueryDTO select = slowestQueries.stream()
+                .filter(query -> query.getSql().startsWith("select"))
+                .findFirst()
+                .get();
+        Assertions.assertEquals(1, select.getParameters().size());
+        Assertions.assertEquals("1", select.getParameters().get(0));
+        Assertions.assertNotNull(select.getPlan());
+        Assertions.assertTrue(select.getPlan().contains("COURT"));
+
+        slowQueryLog.reset();
+        Assertions.assertTrue(slowQueryLog.getSlowestQueries().isEmpty());
+    }
+}
@@ -0,0 +1,228 @@
+package com.tenniscourts.outbox;
+
+import com.tenniscourts.exceptions.InvalidRequestException;
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.reservations.CreateReservationRequestDTO;
+import com.tenniscourts.reservations.ReservationDTO;
+import com.tenniscourts.reservations.ReservationService;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@SpringBootTest(properties = "tenniscourts.outbox.retention-hours=0")
+public class OutboxRelayIntegrationTest {
+
+    private static final LocalDateTime START_OF_TOMORROW = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxParkedEventRepository outboxParkedEventRepository;
+
+    @Autowired
+    private OutboxCursorRepository outboxCursorRepository;
+
+    @Autowired
+    private RecordingSubscriber recordingSubscriber;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    private Guest guest;
+
+    private TennisCourt tennisCourt;
+
+    @BeforeEach
+    void setUp() {
+        guest = guestRepository.save(Guest.builder().name("Naomi Osaka").build());
+        tennisCourt = tennisCourtRepository.save(new TennisCourt("Arthur Ashe"));
+        outboxRelay.drain();
+        recordingSubscriber.reset();
+    }
+
+    @AfterEach
+    void destroy() {
+        recordingSubscriber.reset();
+    }
+
+    @Test
+    void testEventsAreDeliveredInOrderAfterCommit() {
+        ReservationDTO reservation = book(START_OF_TOMORROW);
+        reservationService.cancelReservation(reservation.getId());
+
+        Assertions.assertTrue(recordingSubscriber.getEvents().isEmpty());
+        Assertions.assertEquals(2, outboxRelay.drain());
+
+        Assertions.assertEquals(Arrays.asList("RESERVATION_BOOKED #" + reservation.getId(), "RESERVATION_CANCELLED #" + reservation.getId()),
+                recordingSubscriber.getEvents());
+        Assertions.assertEquals(0, outboxRelay.getPendingEvents());
+        Assertions.assertEquals(0, outboxRelay.drain());
+    }
+
+    @Test
+    void testFailedAggregateIsRetriedInOrder() {
+        ReservationDTO failing = book(START_OF_TOMORROW);
+        ReservationDTO other = book(START_OF_TOMORROW.plusHours(1));
+        reservationService.cancelReservation(failing.getId());
+
+        recordingSubscriber.failOnce(failing.getId());
+        Assertions.assertEquals(1, outboxRelay.drain());
+        Assertions.assertEquals(Arrays.asList("RESERVATION_BOOKED #" + other.getId()), recordingSubscriber.getEvents());
+        Assertions.assertEquals(2, outboxRelay.getPendingEvents());
+
+        Assertions.assertEquals(2, outboxRelay.drain());
+        Assertions.assertEquals(Arrays.asList("RESERVATION_BOOKED #" + other.getId(),
+                "RESERVATION_BOOKED #" + failing.getId(), "RESERVATION_CANCELLED #" + failing.getId()), recordingSubscriber.getEvents());
+    }
+
+    @Test
+    void testEventIsParkedAfterMaxAttempts() {
+        ReservationDTO failing = book(START_OF_TOMORROW);
+        recordingSubscriber.failAlways(failing.getId());
+
+        for (int attempt = 0; attempt < 10; attempt++) {
+            Assertions.assertEquals(0, outboxRelay.drain());
+        }
+        Assertions.assertEquals(0, outboxRelay.getPendingEvents());
+        OutboxEvent booked = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId().equals(failing.getId()))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        List<OutboxParkedEvent> parked = outboxParkedEventRepository.findByEventId(booked.getId());
+        Assertions.assertEquals(1, parked.size());
+        Assertions.assertEquals(10, parked.get(0).getAttempts());
+        Assertions.assertEquals(outboxRelay.getNodeId(), parked.get(0).getNodeId());
+
+        recordingSubscriber.reset();
+        reservationService.cancelReservation(failing.getId());
+        Assertions.assertEquals(1, outboxRelay.drain());
+        Assertions.assertEquals(Arrays.asList("RESERVATION_CANCELLED #" + failing.getId()), recordingSubscriber.getEvents());
+    }
+
+    @Test
+    void testPurgeKeepsEventsAnotherNodeHasNotReadAndParkedEvents() {
+        ReservationDTO failing = book(START_OF_TOMORROW);
+        recordingSubscriber.failAlways(failing.getId());
+        for (int attempt = 0; attempt < 10; attempt++) {
+            outboxRelay.drain();
+        }
+        ReservationDTO delivered = book(START_OF_TOMORROW.plusHours(1));
+        Assertions.assertEquals(1, outboxRelay.drain());
+        Long parkedEventId = eventIdOf(failing);
+        Long deliveredEventId = eventIdOf(delivered);
+
+        outboxCursorRepository.save(new OutboxCursor("lagging-node", deliveredEventId - 1, LocalDateTime.now()));
+        try {
+            outboxRelay.purgeDelivered();
+            Assertions.assertTrue(outboxEventRepository.existsById(deliveredEventId));
+
+            outboxCursorRepository.save(new OutboxCursor("lagging-node", deliveredEventId, LocalDateTime.now()));
+            outboxRelay.purgeDelivered();
+            Assertions.assertFalse(outboxEventRepository.existsById(deliveredEventId));
+            Assertions.assertTrue(outboxEventRepository.existsById(parkedEventId));
+        } finally {
+            outboxCursorRepository.deleteById("lagging-node");
+        }
+    }
+
+    @Test
+    void testRolledBackBookingWritesNoEvent() {
+        long events = outboxEventRepository.count();
+
+        Assertions.assertThrows(InvalidRequestException.class, () -> book(START_OF_TOMORROW.minusDays(2)));
+
+        Assertions.assertEquals(events, outboxEventRepository.count());
+    }
+
+    private Long eventIdOf(ReservationDTO reservation) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> event.getAggregateId().equals(reservation.getId()))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new)
+                .getId();
+    }
+
+    private ReservationDTO book(LocalDateTime startDateTime) {
+        Schedule schedule = scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(startDateTime)
+                .endDateTime(startDateTime.plusHours(1))
+                .build());
+        return reservationService.bookReservation(new CreateReservationRequestDTO(guest.getId(), schedule.getId()));
+    }
+
+    @TestConfiguration
+    static class RecordingSubscriberConfig {
+
+        @Bean
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+    }
+
+    static class RecordingSubscriber implements OutboxSubscriber {
+
+        private final List<String> events = new ArrayList<>();
+
+        private final Set<Long> failOnce = new HashSet<>();
+
+        private final Set<Long> failAlways = new HashSet<>();
+
+        @Override
+        public synchronized void onEvent(OutboxEventDTO event) {
+            if (failOnce.remove(event.getAggregateId()) || failAlways.contains(event.getAggregateId())) {
+                throw new IllegalStateException("Subscriber unavailable");
+            }
+            events.add(event.getEventType() + " #" + event.getAggregateId());
+        }
+
+        synchronized void failOnce(Long aggregateId) {
+            failOnce.add(aggregateId);
+        }
+
+        synchronized void failAlways(Long aggregateId) {
+            failAlways.add(aggregateId);
+        }
+
+        synchronized List<String> getEvents() {
+            return new ArrayList<>(events);
+        }
+
+        synchronized void reset() {
+            events.clear();
+            failOnce.clear();
+            failAlways.clear();
+        }
+    }
+}
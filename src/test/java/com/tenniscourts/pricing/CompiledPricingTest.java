@@ -0,0 +1,115 @@
+package com.tenniscourts.pricing;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class CompiledPricingTest {
+
+    private static final List<RefundTier> TIERS = Arrays.asList(
+            tier(1440, "1.0000"), tier(720, "0.7500"), tier(120, "0.5000"), tier(1, "0.2500"));
+
+    @Test
+    void testMostSpecificRuleWinsWithinAPriority() {
+        CompiledPricing pricing = CompiledPricing.compile(Arrays.asList(
+                rule(null, null, 0, 24, null, "10.00", 0),
+                rule(null, null, 18, 22, null, "15.00", 0),
+                rule(null, null, 18, 22, true, "12.00", 0),
+                rule(7L, null, 0, 24, null, "20.00", 0),
+                rule(7L, 6, 0, 24, null, "25.00", 0),
+                rule(null, 1, 8, 9, null, "5.00", 1)), TIERS);
+
+        Assertions.assertEquals(new BigDecimal("10.00"), pricing.price(1L, 10, false));
+        Assertions.assertEquals(new BigDecimal("15.00"), pricing.price(1L, 2 * 24 + 19, false));
+        Assertions.assertEquals(new BigDecimal("12.00"), pricing.price(1L, 2 * 24 + 19, true));
+        Assertions.assertEquals(new BigDecimal("20.00"), pricing.price(7L, 2 * 24 + 19, false));
+        Assertions.assertEquals(new BigDecimal("25.00"), pricing.price(7L, 5 * 24 + 10, true));
+        Assertions.assertEquals(new BigDecimal("5.00"), pricing.price(7L, 8, false));
+        Assertions.assertEquals(new BigDecimal("5.00"), pricing.price(1L, 8, true));
+        Assertions.assertEquals(1, pricing.summary().getPricedCourts());
+    }
+
+    @Test
+    void testManyCourtsResolveThroughTheHashTable() {
+        List<PricingRule> rules = new ArrayList<>();
+        rules.add(rule(null, null, 0, 24, null, "1.00", 0));
+        for (long court = 1; court <= 1_000; court++) {
+            rules.add(rule(court * 31, null, 0, 24, null, String.valueOf(court), 0));
+        }
+        CompiledPricing pricing = CompiledPricing.compile(rules, TIERS);
+
+        for (long court = 1; court <= 1_000; court++) {
+            Assertions.assertEquals(new BigDecimal(court), pricing.price(court * 31, 100, false));
+        }
+        Assertions.assertEquals(new BigDecimal("1.00"), pricing.price(32L, 100, false));
+    }
+
+    @Test
+    void testUncoveredSlotsAreRejected() {
+        Assertions.assertThrows(IllegalStateException.class, () -> CompiledPricing.compile(
+                Collections.singletonList(rule(null, null, 8, 22, null, "10.00", 0)), TIERS));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CompiledPricing.compile(
+                Collections.singletonList(rule(null, null, 8, 8, null, "10.00", 0)), TIERS));
+
+        CompiledPricing courtOnly = CompiledPricing.compile(
+                Collections.singletonList(rule(3L, null, 0, 24, null, "10.00", 0)), TIERS);
+        Assertions.assertEquals(new BigDecimal("10.00"), courtOnly.price(3L, 0, false));
+        Assertions.assertThrows(IllegalStateException.class, () -> courtOnly.price(4L, 0, false));
+    }
+
+    @Test
+    void testRefundRateFollowsTiers() {
+        CompiledPricing pricing = CompiledPricing.compile(
+                Collections.singletonList(rule(null, null, 0, 24, null, "10.00", 0)), TIERS);
+
+        Assertions.assertEquals(BigDecimal.ZERO, pricing.refundRate(-5));
+        Assertions.assertEquals(BigDecimal.ZERO, pricing.refundRate(0));
+        Assertions.assertEquals(new BigDecimal("0.2500"), pricing.refundRate(1));
+        Assertions.assertEquals(new BigDecimal("0.2500"), pricing.refundRate(119));
+        Assertions.assertEquals(new BigDecimal("0.5000"), pricing.refundRate(120));
+        Assertions.assertEquals(new BigDecimal("0.7500"), pricing.refundRate(1439));
+        Assertions.assertEquals(new BigDecimal("1.0000"), pricing.refundRate(1440));
+        Assertions.assertEquals(new BigDecimal("1.0000"), pricing.refundRate(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testRefundsAreAtTheScaleOfMoney() {
+        CompiledPricing pricing = CompiledPricing.compile(Arrays.asList(
+                rule(null, null, 0, 24, null, "10.00", 0),
+                rule(7L, null, 0, 24, null, "15.10", 0)), TIERS);
+
+        Assertions.assertEquals(new BigDecimal("0.00"), pricing.refund(new BigDecimal("10.00"), 0));
+        Assertions.assertEquals(new BigDecimal("2.50"), pricing.refund(new BigDecimal("10.00"), 1));
+        Assertions.assertEquals(new BigDecimal("7.50"), pricing.refund(new BigDecimal("10.00"), 720));
+        Assertions.assertEquals(new BigDecimal("10.00"), pricing.refund(new BigDecimal("10.00"), 1440));
+        Assertions.assertEquals(new BigDecimal("3.78"), pricing.refund(new BigDecimal("15.10"), 1));
+        Assertions.assertSame(pricing.refund(new BigDecimal("15.10"), 120), pricing.refund(new BigDecimal("15.10"), 130));
+
+        Assertions.assertEquals(new BigDecimal("3.09"), pricing.refund(new BigDecimal("12.35"), 1));
+        Assertions.assertEquals(new BigDecimal("6.00"), pricing.refund(new BigDecimal("12"), 120));
+    }
+
+    private static PricingRule rule(Long tennisCourtId, Integer dayOfWeek, int startHour, int endHour, Boolean member, String price, int priority) {
+        return PricingRule.builder()
+                .tennisCourtId(tennisCourtId)
+                .dayOfWeek(dayOfWeek)
+                .startHour(startHour)
+                .endHour(endHour)
+                .member(member)
+                .price(new BigDecimal(price))
+                .priority(priority)
+                .build();
+    }
+
+    private static RefundTier tier(long minMinutesBefore, String refundRate) {
+        return RefundTier.builder()
+                .minMinutesBefore(minMinutesBefore)
+                .refundRate(new BigDecimal(refundRate))
+                .build();
+    }
+}
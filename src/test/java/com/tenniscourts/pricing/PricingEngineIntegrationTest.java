@@ -0,0 +1,109 @@
+package com.tenniscourts.pricing;
+
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.reservations.CreateReservationRequestDTO;
+import com.tenniscourts.reservations.ReservationDTO;
+import com.tenniscourts.reservations.ReservationService;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "tenniscourts.pricing.reload-interval-ms=3600000")
+public class PricingEngineIntegrationTest {
+
+    private static final LocalDateTime START_OF_NEXT_WEEK = LocalDateTime.now().plusDays(7).truncatedTo(ChronoUnit.DAYS);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private PricingRuleRepository pricingRuleRepository;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Test
+    void testReloadedRulesPriceNewReservations() throws Exception {
+        TennisCourt centreCourt = tennisCourtRepository.save(new TennisCourt("Centre Court"));
+        Guest member = guestRepository.save(Guest.builder().name("Member Guest").member(true).build());
+        Guest guest = guestRepository.save(new Guest("Casual Guest"));
+        Schedule evening = saveSchedule(centreCourt, START_OF_NEXT_WEEK.plusHours(19));
+        Schedule lateEvening = saveSchedule(centreCourt, START_OF_NEXT_WEEK.plusHours(20));
+
+        Assertions.assertEquals(new BigDecimal("10.00"), book(guest, evening).getValue());
+
+        pricingRuleRepository.save(PricingRule.builder()
+                .tennisCourtId(centreCourt.getId()).startHour(18).endHour(22).price(new BigDecimal("30.00")).priority(0).build());
+        pricingRuleRepository.save(PricingRule.builder()
+                .tennisCourtId(centreCourt.getId()).startHour(18).endHour(22).member(true).price(new BigDecimal("20.00")).priority(0).build());
+        mockMvc.perform(post("/admin/pricing/reload"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rules", is(3)))
+                .andExpect(jsonPath("$.pricedCourts", is(1)));
+
+        Assertions.assertEquals(new BigDecimal("20.00"), book(member, lateEvening).getValue());
+        Assertions.assertEquals(new BigDecimal("10.00"), pricingEngine.price(centreCourt.getId(), START_OF_NEXT_WEEK.plusHours(12), false));
+        Assertions.assertEquals(new BigDecimal("30.00"), pricingEngine.price(centreCourt.getId(), START_OF_NEXT_WEEK.plusHours(21), false));
+    }
+
+    @Test
+    void testInvalidRulesKeepThePreviousPricing() throws Exception {
+        pricingEngine.reload();
+        PricingRule gap = pricingRuleRepository.save(PricingRule.builder()
+                .tennisCourtId(999L).startHour(22).endHour(8).price(new BigDecimal("99.00")).priority(5).build());
+        try {
+            pricingEngine.refresh();
+            mockMvc.perform(get("/admin/pricing"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.pricedCourts", is(0)));
+        } finally {
+            pricingRuleRepository.delete(gap);
+        }
+    }
+
+    private ReservationDTO book(Guest guest, Schedule schedule) {
+        return reservationService.bookReservation(CreateReservationRequestDTO.builder()
+                .guestId(guest.getId())
+                .scheduleId(schedule.getId())
+                .build());
+    }
+
+    private Schedule saveSchedule(TennisCourt tennisCourt, LocalDateTime startDateTime) {
+        return scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(startDateTime)
+                .endDateTime(startDateTime.plusHours(1))
+                .build());
+    }
+}
@@ -0,0 +1,158 @@
+package com.tenniscourts.reports;
+
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.outbox.OutboxRelay;
+import com.tenniscourts.reservations.CreateReservationRequestDTO;
+import com.tenniscourts.reservations.ReservationDTO;
+import com.tenniscourts.reservations.ReservationRepository;
+import com.tenniscourts.reservations.ReservationService;
+import com.tenniscourts.schedules.CreateScheduleRequestDTO;
+import com.tenniscourts.schedules.ScheduleDTO;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.schedules.ScheduleService;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest
+public class ReportControllerIntegrationTest {
+
+    private static final String BASE_URL = "http://localhost:8080";
+    private static final LocalDate REPORT_DAY = LocalDate.now().plusDays(300);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReportRollupService reportRollupService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private final List<ReservationDTO> reservations = new ArrayList<>();
+
+    private final List<Long> schedules = new ArrayList<>();
+
+    private final List<TennisCourt> tennisCourts = new ArrayList<>();
+
+    @AfterEach
+    void destroy() {
+        reservations.forEach(reservation -> reservationRepository.deleteById(reservation.getId()));
+        schedules.forEach(scheduleRepository::deleteById);
+        tennisCourtRepository.deleteAll(tennisCourts);
+        reportRollupService.rebuild();
+    }
+
+    /**
+     * Test that reports aggregate revenue, refunds, cancellation rate and utilization by court, day and hour
+     */
+    @Test
+    void testReports() throws Exception {
+        Guest guest = guestRepository.save(new Guest("Report Guest"));
+        TennisCourt courtA = court("Court A");
+        TennisCourt courtB = court("Court B");
+        book(guest, schedule(courtA, REPORT_DAY.atTime(10, 0)));
+        ReservationDTO cancelled = book(guest, schedule(courtA, REPORT_DAY.atTime(11, 0)));
+        book(guest, schedule(courtB, REPORT_DAY.atTime(10, 0)));
+        book(guest, schedule(courtA, REPORT_DAY.plusDays(1).atTime(10, 0)));
+        schedule(courtB, REPORT_DAY.plusDays(1).atTime(10, 0));
+        reservationService.cancelReservation(cancelled.getId());
+        outboxRelay.drain();
+
+        assertReport();
+
+        mockMvc.perform(post(BASE_URL + "/admin/reports/rebuild"))
+                .andExpect(status().isNoContent());
+        assertReport();
+    }
+
+    private void assertReport() throws Exception {
+        report("")
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].slots", is(5)))
+                .andExpect(jsonPath("$[0].reservations", is(4)))
+                .andExpect(jsonPath("$[0].booked", is(3)))
+                .andExpect(jsonPath("$[0].cancellations", is(1)))
+                .andExpect(jsonPath("$[0].revenue", is(30.0)))
+                .andExpect(jsonPath("$[0].refunds", is(10.0)))
+                .andExpect(jsonPath("$[0].cancellationRate", is(0.25)))
+                .andExpect(jsonPath("$[0].utilization", is(0.6)));
+
+        report("&groupBy=COURT,DAY")
+                .andExpect(jsonPath("$", hasSize(4)))
+                .andExpect(jsonPath("$[0].tennisCourtId", is(tennisCourts.get(0).getId().intValue())))
+                .andExpect(jsonPath("$[0].date", is(REPORT_DAY.toString())))
+                .andExpect(jsonPath("$[0].slots", is(2)))
+                .andExpect(jsonPath("$[0].utilization", is(0.5)))
+                .andExpect(jsonPath("$[3].tennisCourtId", is(tennisCourts.get(1).getId().intValue())))
+                .andExpect(jsonPath("$[3].booked", is(0)));
+
+        report("&groupBy=HOUR")
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].hour", is(10)))
+                .andExpect(jsonPath("$[0].slots", is(4)))
+                .andExpect(jsonPath("$[1].hour", is(11)))
+                .andExpect(jsonPath("$[1].cancellationRate", is(1.0)));
+    }
+
+    private ResultActions report(String groupBy) throws Exception {
+        return mockMvc.perform(get(BASE_URL + "/reports?startDate=" + REPORT_DAY + "&endDate=" + REPORT_DAY.plusDays(1) + groupBy))
+                .andExpect(status().isOk());
+    }
+
+    private TennisCourt court(String name) {
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt(name));
+        tennisCourts.add(tennisCourt);
+        return tennisCourt;
+    }
+
+    private ScheduleDTO schedule(TennisCourt tennisCourt, LocalDateTime startDateTime) {
+        ScheduleDTO schedule = scheduleService.addSchedule(tennisCourt.getId(), new CreateScheduleRequestDTO(tennisCourt.getId(), startDateTime));
+        schedules.add(schedule.getId());
+        return schedule;
+    }
+
+    private ReservationDTO book(Guest guest, ScheduleDTO schedule) {
+        ReservationDTO reservation = reservationService.bookReservation(new CreateReservationRequestDTO(guest.getId(), schedule.getId()));
+        reservations.add(reservation);
+        return reservation;
+    }
+}
@@ -0,0 +1,48 @@
+package com.tenniscourts.reservations;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Migrates a database that already has two live reservations of one schedule, as the schema before V7 allowed.
+ */
+public class ActiveScheduleMigrationTest {
+
+    @Test
+    void testDuplicateLiveReservationsAreCancelledAndRefunded() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:active-schedule-migration;DB_CLOSE_DELAY=-1", "sa", "");
+        Flyway.configure().dataSource(dataSource).target("6").load().migrate();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("insert into guest (id, name) values (1, 'Guest')");
+        jdbcTemplate.update("insert into tennis_court (id, name) values (1, 'Court')");
+        jdbcTemplate.update("insert into schedule (id, start_date_time, end_date_time, tennis_court_id)"
+                + " values (1, timestamp '2030-01-01 10:00:00', timestamp '2030-01-01 11:00:00', 1)");
+        for (long id = 1; id <= 3; id++) {
+            jdbcTemplate.update("insert into reservation (id, reservation_status, value, guest_id, schedule_id) values (?, ?, 10, 1, 1)",
+                    id, ReservationStatus.READY_TO_PLAY.ordinal());
+        }
+        jdbcTemplate.update("insert into report_rollup (slot_date, slot_hour, tennis_court_id, slots, reservations, booked, cancellations,"
+                + " reschedules, revenue, refunds) values (date '2030-01-01', 10, 1, 1, 3, 3, 0, 0, 30, 0)");
+
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        Map<String, Object> kept = jdbcTemplate.queryForMap("select * from reservation where id = 1");
+        Assertions.assertEquals(ReservationStatus.READY_TO_PLAY.ordinal(), ((Number) kept.get("RESERVATION_STATUS")).intValue());
+        Assertions.assertEquals(1L, ((Number) kept.get("ACTIVE_SCHEDULE_ID")).longValue());
+        for (long id = 2; id <= 3; id++) {
+            Map<String, Object> duplicate = jdbcTemplate.queryForMap("select * from reservation where id = ?", id);
+            Assertions.assertEquals(ReservationStatus.CANCELLED.ordinal(), ((Number) duplicate.get("RESERVATION_STATUS")).intValue());
+            Assertions.assertEquals(0, new BigDecimal("10").compareTo((BigDecimal) duplicate.get("REFUND_VALUE")));
+            Assertions.assertEquals(0, BigDecimal.ZERO.compareTo((BigDecimal) duplicate.get("VALUE")));
+            Assertions.assertNull(duplicate.get("ACTIVE_SCHEDULE_ID"));
+        }
+        Assertions.assertEquals(0, jdbcTemplate.queryForObject("select count(*) from report_rollup", Integer.class));
+    }
+}
@@ -0,0 +1,87 @@
+package com.tenniscourts.reservations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@AutoConfigureMockMvc
+@SpringBootTest
+public class AsyncReservationControllerIntegrationTest {
+
+    private static final String BASE_URL = "http://localhost:8080";
+    private static final LocalDateTime START_OF_NEXT_HOUR = LocalDateTime.now().plusHours(1).truncatedTo(ChronoUnit.HOURS);
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private GuestRepository guestRepository;
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @AfterEach
+    void destroy() {
+        reservationRepository.deleteAll();
+        scheduleRepository.deleteAll();
+        guestRepository.deleteAll();
+        tennisCourtRepository.deleteAll();
+    }
+
+    @Test
+    void testBookReservationTwice() throws Exception {
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Court 1"));
+        Guest guest = guestRepository.save(Guest.builder().name("Serena Williams").build());
+        Schedule schedule = scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(START_OF_NEXT_HOUR)
+                .endDateTime(START_OF_NEXT_HOUR.plusHours(1L))
+                .build());
+
+        CreateReservationRequestDTO createReservationRequestDTO = CreateReservationRequestDTO.builder()
+                .guestId(guest.getId())
+                .scheduleId(schedule.getId())
+                .build();
+
+        MvcResult mvcResult = mockMvc.perform(post(BASE_URL + "/async/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(createReservationRequestDTO)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists("Location"));
+
+        Assertions.assertEquals(1, reservationRepository.findBySchedule_Id(schedule.getId()).size());
+
+        mvcResult = mockMvc.perform(post(BASE_URL + "/async/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(createReservationRequestDTO)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isConflict());
+    }
+}
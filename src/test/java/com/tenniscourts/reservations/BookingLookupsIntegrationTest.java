@@ -0,0 +1,169 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.exceptions.EntityNotFoundException;
+import com.tenniscourts.exceptions.ServiceUnavailableException;
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.guests.GuestService;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.schedules.ScheduleService;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@SpringBootTest(properties = {"tenniscourts.booking.lookup-timeout-ms=1000", "spring.datasource.hikari.maximum-pool-size=3"})
+public class BookingLookupsIntegrationTest {
+
+    private static final LocalDateTime START_OF_NEXT_DAY = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @SpyBean
+    private GuestService guestService;
+
+    @SpyBean
+    private ScheduleService scheduleService;
+
+    @AfterEach
+    void resetSpies() {
+        Mockito.reset(guestService, scheduleService);
+    }
+
+    @Test
+    void testGuestAndScheduleAreLookedUpAtTheSameTime() {
+        Guest guest = guestRepository.save(new Guest("Parallel Guest"));
+        Schedule schedule = saveSchedule(START_OF_NEXT_DAY.plusHours(8));
+
+        // each lookup waits for the other one to start, so a sequential booking would time out
+        CountDownLatch guestStarted = new CountDownLatch(1);
+        CountDownLatch scheduleStarted = new CountDownLatch(1);
+        AtomicReference<String> lookupContext = new AtomicReference<>();
+        Mockito.doAnswer(invocation -> {
+            lookupContext.set(MDC.get("booking"));
+            guestStarted.countDown();
+            Assertions.assertTrue(scheduleStarted.await(5, TimeUnit.SECONDS));
+            return invocation.callRealMethod();
+        }).when(guestService).findGuestById(guest.getId());
+        Mockito.doAnswer(invocation -> {
+            scheduleStarted.countDown();
+            Assertions.assertTrue(guestStarted.await(5, TimeUnit.SECONDS));
+            return invocation.callRealMethod();
+        }).when(scheduleService).findSchedule(schedule.getId());
+
+        ReservationDTO reservation;
+        MDC.put("booking", "parallel");
+        try {
+            reservation = reservationService.bookReservation(request(guest, schedule));
+        } finally {
+            MDC.remove("booking");
+        }
+
+        Assertions.assertEquals(guest.getId(), reservation.getGuest().getId());
+        Assertions.assertEquals(schedule.getId(), reservation.getSchedule().getId());
+        Assertions.assertEquals("parallel", lookupContext.get());
+    }
+
+    @Test
+    void testConcurrentBookingsDoNotStarveTheirLookups() throws Exception {
+        Guest guest = guestRepository.save(new Guest("Crowded Guest"));
+        List<Schedule> schedules = new ArrayList<>();
+        for (int hour = 0; hour < 12; hour++) {
+            schedules.add(saveSchedule(START_OF_NEXT_DAY.plusDays(1).plusHours(hour)));
+        }
+
+        // more bookings at once than the pool has connections
+        ExecutorService executor = Executors.newFixedThreadPool(schedules.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ReservationDTO>> results = new ArrayList<>();
+            for (Schedule schedule : schedules) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return reservationService.bookReservation(request(guest, schedule));
+                }));
+            }
+            start.countDown();
+            for (Future<ReservationDTO> result : results) {
+                Assertions.assertNotNull(result.get(30, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testSlowLookupFailsTheBookingAfterTheTimeout() {
+        Guest guest = guestRepository.save(new Guest("Slow Guest"));
+        Schedule schedule = saveSchedule(START_OF_NEXT_DAY.plusHours(9));
+        Mockito.doAnswer(invocation -> {
+            Thread.sleep(1_500);
+            return invocation.callRealMethod();
+        }).when(guestService).findGuestById(guest.getId());
+
+        long started = System.nanoTime();
+        Assertions.assertThrows(ServiceUnavailableException.class, () -> reservationService.bookReservation(request(guest, schedule)));
+
+        Assertions.assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(1_400));
+        Assertions.assertTrue(reservationRepository.findBySchedule_Id(schedule.getId()).isEmpty());
+    }
+
+    @Test
+    void testFailedLookupFailsTheBooking() {
+        Schedule schedule = saveSchedule(START_OF_NEXT_DAY.plusHours(10));
+
+        EntityNotFoundException entityNotFoundException = Assertions.assertThrows(EntityNotFoundException.class,
+                () -> reservationService.bookReservation(CreateReservationRequestDTO.builder()
+                        .guestId(Long.MAX_VALUE)
+                        .scheduleId(schedule.getId())
+                        .build()));
+        Assertions.assertEquals("Guest not found.", entityNotFoundException.getMessage());
+    }
+
+    private CreateReservationRequestDTO request(Guest guest, Schedule schedule) {
+        return CreateReservationRequestDTO.builder()
+                .guestId(guest.getId())
+                .scheduleId(schedule.getId())
+                .build();
+    }
+
+    private Schedule saveSchedule(LocalDateTime startDateTime) {
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Parallel Court"));
+        return scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(startDateTime)
+                .endDateTime(startDateTime.plusHours(1))
+                .build());
+    }
+}
@@ -0,0 +1,152 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.outbox.OutboxPublisher;
+import com.tenniscourts.outbox.OutboxRelay;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "tenniscourts.guest-index.rebuild-cron=0 0 4 * * *")
+public class GuestReservationIndexIntegrationTest {
+
+    private static final LocalDateTime START_OF_NEXT_DAY = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private GuestReservationIndex guestReservationIndex;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ReservationMapper reservationMapper;
+
+    @Autowired
+    private OutboxPublisher outboxPublisher;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testIndexFollowsBookingsAndRebuildsFromTheDatabase() throws Exception {
+        Guest guest = guestRepository.save(new Guest("Indexed Guest"));
+        Guest other = guestRepository.save(new Guest("Other Guest"));
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Indexed Court"));
+
+        ReservationDTO later = book(guest, saveSchedule(tennisCourt, START_OF_NEXT_DAY.plusHours(12)));
+        ReservationDTO sooner = book(guest, saveSchedule(tennisCourt, START_OF_NEXT_DAY.plusHours(9)));
+        ReservationDTO cancelled = book(guest, saveSchedule(tennisCourt, START_OF_NEXT_DAY.plusHours(10)));
+        book(other, saveSchedule(tennisCourt, START_OF_NEXT_DAY.plusHours(11)));
+        reservationService.cancelReservation(cancelled.getId());
+
+        mockMvc.perform(get("/guests/" + guest.getId() + "/reservations"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is(sooner.getId().intValue())))
+                .andExpect(jsonPath("$[1].id", is(later.getId().intValue())));
+        Assertions.assertEquals(2, guestReservationIndex.findReservationIds(guest.getId()).length);
+
+        // written behind the index's back, as an import or another node would
+        Reservation imported = reservationRepository.save(Reservation.builder()
+                .guest(guest)
+                .schedule(saveSchedule(tennisCourt, START_OF_NEXT_DAY.plusHours(14)))
+                .value(new BigDecimal(10))
+                .reservationStatus(ReservationStatus.READY_TO_PLAY)
+                .build());
+        mockMvc.perform(get("/guests/" + guest.getId() + "/reservations"))
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mockMvc.perform(post("/admin/guest-reservation-index/rebuild"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/guests/" + guest.getId() + "/reservations"))
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[2].id", is(imported.getId().intValue())));
+
+        mockMvc.perform(get("/guests/" + Long.MAX_VALUE + "/reservations"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testIndexFollowsTheOutboxForBookingsOfOtherNodes() throws Exception {
+        Guest guest = guestRepository.save(new Guest("Roaming Guest"));
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Remote Court"));
+        Schedule schedule = saveSchedule(tennisCourt, START_OF_NEXT_DAY.plusHours(15));
+        outboxRelay.drain();
+
+        // booked on another node: the row and its event are all this node gets
+        ReservationDTO remote = new TransactionTemplate(transactionManager).execute(status -> {
+            ReservationDTO reservation = reservationMapper.map(reservationRepository.save(Reservation.builder()
+                    .guest(guest)
+                    .schedule(schedule)
+                    .value(new BigDecimal(10))
+                    .reservationStatus(ReservationStatus.READY_TO_PLAY)
+                    .build()));
+            outboxPublisher.publish(ReservationService.AGGREGATE_TYPE, reservation.getId(), ReservationEventType.RESERVATION_BOOKED.name(), reservation);
+            return reservation;
+        });
+        outboxRelay.drain();
+
+        mockMvc.perform(get("/guests/" + guest.getId() + "/reservations"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(remote.getId().intValue())));
+
+        reservationService.cancelReservation(remote.getId());
+        outboxRelay.drain();
+        Assertions.assertEquals(0, guestReservationIndex.findReservationIds(guest.getId()).length);
+    }
+
+    private ReservationDTO book(Guest guest, Schedule schedule) {
+        return reservationService.bookReservation(CreateReservationRequestDTO.builder()
+                .guestId(guest.getId())
+                .scheduleId(schedule.getId())
+                .build());
+    }
+
+    private Schedule saveSchedule(TennisCourt tennisCourt, LocalDateTime startDateTime) {
+        return scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(startDateTime)
+                .endDateTime(startDateTime.plusHours(1))
+                .build());
+    }
+}
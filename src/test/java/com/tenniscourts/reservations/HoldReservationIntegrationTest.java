@@ -0,0 +1,222 @@
+package com.tenniscourts.reservations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.exceptions.AlreadyExistsEntityException;
+import com.tenniscourts.exceptions.InvalidRequestException;
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.outbox.OutboxEvent;
+import com.tenniscourts.outbox.OutboxEventRepository;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"tenniscourts.holds.ttl-seconds=1", "tenniscourts.holds.tick-ms=10"})
+public class HoldReservationIntegrationTest {
+
+    private static final LocalDateTime START_OF_NEXT_DAY = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private HoldExpirer holdExpirer;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Guest guest;
+
+    private TennisCourt tennisCourt;
+
+    @BeforeEach
+    void setUp() {
+        guest = guestRepository.save(new Guest("Holding Guest"));
+        tennisCourt = tennisCourtRepository.save(new TennisCourt("Holding Court"));
+    }
+
+    @Test
+    void testHeldSlotIsTakenUntilConfirmed() throws Exception {
+        Schedule schedule = saveSchedule(START_OF_NEXT_DAY.plusHours(8));
+
+        mockMvc.perform(post("/reservations/holds")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(request(schedule))))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.reservationStatus", is(ReservationStatus.HELD.name())));
+        Reservation hold = reservationRepository.findBySchedule_Id(schedule.getId()).get(0);
+
+        mockMvc.perform(post("/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(request(schedule))))
+                .andExpect(status().isConflict());
+
+        mockMvc.perform(put("/reservations/" + hold.getId() + "/confirm"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reservationStatus", is(ReservationStatus.READY_TO_PLAY.name())));
+        mockMvc.perform(put("/reservations/" + hold.getId() + "/confirm"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExpiredHoldFreesSlotBeforeTheWheelFires() throws Exception {
+        Schedule schedule = saveSchedule(START_OF_NEXT_DAY.plusHours(9));
+        ReservationDTO hold = reservationService.holdReservation(request(schedule));
+
+        waitPast(hold.getHoldExpiresAt());
+        ReservationDTO booked = reservationService.bookReservation(request(schedule));
+
+        Assertions.assertEquals(ReservationStatus.READY_TO_PLAY.name(), booked.getReservationStatus());
+        Assertions.assertEquals(ReservationStatus.EXPIRED, reservationRepository.findById(hold.getId()).get().getReservationStatus());
+        Assertions.assertEquals(Arrays.asList("RESERVATION_HELD", "RESERVATION_EXPIRED"), eventTypes(hold.getId()));
+        mockMvc.perform(put("/reservations/" + hold.getId() + "/confirm"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testWheelExpiresHoldsIncludingReloadedOnes() throws Exception {
+        Schedule scheduled = saveSchedule(START_OF_NEXT_DAY.plusHours(10));
+        ReservationDTO hold = reservationService.holdReservation(request(scheduled));
+
+        Schedule persisted = saveSchedule(START_OF_NEXT_DAY.plusHours(11));
+        Reservation leftByPreviousRun = reservationRepository.save(Reservation.builder()
+                .guest(guest)
+                .schedule(persisted)
+                .value(new BigDecimal(10))
+                .reservationStatus(ReservationStatus.HELD)
+                .holdExpiresAt(LocalDateTime.now().minusMinutes(1))
+                .build());
+        holdExpirer.reload();
+
+        // the wheel may fire up to one tick after the deadline
+        waitPast(hold.getHoldExpiresAt().plusNanos(TimeUnit.MILLISECONDS.toNanos(50)));
+        Assertions.assertTrue(holdExpirer.expire() >= 2);
+
+        Assertions.assertEquals(ReservationStatus.EXPIRED, reservationRepository.findById(hold.getId()).get().getReservationStatus());
+        Assertions.assertEquals(ReservationStatus.EXPIRED, reservationRepository.findById(leftByPreviousRun.getId()).get().getReservationStatus());
+        Assertions.assertNull(reservationRepository.findById(leftByPreviousRun.getId()).get().getActiveScheduleId());
+        Assertions.assertNotNull(reservationService.bookReservation(request(persisted)).getId());
+    }
+
+    /**
+     * Test that an expiry that read the hold before a confirmation committed does not overwrite it, and that a
+     * confirmation after an expiry fails
+     */
+    @Test
+    void testConfirmAndExpiryOfOneHoldDoNotBothWin() throws Exception {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Schedule schedule = saveSchedule(START_OF_NEXT_DAY.plusHours(13));
+        ReservationDTO confirmed = reservationService.holdReservation(request(schedule));
+        Reservation readByExpirer = reservationRepository.findById(confirmed.getId()).get();
+
+        reservationService.confirmHold(confirmed.getId());
+        Assertions.assertEquals(Boolean.FALSE, transactionTemplate.execute(status -> holdExpirer.expire(readByExpirer)));
+
+        Assertions.assertEquals(ReservationStatus.READY_TO_PLAY, reservationRepository.findById(confirmed.getId()).get().getReservationStatus());
+        Assertions.assertEquals(Arrays.asList("RESERVATION_HELD", "RESERVATION_CONFIRMED"), eventTypes(confirmed.getId()));
+
+        Schedule otherSchedule = saveSchedule(START_OF_NEXT_DAY.plusHours(14));
+        ReservationDTO expired = reservationService.holdReservation(request(otherSchedule));
+        Reservation expiring = reservationRepository.findById(expired.getId()).get();
+        waitPast(expired.getHoldExpiresAt());
+
+        Assertions.assertEquals(Boolean.TRUE, transactionTemplate.execute(status -> holdExpirer.expire(expiring)));
+        Assertions.assertThrows(InvalidRequestException.class, () -> reservationService.confirmHold(expired.getId()));
+        Assertions.assertThrows(InvalidRequestException.class, () -> reservationService.releaseHold(expired.getId()));
+
+        Assertions.assertEquals(ReservationStatus.EXPIRED, reservationRepository.findById(expired.getId()).get().getReservationStatus());
+        Assertions.assertEquals(Arrays.asList("RESERVATION_HELD", "RESERVATION_EXPIRED"), eventTypes(expired.getId()));
+    }
+
+    @Test
+    void testReleasedHoldFreesSlot() throws Exception {
+        Schedule schedule = saveSchedule(START_OF_NEXT_DAY.plusHours(12));
+        ReservationDTO hold = reservationService.holdReservation(request(schedule));
+        Assertions.assertThrows(AlreadyExistsEntityException.class, () -> reservationService.holdReservation(request(schedule)));
+
+        mockMvc.perform(delete("/reservations/" + hold.getId() + "/hold"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reservationStatus", is(ReservationStatus.RELEASED.name())));
+        Assertions.assertEquals(Arrays.asList("RESERVATION_HELD", "RESERVATION_RELEASED"), eventTypes(hold.getId()));
+        Assertions.assertNotNull(reservationService.bookReservation(request(schedule)).getId());
+    }
+
+    private List<String> eventTypes(Long reservationId) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> ReservationService.AGGREGATE_TYPE.equals(event.getAggregateType()) && reservationId.equals(event.getAggregateId()))
+                .sorted(Comparator.comparing(OutboxEvent::getId))
+                .map(OutboxEvent::getEventType)
+                .collect(Collectors.toList());
+    }
+
+    private CreateReservationRequestDTO request(Schedule schedule) {
+        return CreateReservationRequestDTO.builder()
+                .guestId(guest.getId())
+                .scheduleId(schedule.getId())
+                .build();
+    }
+
+    private Schedule saveSchedule(LocalDateTime startDateTime) {
+        return scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(startDateTime)
+                .endDateTime(startDateTime.plusHours(1))
+                .build());
+    }
+
+    private static void waitPast(LocalDateTime deadline) throws InterruptedException {
+        while (!LocalDateTime.now().isAfter(deadline)) {
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.exceptions.AlreadyExistsEntityException;
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@SpringBootTest
+public class InsertFirstBookingIntegrationTest {
+
+    private static final LocalDateTime START_OF_NEXT_DAY = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    private TennisCourt tennisCourt;
+
+    private Schedule schedule;
+
+    @AfterEach
+    void destroy() {
+        reservationRepository.deleteAll(reservationRepository.findBySchedule_Id(schedule.getId()));
+        scheduleRepository.delete(schedule);
+        tennisCourtRepository.delete(tennisCourt);
+    }
+
+    @Test
+    void testConcurrentBookingsOfOneScheduleBookOnce() throws Exception {
+        Guest guest = guestRepository.save(new Guest("Insert First Guest"));
+        tennisCourt = tennisCourtRepository.save(new TennisCourt("Insert First Court"));
+        schedule = scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(START_OF_NEXT_DAY.plusHours(10))
+                .endDateTime(START_OF_NEXT_DAY.plusHours(11))
+                .build());
+
+        int attempts = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        List<Future<Boolean>> outcomes = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            outcomes.add(executor.submit(() -> {
+                start.await();
+                try {
+                    reservationService.bookReservation(CreateReservationRequestDTO.builder()
+                            .guestId(guest.getId())
+                            .scheduleId(schedule.getId())
+                            .build());
+                    return true;
+                } catch (AlreadyExistsEntityException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int booked = 0;
+        for (Future<Boolean> outcome : outcomes) {
+            booked += outcome.get(30, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(1, booked);
+        List<Reservation> reservations = reservationRepository.findBySchedule_Id(schedule.getId());
+        Assertions.assertEquals(1, reservations.size());
+        Assertions.assertEquals(schedule.getId(), reservations.get(0).getActiveScheduleId());
+    }
+}
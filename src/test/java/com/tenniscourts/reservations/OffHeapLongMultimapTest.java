@@ -0,0 +1,104 @@
+package com.tenniscourts.reservations;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class OffHeapLongMultimapTest {
+
+    @Test
+    void testPutRemoveAndGet() {
+        OffHeapLongMultimap multimap = new OffHeapLongMultimap(0);
+        Assertions.assertTrue(multimap.put(7, 100));
+        Assertions.assertTrue(multimap.put(7, 101));
+        Assertions.assertFalse(multimap.put(7, 100));
+        Assertions.assertTrue(multimap.put(8, 100));
+
+        long[] values = multimap.get(7);
+        Arrays.sort(values);
+        Assertions.assertArrayEquals(new long[]{100, 101}, values);
+
+        Assertions.assertTrue(multimap.remove(7, 100));
+        Assertions.assertFalse(multimap.remove(7, 100));
+        Assertions.assertFalse(multimap.remove(9, 100));
+        Assertions.assertArrayEquals(new long[]{101}, multimap.get(7));
+        Assertions.assertArrayEquals(new long[0], multimap.get(9));
+        Assertions.assertEquals(2, multimap.valueCount());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> multimap.put(Long.MIN_VALUE, 1));
+    }
+
+    @Test
+    void testMatchesAHashMapThroughGrowthAndCompaction() {
+        OffHeapLongMultimap multimap = new OffHeapLongMultimap(0);
+        Map<Long, Set<Long>> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(5_000) + 1;
+            long value = random.nextInt(64);
+            Set<Long> set = expected.computeIfAbsent(key, k -> new HashSet<>());
+            if (random.nextInt(3) == 0) {
+                Assertions.assertEquals(set.remove(value), multimap.remove(key, value));
+            } else {
+                Assertions.assertEquals(set.add(value), multimap.put(key, value));
+            }
+        }
+
+        long count = 0;
+        int keys = 0;
+        for (Map.Entry<Long, Set<Long>> entry : expected.entrySet()) {
+            Set<Long> actual = new HashSet<>();
+            for (long value : multimap.get(entry.getKey())) {
+                actual.add(value);
+            }
+            Assertions.assertEquals(entry.getValue(), actual);
+            count += actual.size();
+            keys += actual.isEmpty() ? 0 : 1;
+        }
+        Assertions.assertEquals(count, multimap.valueCount());
+        Assertions.assertEquals(keys, multimap.keyCount());
+        Assertions.assertTrue(multimap.offHeapBytes() > 0);
+    }
+
+    @Test
+    void testFreesTheSlotOfAKeyWithoutValues() {
+        OffHeapLongMultimap multimap = new OffHeapLongMultimap(16);
+        long offHeapBytes = multimap.offHeapBytes();
+        for (long key = 1; key <= 100_000; key++) {
+            multimap.put(key, key);
+            multimap.put(key + 1, key);
+            Assertions.assertTrue(multimap.remove(key, key));
+            Assertions.assertTrue(multimap.remove(key + 1, key));
+            Assertions.assertArrayEquals(new long[0], multimap.get(key));
+        }
+        Assertions.assertEquals(0, multimap.keyCount());
+        Assertions.assertEquals(0, multimap.valueCount());
+        Assertions.assertEquals(offHeapBytes, multimap.offHeapBytes());
+    }
+
+    @Test
+    void testFindsKeysProbedPastAFreedSlot() {
+        OffHeapLongMultimap multimap = new OffHeapLongMultimap(0);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(64) + 1;
+            Long value = expected.remove(key);
+            if (value != null) {
+                Assertions.assertTrue(multimap.remove(key, value));
+            } else {
+                expected.put(key, (long) i);
+                Assertions.assertTrue(multimap.put(key, i));
+            }
+            for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+                Assertions.assertArrayEquals(new long[]{entry.getValue()}, multimap.get(entry.getKey()));
+            }
+        }
+        Assertions.assertEquals(expected.size(), multimap.keyCount());
+    }
+}
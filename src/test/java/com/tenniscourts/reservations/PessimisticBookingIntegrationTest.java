@@ -0,0 +1,220 @@
+package com.tenniscourts.reservations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.TennisCourtApplication;
+import com.tenniscourts.exceptions.AlreadyExistsEntityException;
+import com.tenniscourts.exceptions.LockConflictException;
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs two application contexts against one H2 database, as two nodes of a deployment would.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {
+        PessimisticBookingIntegrationTest.SHARED_DATABASE,
+        "tenniscourts.booking.strategy=pessimistic-lock",
+        "tenniscourts.booking.lock-timeout-ms=300"})
+public class PessimisticBookingIntegrationTest {
+
+    static final String SHARED_DATABASE = "spring.datasource.url=jdbc:h2:mem:pessimistic-booking;DB_CLOSE_DELAY=-1";
+
+    private static final LocalDateTime START_OF_NEXT_DAY = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+
+    private static ConfigurableApplicationContext otherNode;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ScheduleLock scheduleLock;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Started once this node has created the schema.
+     */
+    @BeforeEach
+    void startOtherNode() {
+        if (otherNode != null) {
+            return;
+        }
+        otherNode = new SpringApplicationBuilder(TennisCourtApplication.class)
+                .properties(SHARED_DATABASE,
+                        "tenniscourts.booking.strategy=pessimistic-lock",
+                        "tenniscourts.booking.lock-timeout-ms=300",
+                        "spring.jpa.hibernate.ddl-auto=none",
+                        "spring.datasource.initialization-mode=never",
+                        "server.port=0")
+                .run();
+    }
+
+    @AfterAll
+    static void stopOtherNode() {
+        if (otherNode != null) {
+            otherNode.close();
+            otherNode = null;
+        }
+    }
+
+    @Test
+    void testContendedScheduleFailsFastWithConflict() throws Exception {
+        Guest guest = guestRepository.save(new Guest("Contended Guest"));
+        Schedule schedule = saveSchedule(START_OF_NEXT_DAY.plusHours(8));
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TransactionTemplate otherNodeTransaction = new TransactionTemplate(otherNode.getBean(PlatformTransactionManager.class));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> holder = executor.submit(() -> otherNodeTransaction.execute(status -> {
+            otherNode.getBean(ScheduleLock.class).lock(schedule.getId());
+            locked.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        try {
+            Assertions.assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            long started = System.nanoTime();
+            mockMvc.perform(post("/reservations")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(new ObjectMapper().writeValueAsBytes(CreateReservationRequestDTO.builder()
+                            .guestId(guest.getId())
+                            .scheduleId(schedule.getId())
+                            .build())))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.code", is("LOCK_CONFLICT")));
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 5000);
+        } finally {
+            release.countDown();
+            holder.get(10, TimeUnit.SECONDS);
+            executor.shutdown();
+        }
+
+        Assertions.assertNotNull(reservationService.bookReservation(CreateReservationRequestDTO.builder()
+                .guestId(guest.getId())
+                .scheduleId(schedule.getId())
+                .build()).getId());
+    }
+
+    @Test
+    void testConcurrentBookingsOnBothNodesBookOnce() throws Exception {
+        Guest guest = guestRepository.save(new Guest("Racing Guest"));
+        Schedule schedule = saveSchedule(START_OF_NEXT_DAY.plusHours(9));
+        ReservationService otherNodeService = otherNode.getBean(ReservationService.class);
+
+        int attempts = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(attempts);
+        List<Future<Boolean>> outcomes = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            ReservationService node = i % 2 == 0 ? reservationService : otherNodeService;
+            outcomes.add(executor.submit(() -> {
+                start.await();
+                try {
+                    node.bookReservation(CreateReservationRequestDTO.builder()
+                            .guestId(guest.getId())
+                            .scheduleId(schedule.getId())
+                            .build());
+                    return true;
+                } catch (AlreadyExistsEntityException | LockConflictException e) {
+                    return false;
+                } catch (TransactionSystemException e) {
+                    // the pool evicts the connection after an H2 lock timeout, so the rollback that follows the conflict fails
+                    Assertions.assertTrue(e.getApplicationException() instanceof LockConflictException);
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int booked = 0;
+        for (Future<Boolean> outcome : outcomes) {
+            booked += outcome.get(30, TimeUnit.SECONDS) ? 1 : 0;
+        }
+        executor.shutdown();
+
+        Assertions.assertEquals(1, booked);
+        Assertions.assertEquals(1, reservationRepository.findBySchedule_Id(schedule.getId()).size());
+    }
+
+    @Test
+    void testLockTimeoutDoesNotOutliveTheLock() {
+        Schedule schedule = saveSchedule(START_OF_NEXT_DAY.plusHours(10));
+        Long sessionDefault = jdbcTemplate.queryForObject("CALL LOCK_TIMEOUT()", Long.class);
+
+        Long afterLock = new TransactionTemplate(transactionManager).execute(status -> {
+            scheduleLock.lock(schedule.getId());
+            return jdbcTemplate.queryForObject("CALL LOCK_TIMEOUT()", Long.class);
+        });
+
+        Assertions.assertNotEquals(300L, sessionDefault);
+        Assertions.assertEquals(sessionDefault, afterLock);
+    }
+
+    private Schedule saveSchedule(LocalDateTime startDateTime) {
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Locked Court " + startDateTime.getHour()));
+        return scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(startDateTime)
+                .endDateTime(startDateTime.plusHours(1))
+                .build());
+    }
+}
@@ -0,0 +1,119 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "tenniscourts.refund-quotes.chunk-size=2")
+public class RefundQuoteIntegrationTest {
+
+    private static final LocalDateTime START_OF_NEXT_MINUTE = LocalDateTime.now().plusMinutes(1).truncatedTo(ChronoUnit.MINUTES);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Test
+    void testQuotesEveryMatchingReservationAcrossChunks() throws Exception {
+        Guest guest = guestRepository.save(new Guest("Quoted Guest"));
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Closing Court"));
+        book(guest, saveSchedule(tennisCourt, START_OF_NEXT_MINUTE.plusDays(3)));
+        book(guest, saveSchedule(tennisCourt, START_OF_NEXT_MINUTE.plusHours(13)));
+        book(guest, saveSchedule(tennisCourt, START_OF_NEXT_MINUTE.plusHours(5)));
+        book(guest, saveSchedule(tennisCourt, START_OF_NEXT_MINUTE.plusMinutes(30)));
+        ReservationDTO cancelled = book(guest, saveSchedule(tennisCourt, START_OF_NEXT_MINUTE.plusDays(2)));
+        reservationService.cancelReservation(cancelled.getId());
+        book(guest, saveSchedule(tennisCourtRepository.save(new TennisCourt("Open Court")), START_OF_NEXT_MINUTE.plusDays(1)));
+
+        LocalDate today = LocalDate.now();
+        MvcResult mvcResult = mockMvc.perform(get("/reservations/refund-quotes?tennisCourtId=" + tennisCourt.getId()
+                + "&startDate=" + today + "&endDate=" + today.plusDays(4)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quotedAt", notNullValue()))
+                .andExpect(jsonPath("$.quotes", hasSize(4)))
+                .andExpect(jsonPath("$.quotes[0].refundValue", is(10.0)))
+                .andExpect(jsonPath("$.quotes[1].refundValue", is(7.5)))
+                .andExpect(jsonPath("$.quotes[2].refundValue", is(5.0)))
+                .andExpect(jsonPath("$.quotes[3].refundValue", is(2.5)))
+                .andExpect(jsonPath("$.quotes[3].reservationStatus", is(ReservationStatus.READY_TO_PLAY.name())));
+
+        mvcResult = mockMvc.perform(get("/reservations/refund-quotes?tennisCourtId=" + tennisCourt.getId()
+                + "&startDate=" + today + "&endDate=" + today.plusDays(4) + "&status=CANCELLED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quotes", hasSize(1)))
+                .andExpect(jsonPath("$.quotes[0].reservationId", is(cancelled.getId().intValue())));
+    }
+
+    @Test
+    void testQuotesTheWholeLastDay() throws Exception {
+        Guest guest = guestRepository.save(new Guest("Late Guest"));
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Late Court"));
+        LocalDate endDate = LocalDate.now().plusDays(10);
+        ReservationDTO lastSecond = book(guest, saveSchedule(tennisCourt, endDate.atTime(23, 59, 30)));
+        book(guest, saveSchedule(tennisCourt, endDate.plusDays(1).atStartOfDay()));
+
+        MvcResult mvcResult = mockMvc.perform(get("/reservations/refund-quotes?tennisCourtId=" + tennisCourt.getId()
+                + "&startDate=" + endDate + "&endDate=" + endDate))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quotes", hasSize(1)))
+                .andExpect(jsonPath("$.quotes[0].reservationId", is(lastSecond.getId().intValue())));
+    }
+
+    private ReservationDTO book(Guest guest, Schedule schedule) {
+        return reservationService.bookReservation(CreateReservationRequestDTO.builder()
+                .guestId(guest.getId())
+                .scheduleId(schedule.getId())
+                .build());
+    }
+
+    private Schedule saveSchedule(TennisCourt tennisCourt, LocalDateTime startDateTime) {
+        return scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(startDateTime)
+                .endDateTime(startDateTime.plusHours(1))
+                .build());
+    }
+}
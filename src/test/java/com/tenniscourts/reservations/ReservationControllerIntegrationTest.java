@@ -17,13 +17,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -115,6 +118,33 @@ public class ReservationControllerIntegrationTest {
 
     }
 
+    @Test
+    void testBookReservationInThePast() throws Exception {
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Court 1"));
+        Guest guest = guestRepository.save(Guest.builder().name("Serena Williams").build());
+        Schedule schedule = scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(START_OF_NEXT_HOUR.minusHours(3))
+                .endDateTime(START_OF_NEXT_HOUR.minusHours(2))
+                .build());
+
+        CreateReservationRequestDTO createReservationRequestDTO = CreateReservationRequestDTO.builder()
+                .guestId(guest.getId())
+                .scheduleId(schedule.getId())
+                .build();
+
+        mockMvc.perform(post(BASE_URL + "/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(createReservationRequestDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Start date and time is in the past")))
+                .andExpect(jsonPath("$.code", is("INVALID_REQUEST")));
+
+        mockMvc.perform(get(BASE_URL + "/reservations/" + Long.MAX_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.code", is("ENTITY_NOT_FOUND")));
+    }
+
     @Test
     void testRescheduleReservationFullRefund() throws Exception {
         TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Court 1"));
@@ -255,6 +285,32 @@ public class ReservationControllerIntegrationTest {
         Assertions.assertEquals(RESERVATION_FEE.doubleValue() * 0.75, reservation.getRefundValue().doubleValue());
     }
 
+    @Test
+    void testCheckInReservation() throws Exception {
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Court 1"));
+        Schedule startingSoon = scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(LocalDateTime.now().plusMinutes(10))
+                .endDateTime(LocalDateTime.now().plusMinutes(70))
+                .build());
+        Schedule tomorrow = scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(START_OF_NEXT_HOUR.plusDays(1))
+                .endDateTime(START_OF_NEXT_HOUR.plusDays(1).plusHours(1))
+                .build());
+        Reservation reservation = createReservation(startingSoon);
+        Reservation earlyReservation = createReservation(tomorrow);
+
+        mockMvc.perform(put(BASE_URL + "/reservations/" + reservation.getId() + "/check-in"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reservationStatus", is(ReservationStatus.READY_TO_PLAY.name())));
+        Assertions.assertNotNull(reservationRepository.findById(reservation.getId()).get().getCheckedInAt());
+
+        mockMvc.perform(put(BASE_URL + "/reservations/" + earlyReservation.getId() + "/check-in"))
+                .andExpect(status().isBadRequest());
+        Assertions.assertNull(reservationRepository.findById(earlyReservation.getId()).get().getCheckedInAt());
+    }
+
     private Reservation createReservation(Schedule schedule) {
 
         Guest guest = Guest.builder()
@@ -301,8 +357,11 @@ public class ReservationControllerIntegrationTest {
         createReservation(schedule2);
         createReservation(schedule3);
 
-        mockMvc.perform(get(BASE_URL + "/reservations/history")
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/reservations/history")
                 .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
                 .andExpect(status().isOk())
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$", hasSize(2)));
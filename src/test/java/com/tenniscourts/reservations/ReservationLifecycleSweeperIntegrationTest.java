@@ -0,0 +1,107 @@
+package com.tenniscourts.reservations;
+
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.outbox.OutboxEvent;
+import com.tenniscourts.outbox.OutboxEventRepository;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest(properties = {"tenniscourts.lifecycle.grace-minutes=0", "tenniscourts.lifecycle.chunk-size=2"})
+public class ReservationLifecycleSweeperIntegrationTest {
+
+    private static final LocalDateTime START_OF_HOUR = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+
+    @Autowired
+    private ReservationLifecycleSweeper reservationLifecycleSweeper;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private SweepWatermarkRepository sweepWatermarkRepository;
+
+    @Test
+    void testSweepClosesElapsedReservationsOnly() {
+        Guest guest = guestRepository.save(new Guest("Sweeper Guest"));
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Sweeper Court"));
+
+        Reservation played = saveReservation(guest, saveSchedule(tennisCourt, START_OF_HOUR.minusHours(3)), ReservationStatus.READY_TO_PLAY, true);
+        Reservation alsoPlayed = saveReservation(guest, saveSchedule(tennisCourt, START_OF_HOUR.minusHours(4)), ReservationStatus.READY_TO_PLAY, true);
+        Reservation missed = saveReservation(guest, saveSchedule(tennisCourt, START_OF_HOUR.minusHours(5)), ReservationStatus.READY_TO_PLAY, false);
+        Reservation cancelled = saveReservation(guest, saveSchedule(tennisCourt, START_OF_HOUR.minusHours(6)), ReservationStatus.CANCELLED, false);
+        Reservation upcoming = saveReservation(guest, saveSchedule(tennisCourt, START_OF_HOUR.plusHours(2)), ReservationStatus.READY_TO_PLAY, false);
+
+        Assertions.assertTrue(reservationLifecycleSweeper.sweep() >= 3);
+
+        Assertions.assertEquals(ReservationStatus.COMPLETED, statusOf(played));
+        Assertions.assertEquals(ReservationStatus.COMPLETED, statusOf(alsoPlayed));
+        Assertions.assertEquals(ReservationStatus.NO_SHOW, statusOf(missed));
+        Assertions.assertEquals(ReservationStatus.CANCELLED, statusOf(cancelled));
+        Assertions.assertEquals(ReservationStatus.READY_TO_PLAY, statusOf(upcoming));
+        Assertions.assertEquals(0, reservationLifecycleSweeper.sweep());
+
+        Assertions.assertEquals(Arrays.asList(ReservationEventType.RESERVATION_COMPLETED.name()), eventTypesOf(played));
+        Assertions.assertEquals(Arrays.asList(ReservationEventType.RESERVATION_COMPLETED.name()), eventTypesOf(alsoPlayed));
+        Assertions.assertEquals(Arrays.asList(ReservationEventType.RESERVATION_NO_SHOW.name()), eventTypesOf(missed));
+        Assertions.assertTrue(eventTypesOf(cancelled).isEmpty());
+        Assertions.assertTrue(eventTypesOf(upcoming).isEmpty());
+
+        LocalDateTime endedBefore = sweepWatermarkRepository.findById(ReservationLifecycleSweeper.SWEEPER).get().getEndedBefore();
+        Assertions.assertFalse(endedBefore.isBefore(START_OF_HOUR.minusHours(2)));
+    }
+
+    private List<String> eventTypesOf(Reservation reservation) {
+        return outboxEventRepository.findAll().stream()
+                .filter(event -> ReservationService.AGGREGATE_TYPE.equals(event.getAggregateType()) && event.getAggregateId().equals(reservation.getId()))
+                .map(OutboxEvent::getEventType)
+                .collect(Collectors.toList());
+    }
+
+    private ReservationStatus statusOf(Reservation reservation) {
+        return reservationRepository.findById(reservation.getId()).get().getReservationStatus();
+    }
+
+    private Schedule saveSchedule(TennisCourt tennisCourt, LocalDateTime startDateTime) {
+        return scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(startDateTime)
+                .endDateTime(startDateTime.plusHours(1))
+                .build());
+    }
+
+    private Reservation saveReservation(Guest guest, Schedule schedule, ReservationStatus status, boolean checkedIn) {
+        return reservationRepository.save(Reservation.builder()
+                .guest(guest)
+                .schedule(schedule)
+                .value(new BigDecimal(10))
+                .reservationStatus(status)
+                .checkedInAt(checkedIn ? schedule.getStartDateTime() : null)
+                .build());
+    }
+}
@@ -0,0 +1,214 @@
+package com.tenniscourts.reservations;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.exceptions.AlreadyExistsEntityException;
+import com.tenniscourts.exceptions.InvalidRequestException;
+import com.tenniscourts.exceptions.ServiceUnavailableException;
+import com.tenniscourts.guests.Guest;
+import com.tenniscourts.guests.GuestRepository;
+import com.tenniscourts.schedules.Schedule;
+import com.tenniscourts.schedules.ScheduleRepository;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"tenniscourts.booking.strategy=sharded", "tenniscourts.booking.shards=2", "tenniscourts.booking.max-batch=16"})
+public class ShardedBookingEngineIntegrationTest {
+
+    private static final LocalDateTime START_OF_NEXT_DAY = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+
+    @Autowired
+    private BookingEngine bookingEngine;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private GuestRepository guestRepository;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Guest guest;
+
+    @BeforeEach
+    void setUp() {
+        guest = guestRepository.save(new Guest("Sharded Guest"));
+    }
+
+    @Test
+    void testControllersRouteThroughTheShards() throws Exception {
+        Assertions.assertTrue(bookingEngine instanceof ShardedBookingEngine);
+        Schedule schedule = saveSchedule(tennisCourtRepository.save(new TennisCourt("Routed Court")), START_OF_NEXT_DAY.plusHours(8));
+
+        mockMvc.perform(post("/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(request(schedule))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/reservations")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(request(schedule))))
+                .andExpect(status().isConflict());
+
+        Reservation reservation = reservationRepository.findBySchedule_Id(schedule.getId()).get(0);
+        mockMvc.perform(put("/reservations/" + reservation.getId() + "/cancel"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reservationStatus", is(ReservationStatus.CANCELLED.name())));
+    }
+
+    @Test
+    void testOneBookingWinsAContendedSlot() throws Exception {
+        Schedule schedule = saveSchedule(tennisCourtRepository.save(new TennisCourt("Contended Court")), START_OF_NEXT_DAY.plusHours(9));
+
+        List<Callable<ReservationDTO>> bookings = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            bookings.add(() -> bookingEngine.bookReservation(request(schedule)));
+        }
+
+        int booked = 0;
+        for (Future<ReservationDTO> result : runTogether(bookings)) {
+            try {
+                Assertions.assertNotNull(result.get().getId());
+                booked++;
+            } catch (ExecutionException e) {
+                Assertions.assertTrue(e.getCause() instanceof AlreadyExistsEntityException, e.getCause().toString());
+            }
+        }
+        Assertions.assertEquals(1, booked);
+        Assertions.assertEquals(1, reservationRepository.findBySchedule_Id(schedule.getId()).size());
+    }
+
+    @Test
+    void testFailingCommandOnlyFailsItself() throws Exception {
+        List<Schedule> schedules = new ArrayList<>();
+        for (int court = 0; court < 4; court++) {
+            TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Busy Court " + court));
+            for (int hour = 10; hour < 16; hour++) {
+                schedules.add(saveSchedule(tennisCourt, START_OF_NEXT_DAY.plusHours(hour)));
+            }
+            schedules.add(saveSchedule(tennisCourt, START_OF_NEXT_DAY.minusDays(2).plusHours(court)));
+        }
+
+        List<Callable<ReservationDTO>> bookings = new ArrayList<>();
+        for (Schedule schedule : schedules) {
+            bookings.add(() -> bookingEngine.bookReservation(request(schedule)));
+        }
+        List<Future<ReservationDTO>> results = runTogether(bookings);
+
+        for (int i = 0; i < schedules.size(); i++) {
+            Schedule schedule = schedules.get(i);
+            if (schedule.getStartDateTime().isBefore(LocalDateTime.now())) {
+                ExecutionException failure = Assertions.assertThrows(ExecutionException.class, results.get(i)::get);
+                Assertions.assertTrue(failure.getCause() instanceof InvalidRequestException, failure.getCause().toString());
+                Assertions.assertTrue(reservationRepository.findBySchedule_Id(schedule.getId()).isEmpty());
+            } else {
+                Assertions.assertEquals(schedule.getId(), results.get(i).get().getSchedule().getId());
+                Assertions.assertEquals(1, reservationRepository.findBySchedule_Id(schedule.getId()).size());
+            }
+        }
+    }
+
+    @Test
+    void testCallerStopsWaitingAfterTheCommandTimeout() throws Exception {
+        ReservationService reservationService = Mockito.mock(ReservationService.class);
+        CreateReservationRequestDTO running = CreateReservationRequestDTO.builder().guestId(1L).scheduleId(1L).build();
+        CreateReservationRequestDTO queued = CreateReservationRequestDTO.builder().guestId(1L).scheduleId(2L).build();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(reservationService.bookReservation(running)).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new ReservationDTO();
+        });
+
+        ShardedBookingEngine engine = new ShardedBookingEngine(reservationService, reservationRepository,
+                Mockito.mock(PlatformTransactionManager.class), 1, 16, 16, 200);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ReservationDTO> first = executor.submit(() -> engine.bookReservation(running));
+            Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Assertions.assertThrows(ServiceUnavailableException.class, () -> engine.bookReservation(queued));
+            ExecutionException failure = Assertions.assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            Assertions.assertTrue(failure.getCause() instanceof ServiceUnavailableException, failure.getCause().toString());
+
+            release.countDown();
+            Mockito.verify(reservationService, Mockito.timeout(1000)).bookReservation(running);
+            Thread.sleep(200);
+            Mockito.verify(reservationService, Mockito.never()).bookReservation(queued);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+            engine.destroy();
+        }
+    }
+
+    private List<Future<ReservationDTO>> runTogether(List<Callable<ReservationDTO>> tasks) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ReservationDTO>> results = new ArrayList<>();
+            for (Callable<ReservationDTO> task : tasks) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private CreateReservationRequestDTO request(Schedule schedule) {
+        return CreateReservationRequestDTO.builder()
+                .guestId(guest.getId())
+                .scheduleId(schedule.getId())
+                .build();
+    }
+
+    private Schedule saveSchedule(TennisCourt tennisCourt, LocalDateTime startDateTime) {
+        return scheduleRepository.save(Schedule.builder()
+                .tennisCourt(tennisCourt)
+                .startDateTime(startDateTime)
+                .endDateTime(startDateTime.plusHours(1))
+                .build());
+    }
+}
@@ -0,0 +1,75 @@
+package com.tenniscourts.schedules;
+
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@AutoConfigureMockMvc
+@SpringBootTest
+public class AsyncScheduleControllerIntegrationTest {
+
+    private static final String BASE_URL = "http://localhost:8080";
+    private static final LocalDateTime START_OF_TOMORROW = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    @AfterEach
+    void destroy() {
+        scheduleRepository.deleteAll();
+        tennisCourtRepository.deleteAll();
+    }
+
+    @Test
+    void testStreamSchedulesByDates() throws Exception {
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Court 1"));
+        for (int hour = 8; hour < 20; hour++) {
+            scheduleRepository.save(Schedule.builder()
+                    .tennisCourt(tennisCourt)
+                    .startDateTime(START_OF_TOMORROW.plusHours(hour))
+                    .endDateTime(START_OF_TOMORROW.plusHours(hour + 1))
+                    .build());
+        }
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/async/schedules?startDate=" + START_OF_TOMORROW.toLocalDate() + "&endDate=" + START_OF_TOMORROW.toLocalDate()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(12)))
+                .andExpect(jsonPath("$[0].tennisCourt.name", is("Court 1")));
+    }
+
+    @Test
+    void testFindScheduleNotFound() throws Exception {
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/async/schedules/" + Long.MAX_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message", is("Schedule not found.")));
+    }
+}
@@ -0,0 +1,119 @@
+package com.tenniscourts.schedules;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.config.web.ResponseStreams;
+import com.tenniscourts.tenniscourts.TennisCourt;
+import com.tenniscourts.tenniscourts.TennisCourtRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Checks that the binary encodings of the schedule endpoints decode to the same schedules as JSON, in fewer bytes.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest
+public class ScheduleContentNegotiationIntegrationTest {
+
+    private static final String BASE_URL = "http://localhost:8080";
+    private static final LocalDateTime START_OF_TOMORROW = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+    private static final TypeReference<List<ScheduleDTO>> SCHEDULE_LIST = new TypeReference<List<ScheduleDTO>>() {
+    };
+
+    private final Map<MediaType, ObjectMapper> objectMappers = new LinkedHashMap<>();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TennisCourtRepository tennisCourtRepository;
+
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+
+    private Schedule firstSchedule;
+
+    @BeforeEach
+    void setUp() {
+        objectMappers.put(MediaType.APPLICATION_JSON, Jackson2ObjectMapperBuilder.json().build());
+        objectMappers.put(MediaType.APPLICATION_CBOR, Jackson2ObjectMapperBuilder.cbor().build());
+        objectMappers.put(ResponseStreams.APPLICATION_SMILE, Jackson2ObjectMapperBuilder.smile().build());
+
+        TennisCourt tennisCourt = tennisCourtRepository.save(new TennisCourt("Roland Garros - Court Philippe-Chatrier"));
+        for (int hour = 0; hour < 23; hour++) {
+            Schedule schedule = scheduleRepository.save(Schedule.builder()
+                    .tennisCourt(tennisCourt)
+                    .startDateTime(START_OF_TOMORROW.plusHours(hour))
+                    .endDateTime(START_OF_TOMORROW.plusHours(hour + 1))
+                    .build());
+            if (firstSchedule == null) {
+                firstSchedule = schedule;
+            }
+        }
+    }
+
+    @AfterEach
+    void destroy() {
+        scheduleRepository.deleteAll();
+        tennisCourtRepository.deleteAll();
+    }
+
+    @Test
+    void testBinaryEncodingsMatchJson() throws Exception {
+        Map<MediaType, byte[]> payloads = new LinkedHashMap<>();
+        for (Map.Entry<MediaType, ObjectMapper> encoding : objectMappers.entrySet()) {
+            MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/schedules?startDate=" + START_OF_TOMORROW.toLocalDate() + "&endDate=" + START_OF_TOMORROW.toLocalDate())
+                    .accept(encoding.getKey()))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            byte[] payload = mockMvc.perform(asyncDispatch(mvcResult))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(encoding.getKey()))
+                    .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                    .andReturn().getResponse().getContentAsByteArray();
+
+            List<ScheduleDTO> schedules = encoding.getValue().readValue(payload, SCHEDULE_LIST);
+            Assertions.assertEquals(23, schedules.size());
+            Assertions.assertEquals(START_OF_TOMORROW, schedules.get(0).getStartDateTime());
+            payloads.put(encoding.getKey(), payload);
+        }
+
+        int jsonSize = payloads.get(MediaType.APPLICATION_JSON).length;
+        Assertions.assertTrue(payloads.get(MediaType.APPLICATION_CBOR).length < jsonSize);
+        Assertions.assertTrue(payloads.get(ResponseStreams.APPLICATION_SMILE).length < jsonSize);
+    }
+
+    @Test
+    void testSingleScheduleAndUnsupportedEncoding() throws Exception {
+        byte[] payload = mockMvc.perform(get(BASE_URL + "/schedules/" + firstSchedule.getId())
+                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        Assertions.assertEquals(firstSchedule.getId(), objectMappers.get(MediaType.APPLICATION_CBOR).readValue(payload, ScheduleDTO.class).getId());
+
+        mockMvc.perform(get(BASE_URL + "/schedules?startDate=" + START_OF_TOMORROW.toLocalDate() + "&endDate=" + START_OF_TOMORROW.toLocalDate())
+                .accept(MediaType.APPLICATION_XML))
+                .andExpect(status().isNotAcceptable());
+    }
+}
@@ -13,12 +13,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 @AutoConfigureMockMvc
@@ -66,5 +71,20 @@ public class ScheduleControllerIntegrationTest {
                 .andExpect(status().isCreated());
 
         Assertions.assertEquals(2, scheduleRepository.findByTennisCourt_IdOrderByStartDateTime(tennisCourt.getId()).size());
+
+        MvcResult mvcResult = mockMvc.perform(get(BASE_URL + "/schedules?startDate=" + START_OF_NEXT_HOUR.toLocalDate() + "&endDate=" + START_OF_NEXT_HOUR.plusDays(1).toLocalDate()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        mvcResult = mockMvc.perform(get(BASE_URL + "/tennisCourts/" + tennisCourt.getId() + "/withSchedules"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Court 1")))
+                .andExpect(jsonPath("$.tennisCourtSchedules", hasSize(2)));
     }
 }
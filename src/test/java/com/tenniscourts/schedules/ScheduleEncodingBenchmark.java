@@ -0,0 +1,81 @@
+package com.tenniscourts.schedules;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tenniscourts.config.web.ResponseStreams;
+import com.tenniscourts.tenniscourts.TennisCourtDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares payload size and encode/decode time of the schedule list in JSON, CBOR and Smile. Not part of the unit
+ * suite, run it with {@code ./gradlew benchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+public class ScheduleEncodingBenchmark {
+
+    private static final TypeReference<List<ScheduleDTO>> SCHEDULE_LIST = new TypeReference<List<ScheduleDTO>>() {
+    };
+
+    private static final int WARMUP_ROUNDS = 2_000;
+
+    private static final int MEASURED_ROUNDS = 2_000;
+
+    @Test
+    void compareEncodings() throws Exception {
+        Map<MediaType, ObjectMapper> objectMappers = new LinkedHashMap<>();
+        objectMappers.put(MediaType.APPLICATION_JSON, Jackson2ObjectMapperBuilder.json().build());
+        objectMappers.put(MediaType.APPLICATION_CBOR, Jackson2ObjectMapperBuilder.cbor().build());
+        objectMappers.put(ResponseStreams.APPLICATION_SMILE, Jackson2ObjectMapperBuilder.smile().build());
+
+        List<ScheduleDTO> schedules = schedules();
+        for (Map.Entry<MediaType, ObjectMapper> encoding : objectMappers.entrySet()) {
+            ObjectMapper objectMapper = encoding.getValue();
+            byte[] payload = objectMapper.writeValueAsBytes(schedules);
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                objectMapper.readValue(objectMapper.writeValueAsBytes(schedules), SCHEDULE_LIST);
+            }
+
+            long encodeNanos = 0;
+            long decodeNanos = 0;
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                long start = System.nanoTime();
+                payload = objectMapper.writeValueAsBytes(schedules);
+                encodeNanos += System.nanoTime() - start;
+                start = System.nanoTime();
+                Assertions.assertEquals(schedules.size(), objectMapper.readValue(payload, SCHEDULE_LIST).size());
+                decodeNanos += System.nanoTime() - start;
+            }
+            log.info("{}: {} bytes, encode {} us, decode {} us", encoding.getKey(), payload.length,
+                    encodeNanos / MEASURED_ROUNDS / 1000, decodeNanos / MEASURED_ROUNDS / 1000);
+        }
+    }
+
+    private static List<ScheduleDTO> schedules() {
+        TennisCourtDTO tennisCourt = TennisCourtDTO.builder().id(1L).name("Roland Garros - Court Philippe-Chatrier").build();
+        LocalDateTime startOfNextDay = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.DAYS);
+        List<ScheduleDTO> schedules = new ArrayList<>();
+        for (int hour = 0; hour < 23; hour++) {
+            ScheduleDTO schedule = new ScheduleDTO();
+            schedule.setId((long) hour + 1);
+            schedule.setTennisCourt(tennisCourt);
+            schedule.setTennisCourtId(tennisCourt.getId());
+            schedule.setStartDateTime(startOfNextDay.plusHours(hour));
+            schedule.setEndDateTime(startOfNextDay.plusHours(hour + 1));
+            schedules.add(schedule);
+        }
+        return schedules;
+    }
+}
@@ -1,7 +1,9 @@
 package com.tenniscourts.schedules;
 
+import com.tenniscourts.config.persistence.EntityStreams;
 import com.tenniscourts.exceptions.AlreadyExistsEntityException;
 import com.tenniscourts.exceptions.EntityNotFoundException;
+import com.tenniscourts.outbox.OutboxPublisher;
 import com.tenniscourts.tenniscourts.TennisCourt;
 import com.tenniscourts.tenniscourts.TennisCourtRepository;
 import org.junit.FixMethodOrder;
@@ -37,7 +39,7 @@ public class ScheduleServiceLayerTest {
     @BeforeEach
     void setUp() {
         scheduleMapper = new ScheduleMapperImpl();
-        scheduleService = new ScheduleService(scheduleRepository, tennisCourtRepository, scheduleMapper);
+        scheduleService = new ScheduleService(scheduleRepository, tennisCourtRepository, scheduleMapper, Mockito.mock(EntityStreams.class), Mockito.mock(OutboxPublisher.class));
     }
 
     @Test